@@ -0,0 +1,129 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventDeserializer;
+import com.example.paymentservice.event.PaymentEventSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.UUIDDeserializer;
+import org.apache.kafka.common.serialization.UUIDSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer/consumer hot path: the Kafka value (de)serializers registered in
+ * {@link KafkaConfig} in both wire formats (JSON and binary), next to the
+ * bare-UUID format they replaced. The binary deserializer is fed a
+ * {@link ByteBuffer}, as the consumer does.
+ *
+ * {@code deserializeBinaryAndReadFields} is the consumer's whole decoding cost,
+ * and {@code copyBinaryPayload} the floor of a lazy view that outlives the fetch
+ * buffer: the gap between them is what on-demand accessors could save at most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentEventSerdeBenchmark {
+
+    private PaymentEventSerializer serializer;
+    private PaymentEventDeserializer deserializer;
+    private PaymentCreatedEvent event;
+    private byte[] payload;
+
+    private PaymentEventSerializer binarySerializer;
+    private ByteBuffer binaryPayload;
+    private RecordHeaders headers;
+
+    private UUIDSerializer uuidSerializer;
+    private UUIDDeserializer uuidDeserializer;
+    private byte[] uuidPayload;
+
+    @Setup
+    public void setUp() {
+        serializer = new PaymentEventSerializer();
+        deserializer = new PaymentEventDeserializer();
+        event = new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(),
+                new BigDecimal("120.50"), "AUD", PaymentType.CARD, UUID.randomUUID().toString(),
+                "card_Zm9vYmFyYmF6cXV4cXV1eGNvcmdlZ3JhdWx0Z2FycGx5", LocalDateTime.now(), "411111");
+        payload = serializer.serialize(KafkaConfig.PAYMENT_TOPIC, event);
+
+        binarySerializer = new PaymentEventSerializer();
+        binarySerializer.configure(Map.of(PaymentEventSerializer.WIRE_FORMAT_CONFIG, "binary"), false);
+        binaryPayload = ByteBuffer.wrap(binarySerializer.serialize(KafkaConfig.PAYMENT_TOPIC, event));
+        headers = new RecordHeaders();
+
+        uuidSerializer = new UUIDSerializer();
+        uuidDeserializer = new UUIDDeserializer();
+        uuidPayload = uuidSerializer.serialize(KafkaConfig.PAYMENT_TOPIC, event.paymentId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        binarySerializer.close();
+        deserializer.close();
+        uuidSerializer.close();
+        uuidDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(KafkaConfig.PAYMENT_TOPIC, event);
+    }
+
+    @Benchmark
+    public PaymentCreatedEvent deserialize() {
+        return deserializer.deserialize(KafkaConfig.PAYMENT_TOPIC, payload);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(KafkaConfig.PAYMENT_TOPIC, event);
+    }
+
+    @Benchmark
+    public PaymentCreatedEvent deserializeBinary() {
+        return deserializer.deserialize(KafkaConfig.PAYMENT_TOPIC, headers, binaryPayload);
+    }
+
+    // Every field PaymentConsumer and FraudService read, i.e. all but idempotencyKey
+    @Benchmark
+    public void deserializeBinaryAndReadFields(Blackhole blackhole) {
+        PaymentCreatedEvent decoded = deserializer.deserialize(KafkaConfig.PAYMENT_TOPIC, headers, binaryPayload);
+        blackhole.consume(decoded.version());
+        blackhole.consume(decoded.paymentId());
+        blackhole.consume(decoded.amount());
+        blackhole.consume(decoded.currency());
+        blackhole.consume(decoded.paymentType());
+        blackhole.consume(decoded.instrumentToken());
+        blackhole.consume(decoded.instrumentPrefix());
+        blackhole.consume(decoded.createdAt());
+    }
+
+    @Benchmark
+    public byte[] copyBinaryPayload() {
+        byte[] copy = new byte[binaryPayload.remaining()];
+        binaryPayload.get(binaryPayload.position(), copy);
+        return copy;
+    }
+
+    @Benchmark
+    public byte[] serializeLegacyUuid() {
+        return uuidSerializer.serialize(KafkaConfig.PAYMENT_TOPIC, event.paymentId());
+    }
+
+    @Benchmark
+    public UUID deserializeLegacyUuid() {
+        return uuidDeserializer.deserialize(KafkaConfig.PAYMENT_TOPIC, uuidPayload);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.paymentservice.dto;
+
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request hot path: Jackson (de)serialization of the response body,
+ * using the same JsonMapper type MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentResponseJsonBenchmark {
+
+    private JsonMapper jsonMapper;
+    private PaymentResponse response;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        response = PaymentResponse.builder()
+                .paymentId(UUID.randomUUID())
+                .status("PENDING")
+                .amount(new BigDecimal("120.50"))
+                .currency("AUD")
+                .createdAt(LocalDateTime.now())
+                .build();
+        json = jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PaymentResponse deserialize() {
+        return jsonMapper.readValue(json, PaymentResponse.class);
+    }
+}
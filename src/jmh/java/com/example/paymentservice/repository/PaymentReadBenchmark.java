@@ -0,0 +1,102 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.entity.BankPaymentDetails;
+import com.example.paymentservice.entity.CardPaymentDetails;
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import org.hibernate.FlushMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernatePersistenceConfiguration;
+import org.hibernate.tool.schema.Action;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /payments/{id} cache miss and the idempotent-replay read: a managed
+ * {@link Payment} in a read-write transaction (the old path) next to the
+ * {@link PaymentSummary} column projection in a read-only one. Each call is
+ * a whole session and transaction against in-memory H2, so the difference
+ * is the entity, its snapshot and the flush at commit. Compare
+ * {@code gc.alloc.rate.norm} as well as the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentReadBenchmark {
+
+    private static final int PAYMENTS = 1_000;
+
+    private static final String SUMMARY_BY_ID = """
+            select new com.example.paymentservice.repository.PaymentSummary(
+                p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            where p.id = :id
+            """;
+
+    private SessionFactory sessionFactory;
+    private UUID[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new HibernatePersistenceConfiguration("payment-read-benchmark")
+                .managedClasses(Payment.class, CardPaymentDetails.class, BankPaymentDetails.class)
+                .jdbcUrl("jdbc:h2:mem:payment-read-benchmark;DB_CLOSE_DELAY=-1")
+                .jdbcCredentials("sa", "")
+                .schemaToolingAction(Action.CREATE_DROP)
+                .createEntityManagerFactory();
+
+        ids = new UUID[PAYMENTS];
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < PAYMENTS; i++) {
+                Payment payment = Payment.builder()
+                        .amount(new BigDecimal("120.50"))
+                        .currency("AUD")
+                        .paymentType(PaymentType.CARD)
+                        .status(PaymentStatus.PENDING)
+                        .idempotencyKey(UUID.randomUUID().toString())
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                session.persist(payment);
+                ids[i] = payment.getId();
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    private UUID nextId() {
+        next = (next + 1) % PAYMENTS;
+        return ids[next];
+    }
+
+    @Benchmark
+    public Payment managedEntity() {
+        UUID id = nextId();
+        return sessionFactory.fromTransaction(session -> session.find(Payment.class, id));
+    }
+
+    @Benchmark
+    public PaymentSummary readOnlyProjection() {
+        UUID id = nextId();
+        return sessionFactory.fromTransaction(session -> {
+            // What a Spring read-only transaction sets on the session
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return session.createSelectionQuery(SUMMARY_BY_ID, PaymentSummary.class)
+                    .setParameter("id", id)
+                    .getSingleResult();
+        });
+    }
+}
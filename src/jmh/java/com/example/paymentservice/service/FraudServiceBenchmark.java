@@ -0,0 +1,90 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.service.fraud.FraudDecision;
+import com.example.paymentservice.service.fraud.FraudRuleDefinition;
+import com.example.paymentservice.service.fraud.FraudRulePlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer hot path: one fraud check per payment event.
+ * The plan benchmarks measure rule evaluation alone; run with -prof gc to
+ * confirm a clean decision allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FraudServiceBenchmark {
+
+    private FraudService fraudService;
+    private Payment cleanPayment;
+    private Payment fraudulentPayment;
+    private FraudRulePlan plan;
+    private BigDecimal cleanAmount;
+
+    @Setup
+    public void setUp() {
+        fraudService = new FraudService();
+        cleanPayment = payment(new BigDecimal("120.50"));
+        fraudulentPayment = payment(new BigDecimal("20000.00"));
+        cleanAmount = new BigDecimal("120.50");
+        plan = FraudRulePlan.compile(List.of(
+                new FraudRuleDefinition("amount-over-15000", FraudRuleDefinition.Kind.AMOUNT_LIMIT,
+                        null, null, null, null, new BigDecimal("15000"), null, null, null),
+                new FraudRuleDefinition("aud-card-over-10000", FraudRuleDefinition.Kind.AMOUNT_LIMIT,
+                        null, "AUD", PaymentType.CARD, null, new BigDecimal("10000"), null, null, null),
+                new FraudRuleDefinition("usd-limit", FraudRuleDefinition.Kind.AMOUNT_LIMIT,
+                        null, "USD", null, null, new BigDecimal("5000"), null, null, null),
+                new FraudRuleDefinition("bank-band", FraudRuleDefinition.Kind.AMOUNT_BAND,
+                        FraudRuleDefinition.Action.MONITOR, null, PaymentType.BANK,
+                        new BigDecimal("9500"), new BigDecimal("10000"), null, null, null),
+                new FraudRuleDefinition("blocked-bins", FraudRuleDefinition.Kind.CARD_BIN_BLOCKLIST,
+                        null, null, null, null, null, List.of("400000", "411112", "522222"), null, null),
+                new FraudRuleDefinition("blocked-bsbs", FraudRuleDefinition.Kind.BSB_BLOCKLIST,
+                        null, null, null, null, null, List.of("062999"), null, null)));
+    }
+
+    @Benchmark
+    public FraudDecision evaluatePlan_clean() {
+        return plan.evaluate(cleanAmount, "AUD", PaymentType.CARD, "411111");
+    }
+
+    @Benchmark
+    public FraudDecision evaluatePlan_blockedBin() {
+        return plan.evaluate(cleanAmount, "AUD", PaymentType.CARD, "400000");
+    }
+
+    @Benchmark
+    public boolean checkFraud_clean() {
+        return fraudService.checkFraud(cleanPayment);
+    }
+
+    @Benchmark
+    public boolean checkFraud_fraudulent() {
+        return fraudService.checkFraud(fraudulentPayment);
+    }
+
+    static Payment payment(BigDecimal amount) {
+        return Payment.builder()
+                .id(UUID.randomUUID())
+                .amount(amount)
+                .currency("AUD")
+                .paymentType(PaymentType.CARD)
+                .status(PaymentStatus.PENDING)
+                .idempotencyKey(UUID.randomUUID().toString())
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.Payment;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request hot path: entity to response DTO mapping done on every create/read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentServiceBenchmark {
+
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        payment = FraudServiceBenchmark.payment(new BigDecimal("120.50"));
+    }
+
+    @Benchmark
+    public PaymentResponse mapToResponse() {
+        return PaymentService.mapToResponse(payment);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.paymentservice.validator;
+
+import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.CardPaymentRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request hot path: what the controller runs before reaching the service,
+ * i.e. {@code @Valid} bean validation followed by {@link RequestValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private RequestValidator requestValidator;
+    private CardPaymentRequest cardRequest;
+    private BankPaymentRequest bankRequest;
+    private CardPaymentRequest invalidCardRequest;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        requestValidator = new RequestValidator();
+
+        cardRequest = CardPaymentRequest.builder()
+                .amount(new BigDecimal("120.50"))
+                .currency("AUD")
+                .cardNumber("4111111111111111")
+                .cardHolderName("Jane Doe")
+                .expiryMonth(12)
+                .expiryYear(2030)
+                .cvv("123")
+                .build();
+        bankRequest = BankPaymentRequest.builder()
+                .amount(new BigDecimal("120.50"))
+                .currency("AUD")
+                .accountNumber("12345678")
+                .bsb("062000")
+                .accountHolderName("Jane Doe")
+                .bankName("CBA")
+                .build();
+        invalidCardRequest = CardPaymentRequest.builder()
+                .amount(new BigDecimal("120.50"))
+                .currency("AUD")
+                .cardNumber("4111")
+                .cardHolderName("Jane Doe")
+                .expiryMonth(12)
+                .expiryYear(2030)
+                .cvv("1")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CardPaymentRequest>> validateCardRequest() {
+        Set<ConstraintViolation<CardPaymentRequest>> violations = validator.validate(cardRequest);
+        requestValidator.validateIdempotencyKey("bench-key");
+        requestValidator.validateAmount(cardRequest.getAmount());
+        return violations;
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BankPaymentRequest>> validateBankRequest() {
+        Set<ConstraintViolation<BankPaymentRequest>> violations = validator.validate(bankRequest);
+        requestValidator.validateIdempotencyKey("bench-key");
+        requestValidator.validateAmount(bankRequest.getAmount());
+        return violations;
+    }
+
+    // Rejections build violation messages, which is where most of the allocation is
+    @Benchmark
+    public Set<ConstraintViolation<CardPaymentRequest>> validateInvalidCardRequest() {
+        return validator.validate(invalidCardRequest);
+    }
+}
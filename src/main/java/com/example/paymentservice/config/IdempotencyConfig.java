@@ -0,0 +1,42 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.idempotency.IdempotencyStore;
+import com.example.paymentservice.service.idempotency.InMemoryIdempotencyStore;
+import com.example.paymentservice.service.idempotency.RedisIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Default store: per-instance map, enough for local runs and tests.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(
+            @Value("${payment.idempotency.ttl:24h}") Duration ttl,
+            @Value("${payment.idempotency.in-progress-ttl:30s}") Duration inProgressTtl) {
+        return new InMemoryIdempotencyStore(ttl, inProgressTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Shared store for multi-instance deployments.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.idempotency.store", havingValue = "redis")
+    public IdempotencyStore redisIdempotencyStore(
+            StringRedisTemplate redisTemplate,
+            JsonMapper jsonMapper,
+            @Value("${payment.idempotency.ttl:24h}") Duration ttl,
+            @Value("${payment.idempotency.in-progress-ttl:30s}") Duration inProgressTtl) {
+        return new RedisIdempotencyStore(redisTemplate, jsonMapper, ttl, inProgressTtl);
+    }
+}
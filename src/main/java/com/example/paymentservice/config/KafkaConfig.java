@@ -1,32 +1,74 @@
 package com.example.paymentservice.config;
 
+import com.example.paymentservice.event.PaymentEventDeserializer;
+import com.example.paymentservice.event.PaymentEventSerializer;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.kafka.autoconfigure.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.boot.kafka.autoconfigure.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+import java.util.Map;
+
 @Configuration
 public class KafkaConfig {
 
     public static final String PAYMENT_TOPIC = "payments";
     public static final String PAYMENT_DLQ_TOPIC = "payments_dlq";
 
+    // Upper bound on consumer parallelism for the whole consumer group
+    @Value("${payment.kafka.partitions:6}")
+    private int partitions;
+
+    // json, or binary once every consumer runs a build that reads it
+    @Value("${payment.events.wire-format:json}")
+    private String eventWireFormat;
+
     /**
      * Ensures the topic exists.
      * Created automatically on application startup by KafkaAdmin.
+     * Existing topics with fewer partitions are expanded, never shrunk.
      */
     @Bean
     public NewTopic paymentsTopic() {
         return TopicBuilder.name(PAYMENT_TOPIC)
-                .partitions(1)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
+
+    // Same partition count: the DLQ recoverer keeps each record's partition number
     @Bean
     public NewTopic paymentsDlqTopic() {
         return TopicBuilder.name(PAYMENT_DLQ_TOPIC)
-                .partitions(1)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
+
+    /**
+     * Payment events are keyed by instrument token (String) and carry a
+     * {@code PaymentCreatedEvent}. Registered on Boot's producer/consumer
+     * factories so every template and listener container picks them up.
+     */
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer paymentEventSerializers() {
+        return producerFactory -> producerFactory.updateConfigs(Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PaymentEventSerializer.class,
+                PaymentEventSerializer.WIRE_FORMAT_CONFIG, eventWireFormat));
+    }
+
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer paymentEventDeserializers() {
+        return consumerFactory -> consumerFactory.updateConfigs(Map.of(
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, PaymentEventDeserializer.class));
+    }
 }
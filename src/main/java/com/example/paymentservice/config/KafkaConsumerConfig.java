@@ -1,46 +1,127 @@
 package com.example.paymentservice.config;
 
 import com.example.paymentservice.exception.PaymentNotFoundException;
+import com.example.paymentservice.service.PaymentMetrics;
+import com.example.paymentservice.service.fraud.VelocityTracker;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.kafka.autoconfigure.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.List;
+import java.util.Properties;
+
 @Configuration
 public class KafkaConsumerConfig {
 // This configuration ensures:
 // - Transient failures are retried with backoff
 // - Permanent failures are sent directly to DLQ
 // - Poison messages never block the consumer
+// The single-record payment listener retries through retry topics instead (KafkaRetryConfig);
+// the error handler below covers the batch listener and the DLQ listener.
+
+    // Permanent failures: straight to the DLQ, never retried (blocking or via retry topics)
+    static final List<Class<? extends Exception>> NOT_RETRYABLE = List.of(
+            IllegalArgumentException.class,
+            PaymentNotFoundException.class
+    );
 
+    // Send failed messages to DLQ, counted by root cause (payment.dlq.routed).
+    // Records failing in the DLQ listener itself are dropped after retries rather than looping.
     @Bean
-    public DefaultErrorHandler errorHandler(
-            KafkaTemplate<Object, Object> kafkaTemplate) {
+    public DeadLetterPublishingRecoverer paymentDlqRecoverer(
+            KafkaTemplate<Object, Object> kafkaTemplate, PaymentMetrics paymentMetrics) {
 
-        // Send failed messages to DLQ
-        DeadLetterPublishingRecoverer recoverer =
-                new DeadLetterPublishingRecoverer(
-                        kafkaTemplate,
-                        (record, ex) ->
-                                new TopicPartition("payments-dlq", record.partition())
-                );
+        return new DeadLetterPublishingRecoverer(
+                kafkaTemplate,
+                (record, ex) -> KafkaConfig.PAYMENT_DLQ_TOPIC.equals(record.topic())
+                        ? null
+                        : new TopicPartition(KafkaConfig.PAYMENT_DLQ_TOPIC, record.partition())
+        ) {
+            @Override
+            public void accept(ConsumerRecord<?, ?> record, Consumer<?, ?> consumer, Exception exception) {
+                if (!KafkaConfig.PAYMENT_DLQ_TOPIC.equals(record.topic())) {
+                    paymentMetrics.recordDlqRouted(NestedExceptionUtils.getMostSpecificCause(exception));
+                }
+                super.accept(record, consumer, exception);
+            }
+        };
+    }
+
+    @Bean
+    public DefaultErrorHandler errorHandler(
+            DeadLetterPublishingRecoverer paymentDlqRecoverer) {
 
         // Retry 3 times with 2s delay
         FixedBackOff backOff = new FixedBackOff(2000L, 3L);
 
         DefaultErrorHandler errorHandler =
-                new DefaultErrorHandler(recoverer, backOff);
+                new DefaultErrorHandler(paymentDlqRecoverer, backOff);
 
         // ❗ Important: do NOT retry permanent failures
-        errorHandler.addNotRetryableExceptions(
-                IllegalArgumentException.class,
-                PaymentNotFoundException.class
-        );
+        NOT_RETRYABLE.forEach(errorHandler::addNotRetryableExceptions);
 
         return errorHandler;
     }
-}
 
+    /**
+     * Default listener factory. One consumer thread per partition by default
+     * ({@code payment.consumer.concurrency} falls back to {@code payment.kafka.partitions});
+     * threads beyond the partition count would only sit idle. Rebalances are
+     * passed to the {@link VelocityTracker} so it only keeps state for owned partitions.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            VelocityTracker velocityTracker,
+            @Value("${payment.consumer.concurrency:${payment.kafka.partitions:6}}") int concurrency) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setConsumerRebalanceListener(velocityTracker);
+        return factory;
+    }
+
+    /**
+     * Listener factory for {@code payment.consumer.mode=batch}: hands the
+     * listener a whole poll of up to {@code payment.consumer.batch-size} records.
+     * Everything else (error handler, ack mode, ...) comes from the Boot defaults.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "batch")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            VelocityTracker velocityTracker,
+            @Value("${payment.consumer.batch-size:500}") int batchSize,
+            @Value("${payment.consumer.concurrency:${payment.kafka.partitions:6}}") int concurrency) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchSize));
+        factory.getContainerProperties().setKafkaConsumerProperties(overrides);
+        factory.getContainerProperties().setConsumerRebalanceListener(velocityTracker);
+
+        return factory;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.PaymentMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking retries for the single-record payment listener.
+ *
+ * A record that fails with a transient error is republished to a retry topic
+ * ({@code payments-retry-1000}, {@code -10000}, {@code -60000} with the
+ * defaults) and redelivered by that tier's listener once its delay is up, so
+ * the records behind it on the main partition are not held back. Each delay
+ * is spread by up to +/- {@code payment.kafka.retry.jitter} per record.
+ * Not-retryable failures skip the tiers; they and records failing the last
+ * tier go to {@code payments_dlq}, read by DlqConsumer.
+ */
+@Configuration
+public class KafkaRetryConfig extends RetryTopicConfigurationSupport {
+
+    static final String RETRY_TOPIC_SUFFIX = "-retry";
+    // payments + _dlq = KafkaConfig.PAYMENT_DLQ_TOPIC
+    static final String DLQ_SUFFIX = "_dlq";
+
+    private final PaymentMetrics paymentMetrics;
+    private final double jitter;
+
+    public KafkaRetryConfig(PaymentMetrics paymentMetrics,
+                            @Value("${payment.kafka.retry.jitter:0.2}") double jitter) {
+        this.paymentMetrics = paymentMetrics;
+        this.jitter = jitter;
+    }
+
+    /**
+     * {@code attempts} counts the first delivery, so the defaults give three
+     * tiers: 1s, 10s and 60s (capped by max-delay). Batch mode keeps the
+     * blocking error handler; batch listeners can't use retry topics.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "single", matchIfMissing = true)
+    public RetryTopicConfiguration paymentRetryTopics(
+            KafkaTemplate<Object, Object> kafkaTemplate,
+            @Value("${payment.kafka.retry.attempts:4}") int attempts,
+            @Value("${payment.kafka.retry.initial-delay-ms:1000}") long initialDelayMs,
+            @Value("${payment.kafka.retry.multiplier:10}") double multiplier,
+            @Value("${payment.kafka.retry.max-delay-ms:60000}") long maxDelayMs,
+            @Value("${payment.kafka.retry.concurrency:1}") int concurrency,
+            @Value("${payment.kafka.partitions:6}") int partitions) {
+
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(KafkaConfig.PAYMENT_TOPIC)
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelayMs, multiplier, maxDelayMs)
+                .retryTopicSuffix(RETRY_TOPIC_SUFFIX)
+                .dltSuffix(DLQ_SUFFIX)
+                // Same partition count: records keep their partition number in every tier
+                .autoCreateTopicsWith(partitions, (short) 1)
+                // Retry traffic is a small fraction of the main topic's
+                .concurrency(concurrency)
+                // payments_dlq is consumed by DlqConsumer in its own group
+                .autoStartDltHandler(false)
+                .create(kafkaTemplate);
+    }
+
+    @Override
+    protected void manageNonBlockingFatalExceptions(List<Class<? extends Throwable>> nonBlockingFatalExceptions) {
+        nonBlockingFatalExceptions.addAll(KafkaConsumerConfig.NOT_RETRYABLE);
+    }
+
+    @Override
+    protected Consumer<DeadLetterPublishingRecovererFactory> configureDeadLetterPublishingContainerFactory() {
+        return factory -> factory.setDeadLetterPublisherCreator((templateResolver, destinationResolver) ->
+                new RetryTierRecoverer(templateResolver, destinationResolver, paymentMetrics, jitter,
+                        Clock.systemUTC()));
+    }
+}
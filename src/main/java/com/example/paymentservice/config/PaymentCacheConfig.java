@@ -0,0 +1,64 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.cache.LocalPaymentCache;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.cache.RedisPaymentCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@Configuration
+public class PaymentCacheConfig {
+
+    /**
+     * Default: per-instance cache only, enough for local runs and a single instance.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.cache.store", havingValue = "memory", matchIfMissing = true)
+    public PaymentCache localPaymentCache(
+            MeterRegistry registry,
+            @Value("${payment.cache.max-size:10000}") long maxSize,
+            @Value("${payment.cache.ttl:10m}") Duration ttl,
+            @Value("${payment.cache.pending-ttl:2s}") Duration pendingTtl) {
+        return new LocalPaymentCache(registry, maxSize, ttl, pendingTtl);
+    }
+
+    /**
+     * Local cache backed by Redis, with evictions broadcast to all instances.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.cache.store", havingValue = "redis")
+    public RedisPaymentCache redisPaymentCache(
+            StringRedisTemplate redisTemplate,
+            JsonMapper jsonMapper,
+            MeterRegistry registry,
+            @Value("${payment.cache.max-size:10000}") long maxSize,
+            @Value("${payment.cache.ttl:10m}") Duration ttl,
+            @Value("${payment.cache.pending-ttl:2s}") Duration pendingTtl) {
+        return new RedisPaymentCache(new LocalPaymentCache(registry, maxSize, ttl, pendingTtl),
+                redisTemplate, jsonMapper, registry, ttl, pendingTtl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.cache.store", havingValue = "redis")
+    public RedisMessageListenerContainer paymentCacheInvalidationListener(
+            RedisConnectionFactory connectionFactory, RedisPaymentCache redisPaymentCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> redisPaymentCache.onInvalidation(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisPaymentCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.PaymentMetrics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Publishes failed records to the next retry tier or the DLQ, counting each
+ * destination, and jitters the tier's delay so records that failed together
+ * (a DB outage, say) are not all redelivered in the same instant.
+ */
+class RetryTierRecoverer extends DeadLetterPublishingRecoverer {
+
+    private final double jitter;
+    private final Clock clock;
+
+    RetryTierRecoverer(Function<ProducerRecord<?, ?>, ? extends KafkaOperations<?, ?>> templateResolver,
+                       BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> destinationResolver,
+                       PaymentMetrics paymentMetrics, double jitter, Clock clock) {
+        super(templateResolver, counting(destinationResolver, paymentMetrics));
+        this.jitter = jitter;
+        this.clock = clock;
+    }
+
+    // The resolver runs once per failed record and returns null when the record is dropped
+    private static BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> counting(
+            BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> destinationResolver,
+            PaymentMetrics paymentMetrics) {
+
+        return (record, exception) -> {
+            TopicPartition destination = destinationResolver.apply(record, exception);
+            if (destination == null) {
+                return null;
+            }
+            if (KafkaConfig.PAYMENT_DLQ_TOPIC.equals(destination.topic())) {
+                paymentMetrics.recordDlqRouted(NestedExceptionUtils.getMostSpecificCause(exception));
+            } else {
+                paymentMetrics.recordRetryRouted(destination.topic());
+            }
+            return destination;
+        };
+    }
+
+    // Headers already carry the factory's backoff timestamp for the destination tier
+    @Override
+    protected ProducerRecord<Object, Object> createProducerRecord(ConsumerRecord<?, ?> record,
+                                                                  TopicPartition topicPartition, Headers headers,
+                                                                  byte[] key, byte[] value) {
+        jitterBackoff(headers);
+        return super.createProducerRecord(record, topicPartition, headers, key, value);
+    }
+
+    /**
+     * Moves the due time by a random factor in [-jitter, +jitter] of the remaining delay.
+     */
+    void jitterBackoff(Headers headers) {
+        Header due = headers.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP);
+        if (due == null || jitter <= 0) {
+            return;
+        }
+        long now = clock.millis();
+        long delay = new BigInteger(due.value()).longValue() - now;
+        if (delay <= 0) {
+            return;
+        }
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        headers.remove(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP);
+        headers.add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+                BigInteger.valueOf(now + Math.round(delay * factor)).toByteArray());
+    }
+}
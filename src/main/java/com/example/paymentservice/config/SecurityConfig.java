@@ -31,6 +31,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/payments/**").hasAuthority("SCOPE_payment.read")
                         .requestMatchers(HttpMethod.POST, "/payments/**").hasAuthority("SCOPE_payment.write")
 
+                        // DLQ inspection and replay
+                        .requestMatchers("/admin/**").hasAuthority("SCOPE_payment.admin")
+
                         // Any other requests
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,51 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.dto.DlqEntryResponse;
+import com.example.paymentservice.dto.DlqReplayRequest;
+import com.example.paymentservice.dto.DlqReplayResponse;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import com.example.paymentservice.service.DlqService;
+import com.example.paymentservice.validator.RequestValidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/dlq")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('SCOPE_payment.admin')")
+public class DlqAdminController {
+
+    private final DlqService dlqService;
+    private final RequestValidator requestValidator;
+
+    // LIST – DLQ entries, oldest first, filtered by status / root cause / last failure in [from, to)
+    @GetMapping
+    public ResponseEntity<List<DlqEntryResponse>> getEntries(
+            @RequestParam(required = false) DlqEntryStatus status,
+            @RequestParam(required = false) String exceptionType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        requestValidator.validatePageSize(limit);
+        return ResponseEntity.ok(dlqService.findEntries(status, exceptionType, from, to, limit));
+    }
+
+    // REPLAY – by ids, exception type and/or time range; republished asynchronously at a bounded rate
+    @PostMapping("/replay")
+    public ResponseEntity<DlqReplayResponse> replay(@RequestBody DlqReplayRequest request) {
+        return ResponseEntity.accepted().body(new DlqReplayResponse(dlqService.queueReplay(request)));
+    }
+
+    // REPLAY – single entry
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<DlqReplayResponse> replayEntry(@PathVariable Long id) {
+        int queued = dlqService.queueReplay(DlqReplayRequest.builder().ids(List.of(id)).build());
+        return ResponseEntity.accepted().body(new DlqReplayResponse(queued));
+    }
+}
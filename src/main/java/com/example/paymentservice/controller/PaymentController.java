@@ -2,21 +2,40 @@ package com.example.paymentservice.controller;
 
 
 import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentResponse;
 import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentResponse;
 import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
+import com.example.paymentservice.exception.PaymentCreateFailedException;
+import com.example.paymentservice.exception.PaymentNotFoundException;
+import com.example.paymentservice.service.PaymentCreateExecutor;
+import com.example.paymentservice.service.PaymentMetrics;
 import com.example.paymentservice.service.PaymentService;
 import com.example.paymentservice.validator.RequestValidator;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.apache.coyote.BadRequestException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.util.List;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/payments")
@@ -25,28 +44,60 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final RequestValidator requestValidator;
+    private final JsonMapper jsonMapper;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentCreateExecutor paymentCreateExecutor;
     // CREATE – Card
+    // Validated on the request thread; the create itself runs where payment.create.mode says
     @PreAuthorize("hasAuthority('SCOPE_payment.write')")
     @PostMapping("/card")
-    public ResponseEntity<PaymentResponse> createCardPayment(
+    public DeferredResult<ResponseEntity<PaymentResponse>> createCardPayment(
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid CardPaymentRequest request) throws BadRequestException {
         // Delegate validation
         requestValidator.validateIdempotencyKey(idempotencyKey);
         requestValidator.validateAmount(request.getAmount());
-        return ResponseEntity.ok(paymentService.createCardPayment(request,idempotencyKey));
+        return paymentCreateExecutor.execute(idempotencyKey, () -> paymentMetrics.timeCreate(PaymentType.CARD,
+                () -> paymentService.createCardPayment(request, idempotencyKey)));
     }
 
     // CREATE – Bank
     // CREATE – Bank Payment
     @PreAuthorize("hasAuthority('SCOPE_payment.write')")
     @PostMapping("/bank")
-    public ResponseEntity<PaymentResponse> createBankPayment(
+    public DeferredResult<ResponseEntity<PaymentResponse>> createBankPayment(
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid BankPaymentRequest request) {
         requestValidator.validateIdempotencyKey(idempotencyKey);
         requestValidator.validateAmount(request.getAmount());
-        return ResponseEntity.ok(paymentService.createBankPayment(request, idempotencyKey));
+        return paymentCreateExecutor.execute(idempotencyKey, () -> paymentMetrics.timeCreate(PaymentType.BANK,
+                () -> paymentService.createBankPayment(request, idempotencyKey)));
+    }
+
+    // READ – outcome of a create answered 202: 200 once stored, 202 while queued or running here,
+    // 500 with the cause for a while after it failed here
+    @GetMapping("/requests/{idempotencyKey}")
+    public ResponseEntity<PaymentResponse> getCreateRequest(@PathVariable String idempotencyKey) {
+        if (paymentCreateExecutor.isInFlight(idempotencyKey)) {
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        paymentCreateExecutor.failure(idempotencyKey).ifPresent(failure -> {
+            throw new PaymentCreateFailedException("Create for Idempotency-Key " + idempotencyKey
+                    + " failed: " + failure.type() + ": " + failure.message());
+        });
+        return paymentService.findByIdempotencyKey(idempotencyKey)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new PaymentNotFoundException(
+                        "No payment for Idempotency-Key " + idempotencyKey));
+    }
+
+    // CREATE – many card/bank payments at once, one Idempotency-Key per item.
+    // Invalid or failed items are reported per item; only a malformed batch is a 400.
+    @PreAuthorize("hasAuthority('SCOPE_payment.write')")
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPaymentResponse> createBatchPayments(@RequestBody BatchPaymentRequest request) {
+        requestValidator.validateBatchSize(request.getItems());
+        return ResponseEntity.ok(paymentService.createBatch(request.getItems()));
     }
     // READ – by ID
     @GetMapping("/{id}")
@@ -54,10 +105,73 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getPaymentById(id));
     }
 
-    // READ – all payments
+    // READ – all payments, keyset-paginated
     @GetMapping
-    public ResponseEntity<List<PaymentResponse>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    public ResponseEntity<PaymentPageResponse> getAllPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        requestValidator.validatePageSize(size);
+        return ResponseEntity.ok(paymentService.getPayments(cursor, size));
+    }
+
+    // READ – search for ops, e.g. ?status=PENDING&updatedTo=... for stuck payments
+    @GetMapping("/search")
+    public ResponseEntity<PaymentPageResponse> searchPayments(
+            @RequestParam(required = false) Set<PaymentStatus> status,
+            @RequestParam(required = false) PaymentType type,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        PaymentSearchCriteria criteria = new PaymentSearchCriteria(
+                status, type, currency, createdFrom, createdTo, updatedFrom, updatedTo);
+        requestValidator.validatePageSize(size);
+        requestValidator.validateSearch(criteria);
+        return ResponseEntity.ok(paymentService.searchPayments(criteria, cursor, size));
+    }
+
+    // READ – all payments as one JSON array, written row by row
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = jsonMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                paymentService.streamAllPayments(generator::writePOJO);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // READ – reconciliation export, one JSON object per line; gzip when the client accepts it
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Set<PaymentStatus> status,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        requestValidator.validateExportRange(from, to);
+        PaymentSearchCriteria criteria = new PaymentSearchCriteria(status, null, null, from, to, null, null);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            // Closing the generator finishes the gzip trailer
+            try (JsonGenerator generator = jsonMapper.createGenerator(target)) {
+                paymentService.exportPayments(criteria, row -> {
+                    generator.writePOJO(row);
+                    generator.writeRaw('\n');
+                });
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
 
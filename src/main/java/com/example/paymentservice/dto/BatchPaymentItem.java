@@ -0,0 +1,19 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+
+/**
+ * One payment inside {@code POST /payments/batch}. Exactly one of
+ * {@code card} / {@code bank} is set; the key plays the role of the
+ * Idempotency-Key header of the single-payment endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentItem {
+    private String idempotencyKey;
+    private CardPaymentRequest card;
+    private BankPaymentRequest bank;
+}
@@ -0,0 +1,33 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentItemResult {
+
+    public enum Outcome {
+        // Inserted by this request
+        CREATED,
+        // Key was processed before; payment holds the original result
+        REPLAYED,
+        // Same key is still being processed by another request; retry later
+        IN_PROGRESS,
+        // Item failed validation; nothing was stored
+        REJECTED,
+        // Item could not be stored; safe to retry with the same key
+        FAILED
+    }
+
+    // Position of the item in the request
+    private int index;
+    private String idempotencyKey;
+    private Outcome outcome;
+    // Set for CREATED and REPLAYED
+    private PaymentResponse payment;
+    // Set for REJECTED and FAILED
+    private String error;
+}
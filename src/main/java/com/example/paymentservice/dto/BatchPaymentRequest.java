@@ -0,0 +1,14 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+import java.util.List;
+
+// Items are validated one by one in PaymentService, so a bad item only rejects itself
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentRequest {
+    private List<BatchPaymentItem> items;
+}
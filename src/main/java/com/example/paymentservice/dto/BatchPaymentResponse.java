@@ -0,0 +1,14 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentResponse {
+    // One result per request item, in request order
+    private List<BatchPaymentItemResult> results;
+}
@@ -0,0 +1,23 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DlqEntryResponse {
+    private Long id;
+    private UUID paymentId;
+    private String status;
+    private String exceptionType;
+    private String exceptionMessage;
+    private int attempts;
+    private int replayCount;
+    private LocalDateTime firstFailedAt;
+    private LocalDateTime lastFailedAt;
+    private LocalDateTime lastReplayedAt;
+}
@@ -0,0 +1,18 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Either ids, or any of exceptionType / from / to (last failure in [from, to))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DlqReplayRequest {
+    private List<Long> ids;
+    private String exceptionType;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
@@ -0,0 +1,13 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DlqReplayResponse {
+    // Entries queued for DlqReplayer; they are republished at payment.dlq.replay.rate-per-second
+    private int queued;
+}
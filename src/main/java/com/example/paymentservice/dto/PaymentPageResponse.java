@@ -0,0 +1,15 @@
+package com.example.paymentservice.dto;
+
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentPageResponse {
+    private List<PaymentResponse> items;
+    // Opaque token for the next page; null when this is the last page
+    private String nextCursor;
+}
@@ -3,6 +3,8 @@ package com.example.paymentservice.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.UUID;
+
 @Entity
 @Data
 @NoArgsConstructor
@@ -10,12 +12,17 @@ import lombok.*;
 @Builder
 public class BankPaymentDetails {
 
+    // The payment's UUID: no sequence of its own, and the primary key is the join column
     @Id
-    @GeneratedValue
-    private Long id;
-
-    @OneToOne
-    @JoinColumn(name = "payment_id", nullable = false)
+    private UUID id;
+
+    // Owning and only side of the link; Payment does not map its details, so reading
+    // a payment never touches this table
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "payment_id")
     private Payment payment;
 
     @Column(nullable = false)
@@ -0,0 +1,67 @@
+package com.example.paymentservice.entity;
+
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A payment event that ended up on the DLQ, kept until an operator replays it.
+ * One row per payment: failing again after a replay updates the same row.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "uk_dlq_entry_payment_id", columnList = "payment_id", unique = true),
+        // DlqReplayer claims the oldest queued rows
+        @Index(name = "idx_dlq_entry_status_id", columnList = "status, id")
+})
+public class DlqEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dlq_entry_seq")
+    @SequenceGenerator(name = "dlq_entry_seq", sequenceName = "dlq_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID paymentId;
+
+    // Encoded PaymentCreatedEvent as consumed from the DLQ, republished as is
+    @Column(length = 2000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DlqEntryStatus status;
+
+    // Simple class name of the root cause, e.g. PaymentNotFoundException
+    @Column(nullable = false)
+    private String exceptionType;
+
+    @Column(length = 1000)
+    private String exceptionMessage;
+
+    // Times the payment reached the DLQ
+    private int attempts;
+
+    private int replayCount;
+
+    private int sourcePartition;
+    private long sourceOffset;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime firstFailedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastFailedAt;
+
+    private LocalDateTime lastReplayedAt;
+
+    // Set while a replay run waits for the broker; rows claimed past this instant are free again
+    private LocalDateTime claimedUntil;
+}
@@ -0,0 +1,44 @@
+package com.example.paymentservice.entity;
+
+import com.example.paymentservice.entity.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event waiting to be published to Kafka.
+ * Written in the same transaction as the {@link Payment} it describes and
+ * removed by {@code OutboxRelay} once the broker has acknowledged it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // Pooled sequence keeps inserts batchable and gives the relay a stable publish order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OutboxEventType eventType;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Encoded PaymentCreatedEvent; null on rows queued before events carried a payload
+    @Column(length = 2000, updatable = false)
+    private String payload;
+
+    // Set while a relay run waits for the broker; rows claimed past this instant are free again
+    private LocalDateTime claimedUntil;
+}
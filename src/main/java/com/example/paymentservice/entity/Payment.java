@@ -13,6 +13,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        // Keyset pagination order for GET /payments, and searches bounded by createdAt
+        @Index(name = "idx_payment_created_at_id", columnList = "created_at, id"),
+        // GET /payments/search by status: equality on status, then the keyset order
+        @Index(name = "idx_payment_status_created_at_id", columnList = "status, created_at, id"),
+        // Stuck-payment sweeps: status plus "not updated since"
+        @Index(name = "idx_payment_status_updated_at", columnList = "status, updated_at")
+})
 public class Payment {
 
     @Id
@@ -35,17 +43,18 @@ public class Payment {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Optimistic lock for entity updates. Status transitions bump it in their UPDATE
+    // (PaymentRepository.transitionStatus); the default lets ddl-auto add it to existing rows.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     // ✅ New field for idempotency
     @Column(unique = true, nullable = false)
     private String idempotencyKey;
 
-    // ✅ One-to-one relationship with CardPaymentDetails
-    @OneToOne(mappedBy = "payment", cascade = CascadeType.ALL, orphanRemoval = true)
-    private CardPaymentDetails cardPaymentDetails;
-
-    // ✅ One-to-one relationship with BankPaymentDetails
-    @OneToOne(mappedBy = "payment", cascade = CascadeType.ALL, orphanRemoval = true)
-    private BankPaymentDetails bankPaymentDetails;
-
+    // Card/bank details map this payment from their side (CardPaymentDetails, BankPaymentDetails)
+    // and are saved through their own repositories. An inverse @OneToOne here cannot be lazy,
+    // so every payment read would select both detail tables.
     // Future: add PayPalPaymentDetails etc.
 }
@@ -0,0 +1,54 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * Table-wide owner of an Idempotency-Key while {@code payment} is partitioned by month.
+ * A partitioned table can only enforce uniqueness per partition, so this small
+ * unpartitioned table is written in the same transaction as the {@link Payment}
+ * and keeps a retry in a later month from creating a second payment. Deleted with
+ * its payment by {@code PaymentArchiver}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "payment_idempotency_key")
+public class PaymentIdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(nullable = false, updatable = false)
+    private UUID paymentId;
+
+    // Assigned id: without this, save() would merge and SELECT the key first
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    public PaymentIdempotencyKey(Payment payment) {
+        this.idempotencyKey = payment.getIdempotencyKey();
+        this.paymentId = payment.getId();
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.paymentservice.entity.enums;
+
+
+public enum DlqEntryStatus {
+    // Waiting for an operator
+    FAILED,
+    // Picked up by DlqReplayer at the configured rate
+    REPLAY_QUEUED,
+    // Republished to the payments topic; failing again sets it back to FAILED
+    REPLAYED
+}
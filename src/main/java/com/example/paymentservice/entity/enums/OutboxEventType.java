@@ -0,0 +1,6 @@
+package com.example.paymentservice.entity.enums;
+
+
+public enum OutboxEventType {
+    PAYMENT_CREATED
+}
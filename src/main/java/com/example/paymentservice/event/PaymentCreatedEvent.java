@@ -0,0 +1,68 @@
+package com.example.paymentservice.event;
+
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payload published to the {@code payments} topic when a payment is created.
+ *
+ * Carries everything the consumer needs for the fraud decision, so it does not
+ * have to load the payment. Schema rules:
+ * - {@code version} is bumped on every change; fields are only ever added
+ * - consumers ignore unknown fields and treat missing ones as null
+ * - version 0 is the pre-event format (a bare payment ID) and only has {@code paymentId}
+ *
+ * @param instrumentToken  keyed hash of the card or bank account, never the raw number
+ * @param instrumentPrefix card BIN (first 6 digits) or BSB, for blocklist rules (since version 2)
+ */
+public record PaymentCreatedEvent(
+        int version,
+        UUID paymentId,
+        BigDecimal amount,
+        String currency,
+        PaymentType paymentType,
+        String idempotencyKey,
+        String instrumentToken,
+        LocalDateTime createdAt,
+        String instrumentPrefix) {
+
+    public static final int LEGACY_VERSION = 0;
+    public static final int CURRENT_VERSION = 2;
+    private static final int BIN_LENGTH = 6;
+
+    public static PaymentCreatedEvent of(Payment payment, String instrumentToken, String instrumentPrefix) {
+        return new PaymentCreatedEvent(
+                CURRENT_VERSION,
+                payment.getId(),
+                payment.getAmount(),
+                payment.getCurrency(),
+                payment.getPaymentType(),
+                payment.getIdempotencyKey(),
+                instrumentToken,
+                payment.getCreatedAt(),
+                instrumentPrefix);
+    }
+
+    // Card BIN; identifies the issuer only, so safe to publish. The bank prefix is the BSB as is.
+    public static String cardPrefix(String cardNumber) {
+        return cardNumber != null && cardNumber.length() >= BIN_LENGTH
+                ? cardNumber.substring(0, BIN_LENGTH)
+                : null;
+    }
+
+    // Bare payment ID, as published before the event carried any data
+    public static PaymentCreatedEvent legacy(UUID paymentId) {
+        return new PaymentCreatedEvent(LEGACY_VERSION, paymentId, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * False for legacy events: the consumer has to load the payment to get the rest.
+     */
+    public boolean isSelfContained() {
+        return version > LEGACY_VERSION;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.paymentservice.event;
+
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary wire format of {@link PaymentCreatedEvent}, big-endian:
+ * <pre>
+ *  0  magic 0xB7            never the first byte of JSON or of a legacy UUID string
+ *  1  layout version        1
+ *  2  event version         unsigned byte
+ *  3  payment type          enum ordinal, 0xFF = null
+ *  4  payment id            16 bytes
+ * 20  amount                long, in minor units of the scale below
+ * 28  amount scale          0xFF = null amount
+ * 29  currency              3 ASCII bytes, zeros = null
+ * 32  createdAt             long epoch seconds (UTC) + int nanos, nanos -1 = null
+ * 44  idempotencyKey, instrumentToken, instrumentPrefix
+ *                           each u16 length (0xFFFF = null) + UTF-8
+ * </pre>
+ * Compatibility rules:
+ * - new fields are only appended after the last one; readers stop after the
+ *   fields they know, and read fields past the end of an older payload as null
+ * - the fixed part never changes within a layout version; a new layout is
+ *   rolled out to consumers before any producer writes it
+ * - {@link PaymentType} constants are only appended; unknown ordinals read as null
+ */
+public final class PaymentEventBinaryCodec {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final int LAYOUT_VERSION = 1;
+
+    private static final int FIXED_BYTES = 44;
+    private static final int NULL_BYTE = 0xFF;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int CURRENCY_BYTES = 3;
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+
+    private static final int EVENT_VERSION = 2;
+    private static final int PAYMENT_TYPE = 3;
+    private static final int PAYMENT_ID = 4;
+    private static final int AMOUNT = 20;
+    private static final int AMOUNT_SCALE = 28;
+    private static final int CURRENCY = 29;
+    private static final int CREATED_AT_SECONDS = 32;
+    private static final int CREATED_AT_NANOS = 40;
+
+    private PaymentEventBinaryCodec() {
+    }
+
+    public static boolean isBinary(ByteBuffer data) {
+        return data.remaining() > 0 && data.get(data.position()) == MAGIC;
+    }
+
+    public static byte[] encode(PaymentCreatedEvent event) {
+        byte[] key = utf8(event.idempotencyKey());
+        byte[] token = utf8(event.instrumentToken());
+        byte[] prefix = utf8(event.instrumentPrefix());
+        ByteBuffer out = ByteBuffer.allocate(FIXED_BYTES + length(key) + length(token) + length(prefix));
+
+        out.put(MAGIC)
+                .put((byte) LAYOUT_VERSION)
+                .put(unsignedByte(event.version(), "version"))
+                .put(event.paymentType() == null ? (byte) NULL_BYTE : (byte) event.paymentType().ordinal());
+        UUID paymentId = event.paymentId();
+        out.putLong(paymentId == null ? 0 : paymentId.getMostSignificantBits())
+                .putLong(paymentId == null ? 0 : paymentId.getLeastSignificantBits());
+        putAmount(out, event.amount());
+        putCurrency(out, event.currency());
+        LocalDateTime createdAt = event.createdAt();
+        out.putLong(createdAt == null ? 0 : createdAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(createdAt == null ? -1 : createdAt.getNano());
+        putString(out, key);
+        putString(out, token);
+        putString(out, prefix);
+        return out.array();
+    }
+
+    /**
+     * Reads each field at its offset straight from {@code data}, without
+     * copying the payload first; {@code data}'s position is left unchanged.
+     */
+    public static PaymentCreatedEvent decode(ByteBuffer data) {
+        ByteBuffer in = data.slice().order(ByteOrder.BIG_ENDIAN);
+        if (in.remaining() < FIXED_BYTES || in.get(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary payment event");
+        }
+        int layout = Byte.toUnsignedInt(in.get(1));
+        if (layout != LAYOUT_VERSION) {
+            throw new IllegalArgumentException("Unsupported payment event layout " + layout);
+        }
+        int next = FIXED_BYTES;
+        String idempotencyKey = getString(in, next);
+        next = skip(in, next);
+        String instrumentToken = getString(in, next);
+        next = skip(in, next);
+        String instrumentPrefix = getString(in, next);
+
+        return new PaymentCreatedEvent(
+                Byte.toUnsignedInt(in.get(EVENT_VERSION)),
+                paymentId(in),
+                amount(in),
+                currency(in),
+                paymentType(in),
+                idempotencyKey,
+                instrumentToken,
+                createdAt(in),
+                instrumentPrefix);
+    }
+
+    private static UUID paymentId(ByteBuffer in) {
+        long most = in.getLong(PAYMENT_ID);
+        long least = in.getLong(PAYMENT_ID + 8);
+        return most == 0 && least == 0 ? null : new UUID(most, least);
+    }
+
+    private static BigDecimal amount(ByteBuffer in) {
+        int scale = Byte.toUnsignedInt(in.get(AMOUNT_SCALE));
+        return scale == NULL_BYTE ? null : BigDecimal.valueOf(in.getLong(AMOUNT), scale);
+    }
+
+    private static String currency(ByteBuffer in) {
+        if (in.get(CURRENCY) == 0) {
+            return null;
+        }
+        char[] code = new char[CURRENCY_BYTES];
+        for (int i = 0; i < CURRENCY_BYTES; i++) {
+            code[i] = (char) in.get(CURRENCY + i);
+        }
+        return new String(code);
+    }
+
+    private static PaymentType paymentType(ByteBuffer in) {
+        int ordinal = Byte.toUnsignedInt(in.get(PAYMENT_TYPE));
+        return ordinal < PAYMENT_TYPES.length ? PAYMENT_TYPES[ordinal] : null;
+    }
+
+    private static LocalDateTime createdAt(ByteBuffer in) {
+        int nanos = in.getInt(CREATED_AT_NANOS);
+        return nanos < 0 ? null : LocalDateTime.ofEpochSecond(in.getLong(CREATED_AT_SECONDS), nanos, ZoneOffset.UTC);
+    }
+
+    // Null once past the end: the field is newer than the producer
+    private static String getString(ByteBuffer in, int offset) {
+        if (offset + 2 > in.limit()) {
+            return null;
+        }
+        int length = Short.toUnsignedInt(in.getShort(offset));
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (offset + 2 + length > in.limit()) {
+            throw new IllegalArgumentException("Truncated payment event");
+        }
+        if (in.hasArray()) {
+            return new String(in.array(), in.arrayOffset() + offset + 2, length, StandardCharsets.UTF_8);
+        }
+        return StandardCharsets.UTF_8.decode(in.slice(offset + 2, length)).toString();
+    }
+
+    private static int skip(ByteBuffer in, int offset) {
+        if (offset + 2 > in.limit()) {
+            return offset;
+        }
+        int length = Short.toUnsignedInt(in.getShort(offset));
+        return offset + 2 + (length == NULL_LENGTH ? 0 : length);
+    }
+
+    private static void putAmount(ByteBuffer out, BigDecimal amount) {
+        if (amount == null) {
+            out.putLong(0).put((byte) NULL_BYTE);
+            return;
+        }
+        BigDecimal minorUnits = amount.scale() < 0 ? amount.setScale(0) : amount;
+        BigInteger unscaled = minorUnits.unscaledValue();
+        if (minorUnits.scale() >= NULL_BYTE || unscaled.bitLength() >= Long.SIZE) {
+            throw new IllegalArgumentException("Amount " + amount + " does not fit the binary event");
+        }
+        out.putLong(unscaled.longValue()).put((byte) minorUnits.scale());
+    }
+
+    private static void putCurrency(ByteBuffer out, String currency) {
+        if (currency == null) {
+            out.put(new byte[CURRENCY_BYTES]);
+            return;
+        }
+        if (currency.length() != CURRENCY_BYTES) {
+            throw new IllegalArgumentException("Currency " + currency + " is not a 3-letter code");
+        }
+        for (int i = 0; i < CURRENCY_BYTES; i++) {
+            char c = currency.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                throw new IllegalArgumentException("Currency " + currency + " is not a 3-letter code");
+            }
+            out.put((byte) c);
+        }
+    }
+
+    private static byte unsignedByte(int value, String field) {
+        if (value < 0 || value > NULL_BYTE) {
+            throw new IllegalArgumentException(field + " " + value + " does not fit the binary event");
+        }
+        return (byte) value;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return 2 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer out, byte[] value) {
+        if (value == null) {
+            out.putShort((short) NULL_LENGTH);
+            return;
+        }
+        if (value.length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("Field of " + value.length + " bytes does not fit the binary event");
+        }
+        out.putShort((short) value.length).put(value);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.paymentservice.event;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.cfg.EnumFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Wire format of {@link PaymentCreatedEvent}: JSON, read leniently so newer
+ * producers can add fields (or enum values) without breaking older consumers.
+ * Records of the legacy format (UUID string from {@code UUIDSerializer})
+ * still on the topic are read as version 0 events, and binary records
+ * ({@link PaymentEventBinaryCodec}) are recognised by their first byte.
+ */
+public final class PaymentEventCodec {
+
+    private static final int LEGACY_UUID_LENGTH = 36;
+
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(EnumFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL)
+            .build();
+
+    private PaymentEventCodec() {
+    }
+
+    public static byte[] encode(PaymentCreatedEvent event) {
+        try {
+            return MAPPER.writeValueAsBytes(event);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Cannot encode payment event " + event.paymentId(), e);
+        }
+    }
+
+    public static PaymentCreatedEvent decode(byte[] data) {
+        if (data.length > 0 && data[0] == PaymentEventBinaryCodec.MAGIC) {
+            return PaymentEventBinaryCodec.decode(ByteBuffer.wrap(data));
+        }
+        if (data.length == LEGACY_UUID_LENGTH && data[0] != '{') {
+            try {
+                return PaymentCreatedEvent.legacy(UUID.fromString(new String(data, StandardCharsets.US_ASCII)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cannot decode legacy payment event", e);
+            }
+        }
+        try {
+            return MAPPER.readValue(data, PaymentCreatedEvent.class);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Cannot decode payment event", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.paymentservice.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka value deserializer for the {@code payments} topic, registered in {@code KafkaConfig}.
+ * Accepts the binary and JSON events and the legacy bare-UUID payload.
+ *
+ * Binary events are decoded eagerly into a {@link PaymentCreatedEvent} rather than
+ * wrapped in a lazy view over the buffer. The buffer belongs to the fetch and is
+ * reused for later batches (decompression buffers are pooled), while the event
+ * lives on in the listener, the retry topics and the DLQ, so a view would have to
+ * copy the payload first. The consumer also reads every field but the idempotency
+ * key, so on-demand accessors would build the same objects, only later; see the
+ * binary cases of {@code PaymentEventSerdeBenchmark}.
+ */
+public class PaymentEventDeserializer implements Deserializer<PaymentCreatedEvent> {
+
+    @Override
+    public PaymentCreatedEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return PaymentEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Invalid payment event on topic " + topic, e);
+        }
+    }
+
+    // The consumer hands over the record's buffer; binary events are read from it without a copy
+    @Override
+    public PaymentCreatedEvent deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null || !PaymentEventBinaryCodec.isBinary(data)) {
+            return Deserializer.super.deserialize(topic, headers, data);
+        }
+        try {
+            return PaymentEventBinaryCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Invalid payment event on topic " + topic, e);
+        }
+    }
+}
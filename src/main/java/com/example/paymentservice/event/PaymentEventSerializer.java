@@ -0,0 +1,36 @@
+package com.example.paymentservice.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for the {@code payments} topic, registered in {@code KafkaConfig}.
+ * Writes JSON unless {@value #WIRE_FORMAT_CONFIG} is {@code binary}
+ * ({@link PaymentEventBinaryCodec}).
+ */
+public class PaymentEventSerializer implements Serializer<PaymentCreatedEvent> {
+
+    public static final String WIRE_FORMAT_CONFIG = "payment.events.wire-format";
+
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(WIRE_FORMAT_CONFIG);
+        binary = format != null && "binary".equalsIgnoreCase(format.toString());
+    }
+
+    @Override
+    public byte[] serialize(String topic, PaymentCreatedEvent event) {
+        if (event == null) {
+            return null;
+        }
+        try {
+            return binary ? PaymentEventBinaryCodec.encode(event) : PaymentEventCodec.encode(event);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+}
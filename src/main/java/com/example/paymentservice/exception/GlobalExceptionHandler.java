@@ -2,6 +2,8 @@ package com.example.paymentservice.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -28,6 +30,55 @@ public class GlobalExceptionHandler {
                 .body(buildError(HttpStatus.NOT_FOUND, ex.getMessage(), request));
     }
 
+    @ExceptionHandler(PaymentInProgressException.class)
+    public ResponseEntity<ApiErrorResponse> handleInProgress(
+            PaymentInProgressException ex,
+            HttpServletRequest request) {
+
+        log.info("Duplicate in-flight request: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(buildError(HttpStatus.CONFLICT, ex.getMessage(), request));
+    }
+
+    // Async create queue full: nothing was reserved or written, the client retries with the same key
+    @ExceptionHandler(PaymentOverloadedException.class)
+    public ResponseEntity<ApiErrorResponse> handleOverloaded(
+            PaymentOverloadedException ex,
+            HttpServletRequest request) {
+
+        log.warn("Create rejected: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(buildError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request));
+    }
+
+    // Async create that failed after its 202: the status URL reports what went wrong until the failure TTL
+    @ExceptionHandler(PaymentCreateFailedException.class)
+    public ResponseEntity<ApiErrorResponse> handleCreateFailed(
+            PaymentCreateFailedException ex,
+            HttpServletRequest request) {
+
+        log.info("Reporting failed create: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(buildError(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), request));
+    }
+
+    // A Payment entity update lost against a concurrent change (@Version)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleConcurrentUpdate(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request) {
+
+        log.info("Concurrent update rejected: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(buildError(HttpStatus.CONFLICT, "Payment was modified concurrently, retry the request", request));
+    }
+
     @ExceptionHandler(PaymentValidationException.class)
     public ResponseEntity<ApiErrorResponse> handleValidation(
             PaymentValidationException ex,
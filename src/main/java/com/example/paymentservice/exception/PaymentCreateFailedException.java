@@ -0,0 +1,7 @@
+package com.example.paymentservice.exception;
+
+public class PaymentCreateFailedException extends RuntimeException {
+    public PaymentCreateFailedException(String message) {
+        super(message);
+    }
+}
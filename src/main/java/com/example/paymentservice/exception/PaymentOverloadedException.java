@@ -0,0 +1,7 @@
+package com.example.paymentservice.exception;
+
+public class PaymentOverloadedException extends RuntimeException {
+    public PaymentOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -4,5 +4,7 @@ package com.example.paymentservice.repository;
 import com.example.paymentservice.entity.BankPaymentDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface BankPaymentRepository extends JpaRepository<BankPaymentDetails, Long> {}
+import java.util.UUID;
+
+public interface BankPaymentRepository extends JpaRepository<BankPaymentDetails, UUID> {}
 
@@ -0,0 +1,91 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.DlqEntry;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DlqEntryRepository extends JpaRepository<DlqEntry, Long> {
+
+    Optional<DlqEntry> findByPaymentId(UUID paymentId);
+
+    /**
+     * Admin listing; every null argument matches all rows. Ranges are on the last failure, [from, to).
+     */
+    @Query("""
+            select e from DlqEntry e
+            where (:status is null or e.status = :status)
+              and (:exceptionType is null or e.exceptionType = :exceptionType)
+              and (:from is null or e.lastFailedAt >= :from)
+              and (:to is null or e.lastFailedAt < :to)
+            order by e.id
+            """)
+    List<DlqEntry> search(DlqEntryStatus status, String exceptionType,
+                          LocalDateTime from, LocalDateTime to, Limit limit);
+
+    @Modifying
+    @Query("""
+            update DlqEntry e set e.status = :queued
+            where e.id in :ids and e.status <> :queued
+            """)
+    int queueByIds(Collection<Long> ids, DlqEntryStatus queued);
+
+    // Bulk replay only picks up entries still waiting for an operator
+    @Modifying
+    @Query("""
+            update DlqEntry e set e.status = :queued
+            where e.status = :failed
+              and (:exceptionType is null or e.exceptionType = :exceptionType)
+              and (:from is null or e.lastFailedAt >= :from)
+              and (:to is null or e.lastFailedAt < :to)
+            """)
+    int queueMatching(String exceptionType, LocalDateTime from, LocalDateTime to,
+                      DlqEntryStatus failed, DlqEntryStatus queued);
+
+    /**
+     * Oldest entries in {@code status} whose claim is unset or expired. Rows locked by
+     * another replayer are skipped (lock timeout -2 = SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select e from DlqEntry e
+            where e.status = :status
+              and (e.claimedUntil is null or e.claimedUntil < :now)
+            order by e.id
+            """)
+    List<DlqEntry> findClaimable(DlqEntryStatus status, LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("update DlqEntry e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(List<Long> ids, LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("update DlqEntry e set e.claimedUntil = null where e.id in :ids")
+    int release(List<Long> ids);
+
+    // Only rows still queued: one that failed again meanwhile keeps its new FAILED state
+    @Modifying
+    @Query("""
+            update DlqEntry e
+            set e.status = :replayed, e.replayCount = e.replayCount + 1,
+                e.lastReplayedAt = :replayedAt, e.claimedUntil = null
+            where e.id in :ids and e.status = :queued
+            """)
+    int markReplayed(List<Long> ids, LocalDateTime replayedAt, DlqEntryStatus queued, DlqEntryStatus replayed);
+
+    long countByStatus(DlqEntryStatus status);
+}
@@ -0,0 +1,25 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * {@link PaymentSummary} plus the idempotency key it was created with,
+ * for matching bulk key lookups back to request items.
+ */
+public record KeyedPaymentSummary(
+        String idempotencyKey,
+        UUID id,
+        PaymentStatus status,
+        BigDecimal amount,
+        String currency,
+        LocalDateTime createdAt) {
+
+    public PaymentSummary summary() {
+        return new PaymentSummary(id, status, amount, currency, createdAt);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest unclaimed events first. Rows locked by another relay instance are
+     * skipped (lock timeout -2 = SKIP LOCKED), and rows whose claim has not yet
+     * expired are filtered out, so several nodes can drain concurrently.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select e from OutboxEvent e
+            where e.claimedUntil is null or e.claimedUntil < :now
+            order by e.id
+            """)
+    List<OutboxEvent> findClaimable(LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(List<Long> ids, LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = null where e.id in :ids")
+    int release(List<Long> ids);
+}
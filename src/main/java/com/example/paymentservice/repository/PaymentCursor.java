@@ -0,0 +1,41 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the {@code (createdAt, id)} ordering of payments.
+ * Clients only ever see it as an opaque URL-safe token.
+ */
+public record PaymentCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static PaymentCursor after(PaymentSummary last) {
+        return new PaymentCursor(last.createdAt(), last.id());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PaymentCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            return new PaymentCursor(
+                    LocalDateTime.parse(raw.substring(0, split)),
+                    UUID.fromString(raw.substring(split + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One line of the reconciliation export: the payment columns finance matches
+ * against settlement files. Card and bank details are never exported.
+ */
+public record PaymentExportRow(
+        UUID id,
+        PaymentStatus status,
+        PaymentType paymentType,
+        BigDecimal amount,
+        String currency,
+        String idempotencyKey,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,7 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.PaymentIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PaymentIdempotencyKeyRepository extends JpaRepository<PaymentIdempotencyKey, String> {}
@@ -0,0 +1,10 @@
+package com.example.paymentservice.repository;
+
+
+import java.util.UUID;
+
+/**
+ * Card BIN or BSB of a payment, for events that only carry the payment ID.
+ */
+public record PaymentInstrumentPrefix(UUID paymentId, String prefix) {
+}
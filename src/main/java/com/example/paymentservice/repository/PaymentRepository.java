@@ -3,13 +3,128 @@ package com.example.paymentservice.repository;
 
 
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+public interface PaymentRepository extends JpaRepository<Payment, UUID>, PaymentRepositoryCustom {
 
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
-}
 
+    // ---------- Single-payment reads for PaymentResponse ----------
+    // Column projections: nothing enters the persistence context, so there is no entity,
+    // snapshot or dirty check. Read-only transactions also switch Hibernate to FlushMode.MANUAL.
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.example.paymentservice.repository.PaymentSummary(
+                p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            where p.id = :id
+            """)
+    Optional<PaymentSummary> findSummaryById(UUID id);
+
+    // Idempotent replay when the key is in the database but no longer in the store
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.example.paymentservice.repository.PaymentSummary(
+                p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            where p.idempotencyKey = :idempotencyKey
+            """)
+    Optional<PaymentSummary> findSummaryByIdempotencyKey(String idempotencyKey);
+
+    // Bulk idempotency check for POST /payments/batch: one IN query for all keys
+    @Query("""
+            select new com.example.paymentservice.repository.KeyedPaymentSummary(
+                p.idempotencyKey, p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            where p.idempotencyKey in :keys
+            """)
+    List<KeyedPaymentSummary> findSummariesByIdempotencyKeyIn(Collection<String> keys);
+
+    /**
+     * Moves a payment to {@code to} if its status is one of {@code from}, in one
+     * statement and without loading it. Bumps the version, so an entity update
+     * based on an earlier read fails instead of undoing the transition.
+     *
+     * @return 1 if applied, 0 if the payment does not exist or is in another status
+     */
+    @Modifying
+    @Query("""
+            update Payment p set p.status = :to, p.updatedAt = :updatedAt, p.version = p.version + 1
+            where p.id = :id and p.status in :from
+            """)
+    int transitionStatus(UUID id, Collection<PaymentStatus> from, PaymentStatus to, LocalDateTime updatedAt);
+
+    // Single-source transition, e.g. PENDING -> SUCCESS/FAILED
+    default int updateStatusIfCurrent(UUID id, PaymentStatus from, PaymentStatus to, LocalDateTime updatedAt) {
+        return transitionStatus(id, List.of(from), to, updatedAt);
+    }
+
+    @Query("select p.id from Payment p where p.id in :ids")
+    List<UUID> findExistingIds(Collection<UUID> ids);
+
+    // Legacy events only carry the ID: card BIN or BSB of each payment for the fraud blocklists
+    @Query("""
+            select new com.example.paymentservice.repository.PaymentInstrumentPrefix(
+                p.id, coalesce(substring(c.cardNumber, 1, 6), b.bsb))
+            from Payment p
+            left join CardPaymentDetails c on c.id = p.id
+            left join BankPaymentDetails b on b.id = p.id
+            where p.id in :ids
+            """)
+    List<PaymentInstrumentPrefix> findInstrumentPrefixes(Collection<UUID> ids);
+
+    default String findInstrumentPrefix(UUID id) {
+        return findInstrumentPrefixes(List.of(id)).stream()
+                .findFirst()
+                .map(PaymentInstrumentPrefix::prefix)
+                .orElse(null);
+    }
+
+    // ---------- Keyset pagination on (createdAt, id) ----------
+
+    @Query("""
+            select new com.example.paymentservice.repository.PaymentSummary(
+                p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            order by p.createdAt, p.id
+            """)
+    List<PaymentSummary> findSummaries(Limit limit);
+
+    @Query("""
+            select new com.example.paymentservice.repository.PaymentSummary(
+                p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            where p.createdAt > :createdAt
+               or (p.createdAt = :createdAt and p.id > :id)
+            order by p.createdAt, p.id
+            """)
+    List<PaymentSummary> findSummariesAfter(LocalDateTime createdAt, UUID id, Limit limit);
+
+    /**
+     * Forward-only stream over every payment; must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.example.paymentservice.repository.PaymentSummary(
+                p.id, p.status, p.amount, p.currency, p.createdAt)
+            from Payment p
+            order by p.createdAt, p.id
+            """)
+    Stream<PaymentSummary> streamSummaries();
+}
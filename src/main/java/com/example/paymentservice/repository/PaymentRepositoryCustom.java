@@ -0,0 +1,35 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC operations that bypass the persistence context.
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Applies all updates as one JDBC batch. A row is only changed while it
+     * still has {@code expectedStatus}, so a concurrent cancel is never overwritten.
+     *
+     * @return rows changed per update, in input order (0 = status had already moved on)
+     */
+    int[] batchUpdateStatus(List<PaymentStatusUpdate> updates, PaymentStatus expectedStatus);
+
+    /**
+     * Payments matching {@code criteria} in {@code (createdAt, id)} order, starting
+     * after {@code after} (null for the first page). The SQL is built per call from
+     * the filters that are set, so each search shape can use its own index.
+     */
+    List<PaymentSummary> search(PaymentSearchCriteria criteria, PaymentCursor after, int limit);
+
+    /**
+     * Every payment matching {@code criteria} in {@code (createdAt, id)} order, pushed
+     * to {@code sink} row by row from a forward-only cursor with a fixed fetch size.
+     * Call inside a transaction: PostgreSQL otherwise reads the whole result first.
+     */
+    void export(PaymentSearchCriteria criteria, Consumer<PaymentExportRow> sink);
+}
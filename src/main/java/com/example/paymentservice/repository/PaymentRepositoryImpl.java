@@ -0,0 +1,165 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE payment SET status = ?, updated_at = ?, version = version + 1 WHERE id = ? AND status = ?";
+
+    // Rows the driver holds per round trip; PostgreSQL only honours it inside a transaction
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final RowMapper<PaymentSummary> SUMMARY_ROW = (rs, rowNum) -> new PaymentSummary(
+            rs.getObject("id", UUID.class),
+            PaymentStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("amount"),
+            rs.getString("currency"),
+            rs.getObject("created_at", LocalDateTime.class));
+
+    private static final RowMapper<PaymentExportRow> EXPORT_ROW = (rs, rowNum) -> {
+        String paymentType = rs.getString("payment_type");
+        return new PaymentExportRow(
+                rs.getObject("id", UUID.class),
+                PaymentStatus.valueOf(rs.getString("status")),
+                paymentType != null ? PaymentType.valueOf(paymentType) : null,
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("idempotency_key"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class));
+    };
+
+    @Override
+    public int[] batchUpdateStatus(List<PaymentStatusUpdate> updates, PaymentStatus expectedStatus) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        return jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PaymentStatusUpdate update = updates.get(i);
+                ps.setString(1, update.status().name());
+                ps.setObject(2, now);
+                ps.setObject(3, update.paymentId());
+                ps.setString(4, expectedStatus.name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+    }
+
+    @Override
+    public List<PaymentSummary> search(PaymentSearchCriteria criteria, PaymentCursor after, int limit) {
+        SearchQuery query = searchQuery(criteria, after, limit);
+        return jdbcTemplate.query(query.sql(), SUMMARY_ROW, query.args().toArray());
+    }
+
+    @Override
+    public void export(PaymentSearchCriteria criteria, Consumer<PaymentExportRow> sink) {
+        SearchQuery query = exportQuery(criteria);
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    query.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(query.args().toArray()).setValues(ps);
+            return ps;
+        };
+        // One row mapped and handed on at a time; an exception from the sink closes the cursor
+        jdbcTemplate.query(statement, (RowCallbackHandler) rs -> sink.accept(EXPORT_ROW.mapRow(rs, 0)));
+    }
+
+    /**
+     * Only the filters that are set become predicates. Statuses are written as
+     * literals (enum names, never user text) so PostgreSQL can match the partial
+     * indexes in db/postgres/020_payment_search_indexes.sql on every execution,
+     * not just when it plans for the bound values.
+     */
+    static SearchQuery searchQuery(PaymentSearchCriteria criteria, PaymentCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT id, status, amount, currency, created_at FROM payment"
+                + where(criteria, after, args)
+                + " ORDER BY created_at, id LIMIT ?";
+        args.add(limit);
+        return new SearchQuery(sql, args);
+    }
+
+    // Same filters and order as a search, all columns, no limit
+    static SearchQuery exportQuery(PaymentSearchCriteria criteria) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT id, status, payment_type, amount, currency, idempotency_key, created_at, updated_at"
+                + " FROM payment" + where(criteria, null, args)
+                + " ORDER BY created_at, id";
+        return new SearchQuery(sql, args);
+    }
+
+    private static String where(PaymentSearchCriteria criteria, PaymentCursor after, List<Object> args) {
+        List<String> where = new ArrayList<>();
+
+        if (!criteria.statuses().isEmpty()) {
+            where.add(criteria.statuses().stream()
+                    .map(status -> "'" + status.name() + "'")
+                    .sorted()
+                    .collect(Collectors.joining(", ", "status IN (", ")")));
+        }
+        if (criteria.paymentType() != null) {
+            where.add("payment_type = ?");
+            args.add(criteria.paymentType().name());
+        }
+        if (criteria.currency() != null) {
+            where.add("currency = ?");
+            args.add(criteria.currency());
+        }
+        range(where, args, "created_at", criteria.createdFrom(), criteria.createdTo());
+        range(where, args, "updated_at", criteria.updatedFrom(), criteria.updatedTo());
+        if (after != null) {
+            // Row-value comparison: one index range condition instead of an OR
+            where.add("(created_at, id) > (?, ?)");
+            args.add(after.createdAt());
+            args.add(after.id());
+        }
+        return where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where);
+    }
+
+    private static void range(List<String> where, List<Object> args, String column,
+                              LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            where.add(column + " >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            where.add(column + " < ?");
+            args.add(to);
+        }
+    }
+
+    record SearchQuery(String sql, List<Object> args) {
+    }
+}
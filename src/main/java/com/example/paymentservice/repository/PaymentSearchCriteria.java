@@ -0,0 +1,34 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filters for {@code GET /payments/search}; null (or empty) means not filtered.
+ * Time ranges are half-open: {@code from <= t < to}.
+ */
+public record PaymentSearchCriteria(
+        Set<PaymentStatus> statuses,
+        PaymentType paymentType,
+        String currency,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        LocalDateTime updatedFrom,
+        LocalDateTime updatedTo) {
+
+    public PaymentSearchCriteria {
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+    }
+
+    /**
+     * True when an index can narrow the search: a status (leading column of the
+     * status indexes) or a createdAt bound (payment's created_at index).
+     */
+    public boolean isIndexed() {
+        return !statuses.isEmpty() || createdFrom != null || createdTo != null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+
+import java.util.UUID;
+
+/**
+ * Target status for one payment in a batched status write.
+ */
+public record PaymentStatusUpdate(UUID paymentId, PaymentStatus status) {
+}
@@ -0,0 +1,21 @@
+package com.example.paymentservice.repository;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of the columns a {@code PaymentResponse} needs.
+ * Selected directly by JPQL constructor expressions, so no entity (or its
+ * card/bank details) is ever loaded into the persistence context.
+ */
+public record PaymentSummary(
+        UUID id,
+        PaymentStatus status,
+        BigDecimal amount,
+        String currency,
+        LocalDateTime createdAt) {
+}
@@ -1,47 +1,76 @@
 package com.example.paymentservice.service;
 
+import com.example.paymentservice.config.KafkaConfig;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Persists every DLQ record as a {@code DlqEntry}; see {@link DlqService} for listing and replay.
+ * Records without a value have no payment to store or replay and are only logged.
+ */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class DlqConsumer {
 
-    // Store DLQ messages temporarily for replay/demo
-    private final ConcurrentLinkedQueue<UUID> dlqQueue = new ConcurrentLinkedQueue<>();
+    static final String UNKNOWN_EXCEPTION = "Unknown";
+
+    private final DlqService dlqService;
 
     @KafkaListener(
-            topics = "payments-dlq",
+            topics = KafkaConfig.PAYMENT_DLQ_TOPIC,
             groupId = "payment-dlq-group"
     )
-    public void consumeDlq(ConsumerRecord<String, UUID> record) {
-        UUID paymentId = record.value();
+    public void consumeDlq(ConsumerRecord<String, PaymentCreatedEvent> record) {
+        String exceptionType = exceptionType(record);
+        if (record.value() == null) {
+            // Tombstone, or a value a deserializer gave up on: no payment to key the entry by
+            log.error("DLQ message without a payment event skipped: key={}, partition={}, offset={}, cause={}",
+                    record.key(), record.partition(), record.offset(), exceptionType);
+            return;
+        }
+        UUID paymentId = record.value().paymentId();
 
-        // Log for demo purposes
-        log.error("DLQ message received: paymentId={}, partition={}, offset={}",
-                paymentId, record.partition(), record.offset());
+        log.error("DLQ message received: paymentId={}, partition={}, offset={}, cause={}",
+                paymentId, record.partition(), record.offset(), exceptionType);
 
-        // Store in memory for manual replay or inspection
-        dlqQueue.add(paymentId);
+        dlqService.recordFailure(record.value(), exceptionType,
+                header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE, KafkaHeaders.EXCEPTION_MESSAGE),
+                record.partition(), record.offset());
     }
 
-    // Simple method to replay DLQ messages
-    public void replayMessages() {
-        while (!dlqQueue.isEmpty()) {
-            UUID paymentId = dlqQueue.poll();
-            log.info("Replaying DLQ message: paymentId={}", paymentId);
-            // In real-world: send back to main topic
-            // kafkaTemplate.send("payments", paymentId);
+    /**
+     * Simple name of the failure's root cause, from the headers the
+     * DeadLetterPublishingRecoverer adds: {@code kafka_dlt-*} from the blocking
+     * error handler, {@code kafka_*} from the retry-topic recoverer. The listener
+     * adapter wraps exceptions, so the cause header wins over the top-level one.
+     */
+    static String exceptionType(ConsumerRecord<?, ?> record) {
+        String fqcn = header(record, KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, KafkaHeaders.EXCEPTION_CAUSE_FQCN,
+                KafkaHeaders.DLT_EXCEPTION_FQCN, KafkaHeaders.EXCEPTION_FQCN);
+        if (fqcn == null) {
+            return UNKNOWN_EXCEPTION;
         }
+        return fqcn.substring(fqcn.lastIndexOf('.') + 1);
     }
 
-    // Expose current DLQ messages for monitoring/demo
-    public ConcurrentLinkedQueue<UUID> getDlqQueue() {
-        return dlqQueue;
+    // First of the names present on the record
+    private static String header(ConsumerRecord<?, ?> record, String... names) {
+        for (String name : names) {
+            Header header = record.headers().lastHeader(name);
+            if (header != null) {
+                return new String(header.value(), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
     }
 }
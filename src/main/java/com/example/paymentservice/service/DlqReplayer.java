@@ -0,0 +1,161 @@
+package com.example.paymentservice.service;
+
+
+import com.example.paymentservice.entity.DlqEntry;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventCodec;
+import com.example.paymentservice.repository.DlqEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Republishes queued DLQ entries to the payments topic.
+ *
+ * Each run (every {@code payment.dlq.replay.interval-ms}) claims at most
+ * {@code rate-per-second x interval} of the oldest queued entries, so even a
+ * replay of the whole DLQ reaches the main consumer at a bounded rate.
+ * Claims work like in {@link OutboxRelay}: a short transaction leases the rows
+ * ({@code claimedUntil}, so other instances skip them), the sends are pipelined
+ * and their acks awaited against one deadline with no transaction open, and a
+ * second short transaction marks the acknowledged entries REPLAYED. Entries
+ * whose send is not acknowledged are released, still queued, for the next run.
+ */
+@Service
+@Slf4j
+public class DlqReplayer {
+
+    private final DlqEntryRepository dlqEntryRepository;
+    private final PaymentProducer paymentProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong queuedDepth = new AtomicLong();
+
+    @Value("${payment.dlq.replay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public DlqReplayer(DlqEntryRepository dlqEntryRepository,
+                       PaymentProducer paymentProducer,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${payment.dlq.replay.rate-per-second:50}") int ratePerSecond,
+                       @Value("${payment.dlq.replay.interval-ms:1000}") long intervalMs) {
+        this.dlqEntryRepository = dlqEntryRepository;
+        this.paymentProducer = paymentProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = (int) Math.max(1, ratePerSecond * intervalMs / 1000);
+
+        this.replayedCounter = Counter.builder("payment.dlq.replayed")
+                .description("DLQ entries republished to the payments topic")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.dlq.replay.failed")
+                .description("DLQ replays whose send failed and will be retried")
+                .register(meterRegistry);
+        Gauge.builder("payment.dlq.replay.queued", queuedDepth, AtomicLong::get)
+                .description("DLQ entries waiting to be replayed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.dlq.replay.interval-ms:1000}")
+    public void replayQueued() {
+        List<DlqEntry> batch = claimBatch();
+        if (batch.isEmpty()) {
+            queuedDepth.set(0);
+            return;
+        }
+
+        List<CompletableFuture<SendResult<String, PaymentCreatedEvent>>> acks = new ArrayList<>(batch.size());
+        for (DlqEntry entry : batch) {
+            acks.add(paymentProducer.sendPaymentEvent(toPaymentEvent(entry)));
+        }
+
+        // One deadline for the whole batch keeps the wait inside the claim lease
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> replayed = new ArrayList<>(batch.size());
+        List<Long> unacked = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            DlqEntry entry = batch.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                acks.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                replayed.add(entry.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.subList(i, batch.size()).forEach(rest -> unacked.add(rest.getId()));
+                break;
+            } catch (Exception e) {
+                // Replays are independent of each other: only this entry waits for the next run
+                log.warn("DLQ replay of entryId={} paymentId={} failed, retrying next run{}",
+                        entry.getId(), entry.getPaymentId(),
+                        e instanceof TimeoutException ? " (ack timed out)" : "", e);
+                failedCounter.increment();
+                unacked.add(entry.getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!replayed.isEmpty()) {
+                dlqEntryRepository.markReplayed(replayed, LocalDateTime.now(),
+                        DlqEntryStatus.REPLAY_QUEUED, DlqEntryStatus.REPLAYED);
+            }
+            if (!unacked.isEmpty()) {
+                dlqEntryRepository.release(unacked);
+            }
+        });
+        replayedCounter.increment(replayed.size());
+        queuedDepth.set(dlqEntryRepository.countByStatus(DlqEntryStatus.REPLAY_QUEUED));
+
+        log.info("Replayed {}/{} DLQ entr(ies)", replayed.size(), batch.size());
+    }
+
+    /**
+     * Locks the oldest claimable queued rows and leases them for twice the send timeout,
+     * then commits so no connection or row lock is held while waiting on the broker.
+     */
+    private List<DlqEntry> claimBatch() {
+        List<DlqEntry> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<DlqEntry> claimed = dlqEntryRepository.findClaimable(
+                    DlqEntryStatus.REPLAY_QUEUED, now, Limit.of(batchSize));
+            if (!claimed.isEmpty()) {
+                dlqEntryRepository.claim(claimed.stream().map(DlqEntry::getId).toList(),
+                        now.plusNanos(TimeUnit.MILLISECONDS.toNanos(2 * sendTimeoutMs)));
+            }
+            return claimed;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private PaymentCreatedEvent toPaymentEvent(DlqEntry entry) {
+        if (entry.getPayload() == null) {
+            return PaymentCreatedEvent.legacy(entry.getPaymentId());
+        }
+        try {
+            return PaymentEventCodec.decode(entry.getPayload().getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unreadable DLQ payload for entryId={}, replaying paymentId={} as legacy event",
+                    entry.getId(), entry.getPaymentId(), e);
+            return PaymentCreatedEvent.legacy(entry.getPaymentId());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.paymentservice.service;
+
+
+import com.example.paymentservice.dto.DlqEntryResponse;
+import com.example.paymentservice.dto.DlqReplayRequest;
+import com.example.paymentservice.entity.DlqEntry;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventCodec;
+import com.example.paymentservice.exception.BadRequestException;
+import com.example.paymentservice.repository.DlqEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Durable record of DLQ'd payment events and the admin side of replaying them.
+ * Replays are only queued here; {@link DlqReplayer} republishes them at a bounded rate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DlqService {
+
+    static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final DlqEntryRepository dlqEntryRepository;
+
+    /**
+     * Stores a failed event, or updates the payment's existing entry when it failed before
+     * (e.g. again after a replay).
+     */
+    @Transactional
+    public DlqEntry recordFailure(PaymentCreatedEvent event, String exceptionType, String exceptionMessage,
+                                  int partition, long offset) {
+        LocalDateTime now = LocalDateTime.now();
+        DlqEntry entry = dlqEntryRepository.findByPaymentId(event.paymentId())
+                .orElseGet(() -> DlqEntry.builder()
+                        .paymentId(event.paymentId())
+                        .firstFailedAt(now)
+                        .build());
+
+        entry.setPayload(new String(PaymentEventCodec.encode(event), StandardCharsets.UTF_8));
+        entry.setStatus(DlqEntryStatus.FAILED);
+        entry.setExceptionType(exceptionType);
+        entry.setExceptionMessage(truncate(exceptionMessage));
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setSourcePartition(partition);
+        entry.setSourceOffset(offset);
+        entry.setLastFailedAt(now);
+
+        return dlqEntryRepository.save(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DlqEntryResponse> findEntries(DlqEntryStatus status, String exceptionType,
+                                              LocalDateTime from, LocalDateTime to, int limit) {
+        return dlqEntryRepository.search(status, exceptionType, from, to, Limit.of(limit)).stream()
+                .map(DlqService::mapToResponse)
+                .toList();
+    }
+
+    /**
+     * Queues entries for replay: by ID (whatever their status), or every FAILED entry
+     * matching the exception type and/or time range.
+     *
+     * @return number of entries queued
+     * @throws BadRequestException if the request selects nothing, to avoid replaying the whole DLQ by accident
+     */
+    @Transactional
+    public int queueReplay(DlqReplayRequest request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            return dlqEntryRepository.queueByIds(request.getIds(), DlqEntryStatus.REPLAY_QUEUED);
+        }
+        if (request.getExceptionType() == null && request.getFrom() == null && request.getTo() == null) {
+            throw new BadRequestException("Replay needs ids, an exceptionType or a from/to range");
+        }
+        int queued = dlqEntryRepository.queueMatching(request.getExceptionType(), request.getFrom(), request.getTo(),
+                DlqEntryStatus.FAILED, DlqEntryStatus.REPLAY_QUEUED);
+        log.info("Queued {} DLQ entr(ies) for replay: exceptionType={} from={} to={}",
+                queued, request.getExceptionType(), request.getFrom(), request.getTo());
+        return queued;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    static DlqEntryResponse mapToResponse(DlqEntry entry) {
+        return DlqEntryResponse.builder()
+                .id(entry.getId())
+                .paymentId(entry.getPaymentId())
+                .status(entry.getStatus().name())
+                .exceptionType(entry.getExceptionType())
+                .exceptionMessage(entry.getExceptionMessage())
+                .attempts(entry.getAttempts())
+                .replayCount(entry.getReplayCount())
+                .firstFailedAt(entry.getFirstFailedAt())
+                .lastFailedAt(entry.getLastFailedAt())
+                .lastReplayedAt(entry.getLastReplayedAt())
+                .build();
+    }
+}
@@ -2,39 +2,67 @@ package com.example.paymentservice.service;
 
 
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.service.fraud.FraudDecision;
+import com.example.paymentservice.service.fraud.FraudRulePlan;
+import com.example.paymentservice.service.fraud.VelocityStats;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Slf4j
 public class FraudService {
 
-/*    private final Random random = new Random();
+    // Swapped as a whole by FraudRuleReloader; each check reads it exactly once
+    private final AtomicReference<FraudRulePlan> plan = new AtomicReference<>(FraudRulePlan.defaultPlan());
 
+    /**
+     * Rule-based fraud logic, see fraud-rules.yaml.
+     * Until rules are loaded: payments greater than 15,000 are considered fraudulent.
+     * A payment does not carry its card/bank details, so the blocklist rules are skipped.
+     */
     public boolean checkFraud(Payment payment) {
-        // Simulate fraud logic
-        boolean fraud = random.nextInt(10) < 2; // 20% fraud rate
+        return evaluate(PaymentCreatedEvent.of(payment, null, null), null).fraud();
+    }
 
-        log.info("Fraud check for paymentId={} result={}",
-                payment.getId(), fraud ? "FRAUD" : "CLEAN");
+    // Same rules straight from the Kafka event, no payment load needed
+    public boolean checkFraud(PaymentCreatedEvent event) {
+        return evaluate(event, null).fraud();
+    }
 
-        return fraud;
-    }*/
+    // As above, plus the velocity rules over the instrument's recent payments
+    public boolean checkFraud(PaymentCreatedEvent event, VelocityStats velocity) {
+        return evaluate(event, velocity).fraud();
+    }
 
     /**
-     * Simple static fraud logic:
-     * - Payments greater than 15,000 are considered fraudulent
+     * Full decision, including the IDs of every rule that fired.
+     *
+     * @param velocity from {@link com.example.paymentservice.service.fraud.VelocityTracker}; null skips the velocity rules
      */
-    public boolean checkFraud(Payment payment) {
-        boolean fraud = payment.getAmount().compareTo(BigDecimal.valueOf(15000)) > 0;
+    public FraudDecision evaluate(PaymentCreatedEvent event, VelocityStats velocity) {
+        FraudDecision decision = plan.get().evaluate(
+                event.amount(), event.currency(), event.paymentType(), event.instrumentPrefix(), velocity);
 
-        log.info("Fraud check for paymentId={} amount={} result={}",
-                payment.getId(), payment.getAmount(), fraud ? "FRAUD" : "CLEAN");
+        // Hot path: only a fired rule is worth an info line; the message is not formatted otherwise
+        if (decision.fraud()) {
+            log.info("Fraud check for paymentId={} amount={} {} result=FRAUD rules={}",
+                    event.paymentId(), event.amount(), event.currency(), decision.firedRuleIds());
+        } else {
+            log.debug("Fraud check for paymentId={} amount={} {} result=CLEAN",
+                    event.paymentId(), event.amount(), event.currency());
+        }
 
-        return fraud;
+        return decision;
     }
-}
 
+    /**
+     * Replaces the rules for all following checks; checks already running finish on the old plan.
+     */
+    public void updateRules(FraudRulePlan newPlan) {
+        plan.set(newPlan);
+        log.info("Fraud rules updated: {} rule(s) active", newPlan.size());
+    }
+}
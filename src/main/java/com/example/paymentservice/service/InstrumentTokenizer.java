@@ -0,0 +1,57 @@
+package com.example.paymentservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Turns card and bank account numbers into stable, non-reversible references
+ * that can travel in Kafka events and be used as grouping keys downstream.
+ * HMAC rather than a plain hash: card numbers are short enough to brute-force.
+ * The key has no default outside the local and test profiles, so a deploy
+ * that forgets it fails at startup instead of issuing guessable tokens.
+ */
+@Component
+public class InstrumentTokenizer {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Mac prototype;
+
+    public InstrumentTokenizer(@Value("${payment.events.instrument-token-key}") String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("payment.events.instrument-token-key must be set");
+        }
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise instrument tokenizer", e);
+        }
+    }
+
+    public String cardToken(String cardNumber) {
+        return "card_" + hmac(cardNumber);
+    }
+
+    public String bankToken(String bsb, String accountNumber) {
+        return "bank_" + hmac(bsb + ":" + accountNumber);
+    }
+
+    private String hmac(String value) {
+        Mac mac;
+        try {
+            // Mac is not thread-safe; cloning the initialised prototype skips key setup
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " provider does not support cloning", e);
+        }
+        byte[] digest = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
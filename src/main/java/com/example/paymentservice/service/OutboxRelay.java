@@ -0,0 +1,171 @@
+package com.example.paymentservice.service;
+
+
+import com.example.paymentservice.entity.OutboxEvent;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventCodec;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the transactional outbox to Kafka.
+ *
+ * Each run claims the oldest batch of events in a short transaction (a lease
+ * in {@code claimedUntil}, so other nodes skip them), sends all of them without
+ * waiting in between (the producer pipelines them into as few requests as
+ * possible), then waits for the acks in order with no transaction open. Only
+ * the acknowledged prefix is deleted, in a second short transaction; the rest
+ * is released - in order - for the next run. Delivery is at-least-once; the
+ * consumer ignores payments that are no longer PENDING.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentProducer paymentProducer;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final AtomicLong outboxDepth = new AtomicLong();
+
+    @Value("${payment.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       PaymentProducer paymentProducer,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentProducer = paymentProducer;
+        this.transactionTemplate = transactionTemplate;
+
+        this.publishedCounter = Counter.builder("payment.outbox.relay.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.outbox.relay.failed")
+                .description("Outbox events whose send failed and will be retried")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("payment.outbox.relay.batch.size")
+                .description("Events claimed per relay run")
+                .register(meterRegistry);
+        Gauge.builder("payment.outbox.depth", outboxDepth, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    // First run one interval after startup, so a context that sets a long interval never polls
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:200}",
+            initialDelayString = "${payment.outbox.poll-interval-ms:200}")
+    public void relayPendingEvents() {
+        List<OutboxEvent> batch = claimBatch();
+        if (batch.isEmpty()) {
+            outboxDepth.set(0);
+            return;
+        }
+        batchSizeSummary.record(batch.size());
+
+        // Pipeline every send before waiting on any ack
+        List<CompletableFuture<SendResult<String, PaymentCreatedEvent>>> acks = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            acks.add(paymentProducer.sendPaymentEvent(toPaymentEvent(event)));
+        }
+
+        // One deadline for the whole batch keeps the wait inside the claim lease
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> published = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                acks.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                published.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Keep this event and everything after it so order is preserved on retry
+                log.warn("Outbox relay stopped at eventId={} paymentId={}, {} event(s) left for next run{}",
+                        batch.get(i).getId(), batch.get(i).getPaymentId(), batch.size() - i,
+                        e instanceof TimeoutException ? " (ack timed out)" : "");
+                failedCounter.increment(batch.size() - i);
+                break;
+            }
+        }
+
+        List<Long> unpublished = batch.subList(published.size(), batch.size()).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!published.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(published);
+            }
+            if (!unpublished.isEmpty()) {
+                outboxEventRepository.release(unpublished);
+            }
+        });
+        publishedCounter.increment(published.size());
+
+        // A partial batch drained the outbox as of the claim; only a full one needs a real count
+        outboxDepth.set(batch.size() == batchSize ? outboxEventRepository.count() : unpublished.size());
+
+        log.debug("Outbox relay published {}/{} event(s)", published.size(), batch.size());
+    }
+
+    /**
+     * Locks the oldest claimable rows and leases them for twice the send timeout,
+     * then commits so no connection or row lock is held while waiting on the broker.
+     */
+    private List<OutboxEvent> claimBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> claimed = outboxEventRepository.findClaimable(now, Limit.of(batchSize));
+            if (!claimed.isEmpty()) {
+                outboxEventRepository.claim(claimed.stream().map(OutboxEvent::getId).toList(),
+                        now.plusNanos(TimeUnit.MILLISECONDS.toNanos(2 * sendTimeoutMs)));
+            }
+            return claimed;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    /**
+     * Rows without a readable payload are still published, as a legacy event;
+     * the consumer then loads the payment instead of blocking the outbox.
+     */
+    private PaymentCreatedEvent toPaymentEvent(OutboxEvent event) {
+        if (event.getPayload() == null) {
+            return PaymentCreatedEvent.legacy(event.getPaymentId());
+        }
+        try {
+            return PaymentEventCodec.decode(event.getPayload().getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unreadable outbox payload for eventId={}, publishing paymentId={} as legacy event",
+                    event.getId(), event.getPaymentId(), e);
+            return PaymentCreatedEvent.legacy(event.getPaymentId());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.paymentservice.service;
+
+
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.exception.PaymentNotFoundException;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.PaymentStatusUpdate;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.fraud.VelocityStats;
+import com.example.paymentservice.service.fraud.VelocityTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch counterpart of {@link PaymentConsumer}, enabled with {@code payment.consumer.mode=batch}.
+ *
+ * Each poll is split into transactions of {@code payment.consumer.transaction-size}
+ * records. Per transaction the fraud checks run on the events themselves and the
+ * resulting status changes are written with one conditional JDBC batch
+ * (PENDING only). Payments are read only for legacy events and for the rare
+ * update that matched nothing; such an update also takes the payment back out
+ * of its instrument's velocity, so a redelivered event is counted once. Records
+ * that fail (unknown payment, fraud) are published to the DLQ one by one after
+ * the transaction commits, so they never fail the rest of the batch.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "batch")
+public class PaymentBatchConsumer {
+
+    private final PaymentRepository paymentRepository;
+    private final FraudService fraudService;
+    private final DeadLetterPublishingRecoverer paymentDlqRecoverer;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentMetrics paymentMetrics;
+    private final VelocityTracker velocityTracker;
+    private final PaymentCache paymentCache;
+
+    @Value("${payment.consumer.transaction-size:100}")
+    private int transactionSize;
+
+    public PaymentBatchConsumer(PaymentRepository paymentRepository,
+                                FraudService fraudService,
+                                DeadLetterPublishingRecoverer paymentDlqRecoverer,
+                                TransactionTemplate transactionTemplate,
+                                PaymentMetrics paymentMetrics,
+                                VelocityTracker velocityTracker,
+                                PaymentCache paymentCache) {
+        this.paymentRepository = paymentRepository;
+        this.fraudService = fraudService;
+        this.paymentDlqRecoverer = paymentDlqRecoverer;
+        this.transactionTemplate = transactionTemplate;
+        this.paymentMetrics = paymentMetrics;
+        this.velocityTracker = velocityTracker;
+        this.paymentCache = paymentCache;
+    }
+
+    @KafkaListener(
+            topics = "payments",
+            groupId = "payment-group",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumePayments(List<ConsumerRecord<String, PaymentCreatedEvent>> records) {
+        long start = System.nanoTime();
+        log.info("Received batch of {} payment event(s)", records.size());
+
+        for (int from = 0; from < records.size(); from += transactionSize) {
+            List<ConsumerRecord<String, PaymentCreatedEvent>> chunk =
+                    records.subList(from, Math.min(from + transactionSize, records.size()));
+
+            List<FailedRecord> failed = transactionTemplate.execute(status -> processChunk(chunk));
+
+            // Only route to the DLQ once the successful updates are committed
+            for (FailedRecord failure : failed) {
+                paymentDlqRecoverer.accept(failure.record(), failure.cause());
+            }
+        }
+        paymentMetrics.recordConsumerProcessing(true, start);
+    }
+
+    private List<FailedRecord> processChunk(List<ConsumerRecord<String, PaymentCreatedEvent>> chunk) {
+        Map<UUID, Payment> legacyPayments = loadLegacyPayments(chunk);
+        Map<UUID, String> legacyPrefixes = loadInstrumentPrefixes(legacyPayments.keySet());
+
+        List<PaymentStatusUpdate> updates = new ArrayList<>(chunk.size());
+        List<ConsumerRecord<String, PaymentCreatedEvent>> updatedRecords = new ArrayList<>(chunk.size());
+        List<FailedRecord> failed = new ArrayList<>();
+        Set<UUID> seen = new HashSet<>();
+        List<LocalDateTime> createdAt = new ArrayList<>(chunk.size());
+        List<CountedVelocity> counted = new ArrayList<>(chunk.size());
+
+        for (ConsumerRecord<String, PaymentCreatedEvent> record : chunk) {
+            PaymentCreatedEvent event = record.value();
+            UUID paymentId = event.paymentId();
+            if (!seen.add(paymentId)) {
+                continue; // redelivered within the same chunk
+            }
+
+            if (!event.isSelfContained()) {
+                Payment payment = legacyPayments.get(paymentId);
+                if (payment == null) {
+                    failed.add(new FailedRecord(record,
+                            new PaymentNotFoundException("Payment not found: " + paymentId)));
+                    continue;
+                }
+                if (payment.getStatus() != PaymentStatus.PENDING) {
+                    log.info("Payment {} already processed with status {}. Ignoring.", paymentId, payment.getStatus());
+                    continue;
+                }
+                event = PaymentCreatedEvent.of(payment, null, legacyPrefixes.get(paymentId));
+            }
+
+            PaymentCreatedEvent checked = event;
+            VelocityStats velocity = velocityTracker.record(record.partition(), event.instrumentToken(), event.amount());
+            boolean fraud = paymentMetrics.timeFraudCheck(() -> fraudService.checkFraud(checked, velocity));
+            PaymentStatus target = fraud ? PaymentStatus.FAILED : PaymentStatus.SUCCESS;
+            updates.add(new PaymentStatusUpdate(paymentId, target));
+            updatedRecords.add(record);
+            createdAt.add(event.createdAt());
+            counted.add(new CountedVelocity(record.partition(), event.instrumentToken(), event.amount(), velocity));
+        }
+
+        int[] counts;
+        try {
+            counts = paymentRepository.batchUpdateStatus(updates, PaymentStatus.PENDING);
+        } catch (RuntimeException e) {
+            counted.forEach(this::undoVelocity);
+            throw e;
+        }
+
+        // Updates that matched no row: either an unknown payment or one already processed
+        List<UUID> unmatched = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                unmatched.add(updates.get(i).paymentId());
+            }
+        }
+        Set<UUID> existing = unmatched.isEmpty()
+                ? Set.of()
+                : new HashSet<>(paymentRepository.findExistingIds(unmatched));
+        List<UUID> changed = new ArrayList<>(counts.length);
+
+        for (int i = 0; i < counts.length; i++) {
+            UUID paymentId = updates.get(i).paymentId();
+            ConsumerRecord<String, PaymentCreatedEvent> record = updatedRecords.get(i);
+            if (counts[i] == 0) {
+                // Not moved on from PENDING here, so it must not stay in its instrument's velocity
+                undoVelocity(counted.get(i));
+                if (existing.contains(paymentId)) {
+                    log.info("Payment {} already processed. Ignoring.", paymentId);
+                } else {
+                    failed.add(new FailedRecord(record,
+                            new PaymentNotFoundException("Payment not found: " + paymentId)));
+                }
+            } else {
+                changed.add(paymentId);
+                paymentMetrics.recordLifecycle(updates.get(i).status(), createdAt.get(i));
+                if (updates.get(i).status() == PaymentStatus.FAILED) {
+                    failed.add(new FailedRecord(record, new IllegalArgumentException("Fraud detected")));
+                }
+            }
+        }
+
+        // Deferred until this chunk's transaction commits
+        paymentCache.evictAll(changed);
+
+        log.info("Batch of {} record(s): {} status update(s), {} routed to DLQ",
+                chunk.size(), updates.size() - unmatched.size(), failed.size());
+        return failed;
+    }
+
+    // Legacy (bare ID) events need the payment for the fraud check: one query for all of them
+    private Map<UUID, Payment> loadLegacyPayments(Collection<ConsumerRecord<String, PaymentCreatedEvent>> chunk) {
+        List<UUID> ids = chunk.stream()
+                .map(ConsumerRecord::value)
+                .filter(event -> !event.isSelfContained())
+                .map(PaymentCreatedEvent::paymentId)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return paymentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+    }
+
+    // Payments without details map to a null prefix, which HashMap (unlike Collectors.toMap) allows
+    private Map<UUID, String> loadInstrumentPrefixes(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, String> prefixes = new HashMap<>();
+        paymentRepository.findInstrumentPrefixes(ids)
+                .forEach(row -> prefixes.put(row.paymentId(), row.prefix()));
+        return prefixes;
+    }
+
+    private void undoVelocity(CountedVelocity counted) {
+        velocityTracker.undo(counted.partition(), counted.instrumentToken(), counted.amount(), counted.velocity());
+    }
+
+    private record CountedVelocity(int partition, String instrumentToken, BigDecimal amount, VelocityStats velocity) {
+    }
+
+    private record FailedRecord(ConsumerRecord<String, PaymentCreatedEvent> record, Exception cause) {
+    }
+}
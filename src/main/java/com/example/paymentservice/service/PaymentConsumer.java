@@ -1,38 +1,79 @@
 package com.example.paymentservice.service;
 
 
+import com.example.paymentservice.config.KafkaConfig;
 import com.example.paymentservice.entity.Payment;
 import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.exception.PaymentNotFoundException;
 import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.fraud.VelocityStats;
+import com.example.paymentservice.service.fraud.VelocityTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
-import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
-
+@ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "single", matchIfMissing = true)
 public class PaymentConsumer {
 
     private final PaymentRepository paymentRepository;
     private final FraudService fraudService;
+    private final PaymentMetrics paymentMetrics;
+    private final VelocityTracker velocityTracker;
+    private final PaymentCache paymentCache;
     @Value("${payment.consumer.processing-delay-ms:0}")
     private long processingDelayMs;
 
 
+    /**
+     * Fraud decision is made from the event itself and the instrument's
+     * velocity on this partition; the only DB access is one conditional
+     * PENDING -> SUCCESS/FAILED update. FAILED is committed before the fraud
+     * exception routes the record to the DLQ.
+     *
+     * Transient failures are redelivered from the retry topics (see
+     * KafkaRetryConfig) through this same method. A payment was already counted
+     * in its instrument's velocity on the first delivery, so retries skip the
+     * velocity rules rather than count it again. A main-topic redelivery of a
+     * payment that is no longer PENDING is counted for the check, then taken
+     * back out when the update matches no row.
+     */
     @KafkaListener(
             topics = "payments",
             groupId = "payment-group"
     )
-    @Transactional
-    public void consumePayment(UUID paymentId) {
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public void consumePayment(@Payload PaymentCreatedEvent event,
+                               @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                               @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        long start = System.nanoTime();
+        boolean retry = !KafkaConfig.PAYMENT_TOPIC.equals(topic);
+        try {
+            process(event, partition, retry);
+            if (retry) {
+                paymentMetrics.recordRetryRecovered(topic);
+            }
+        } finally {
+            paymentMetrics.recordConsumerProcessing(false, start);
+        }
+    }
+
+    private void process(PaymentCreatedEvent event, int partition, boolean retry) {
         //This delay is for demonstration, not production.
         if (processingDelayMs > 0) {
             log.info("Delaying processing by {} ms", processingDelayMs);
@@ -42,28 +83,52 @@ public class PaymentConsumer {
                 Thread.currentThread().interrupt();
             }
         }
-        log.info("Received payment event for paymentId={}", paymentId);
+        UUID paymentId = event.paymentId();
+        log.info("Received payment event v{} for paymentId={}", event.version(), paymentId);
 
-        // Idempotency check
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found"));
+        if (!event.isSelfContained()) {
+            // Legacy event: only the ID is known, load the rest
+            Payment payment = paymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
+            if (payment.getStatus() != PaymentStatus.PENDING) {
+                log.info("Payment {} already processed with status {}. Ignoring.", paymentId, payment.getStatus());
+                return;
+            }
+            event = PaymentCreatedEvent.of(payment, null, paymentRepository.findInstrumentPrefix(paymentId));
+        }
+
+        PaymentCreatedEvent checked = event;
+        VelocityStats velocity = retry
+                ? null
+                : velocityTracker.record(partition, event.instrumentToken(), event.amount());
+        boolean isFraudulent = paymentMetrics.timeFraudCheck(() -> fraudService.checkFraud(checked, velocity));
+        PaymentStatus target = isFraudulent ? PaymentStatus.FAILED : PaymentStatus.SUCCESS;
 
-        if (payment.getStatus() != PaymentStatus.PENDING) {
-            log.info("Payment {} already processed with status {}. Ignoring.", paymentId, payment.getStatus());
+        // Idempotency check: only a PENDING payment is moved on
+        int updated;
+        try {
+            updated = paymentRepository.updateStatusIfCurrent(
+                    paymentId, PaymentStatus.PENDING, target, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            velocityTracker.undo(partition, event.instrumentToken(), event.amount(), velocity);
+            throw e;
+        }
+        if (updated == 0) {
+            // Redelivered after it was processed: it is already in its instrument's velocity
+            velocityTracker.undo(partition, event.instrumentToken(), event.amount(), velocity);
+            if (paymentRepository.findExistingIds(List.of(paymentId)).isEmpty()) {
+                throw new PaymentNotFoundException("Payment not found: " + paymentId);
+            }
+            log.info("Payment {} already processed. Ignoring.", paymentId);
             return;
         }
-
-        boolean isFraudulent = fraudService.checkFraud(payment);
+        paymentCache.evict(paymentId);
+        paymentMetrics.recordLifecycle(target, event.createdAt());
 
         if (isFraudulent) {
-            payment.setStatus(PaymentStatus.FAILED);
             throw new IllegalArgumentException("Fraud detected");
         }
-        payment.setStatus(
-                PaymentStatus.SUCCESS
-        );
-
 
-        log.info("Payment {} processed with status {}", paymentId, payment.getStatus());
+        log.info("Payment {} processed with status {}", paymentId, target);
     }
 }
@@ -0,0 +1,197 @@
+package com.example.paymentservice.service;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.exception.PaymentOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Where POST /payments/card and /payments/bank run the create.
+ *
+ * {@code payment.create.mode=sync} (default): on the request thread, as before.
+ * {@code async}: on a dedicated pool of {@code payment.create.async.threads}
+ * with a bounded queue, so the Tomcat thread is back in the pool while the
+ * idempotency reservation and the insert run, and can serve reads meanwhile.
+ * <ul>
+ *   <li>done within {@code respond-within}: 200 with the payment, as in sync mode</li>
+ *   <li>still queued or running: 202 with {@code Location: /payments/requests/{key}};
+ *       the create carries on and the client polls that URL</li>
+ *   <li>queue full: 503 with Retry-After before anything is reserved</li>
+ * </ul>
+ * A create that fails after its 202 keeps its exception type and message for
+ * {@code failure-ttl}, so the status URL reports it instead of a 404.
+ * With {@code spring.threads.virtual.enabled=true} the pool's threads are
+ * virtual; their number and the queue still bound the creates.
+ */
+@Service
+@Slf4j
+public class PaymentCreateExecutor implements DisposableBean {
+
+    private final boolean async;
+    private final Duration respondWithin;
+    private final ThreadPoolExecutor executor;
+    private final Duration failureTtl;
+    private final Map<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CreateFailure> failures = new ConcurrentHashMap<>();
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+
+    public PaymentCreateExecutor(MeterRegistry meterRegistry,
+                                 @Value("${payment.create.mode:sync}") String mode,
+                                 @Value("${payment.create.async.threads:16}") int threads,
+                                 @Value("${payment.create.async.queue-capacity:500}") int queueCapacity,
+                                 @Value("${payment.create.async.respond-within:2s}") Duration respondWithin,
+                                 @Value("${payment.create.async.failure-ttl:10m}") Duration failureTtl,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.async = "async".equalsIgnoreCase(mode);
+        this.respondWithin = respondWithin;
+        this.failureTtl = failureTtl;
+        this.executor = async ? newExecutor(threads, queueCapacity, virtualThreads) : null;
+
+        this.acceptedCounter = Counter.builder("payment.create.async.accepted")
+                .description("Async creates answered 202 because they had not finished in time")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payment.create.async.rejected")
+                .description("Async creates answered 503 because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("payment.create.async.queued", this, e -> e.executor == null ? 0 : e.executor.getQueue().size())
+                .description("Async creates waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity, boolean virtualThreads) {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("payment-create-", 1).factory()
+                : task -> new Thread(task, "payment-create-" + sequence.incrementAndGet());
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public DeferredResult<ResponseEntity<PaymentResponse>> execute(String idempotencyKey,
+                                                                   Supplier<PaymentResponse> create) {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = new DeferredResult<>();
+        if (!async) {
+            result.setResult(ResponseEntity.ok(create.get()));
+            return result;
+        }
+
+        // Registered before it can run, so a fast create cannot finish before it is tracked
+        CompletableFuture<PaymentResponse> future = new CompletableFuture<>();
+        inFlight.put(idempotencyKey, future);
+        failures.remove(idempotencyKey);
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(create.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(idempotencyKey, future);
+            rejectedCounter.increment();
+            throw new PaymentOverloadedException("Too many payments being created, retry shortly");
+        }
+        future.whenComplete((response, error) -> {
+            if (error != null && !result.setErrorResult(error)) {
+                // The client already has its 202: recorded before leaving inFlight, so a poll sees one or the other
+                log.warn("Create for Idempotency-Key {} failed after it was accepted", idempotencyKey, error);
+                recordFailure(idempotencyKey, error);
+            }
+            inFlight.remove(idempotencyKey, future);
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(response));
+            }
+        });
+        // Whichever is first: the payment, or the 202 pointing at the status URL
+        CompletableFuture.delayedExecutor(respondWithin.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.setResult(accepted(idempotencyKey))) {
+                acceptedCounter.increment();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * True while a create for {@code idempotencyKey} is queued or running on this instance.
+     */
+    public boolean isInFlight(String idempotencyKey) {
+        return inFlight.containsKey(idempotencyKey);
+    }
+
+    /**
+     * Why the last create for {@code idempotencyKey} failed after it was answered 202,
+     * for {@code payment.create.async.failure-ttl} after the failure.
+     */
+    public Optional<CreateFailure> failure(String idempotencyKey) {
+        CreateFailure failure = failures.get(idempotencyKey);
+        if (failure == null) {
+            return Optional.empty();
+        }
+        if (failure.expiresAtNanos() - System.nanoTime() <= 0) {
+            failures.remove(idempotencyKey, failure);
+            return Optional.empty();
+        }
+        return Optional.of(failure);
+    }
+
+    private void recordFailure(String idempotencyKey, Throwable error) {
+        long now = System.nanoTime();
+        // Failures are rare, so expired ones are dropped here rather than on a schedule
+        failures.values().removeIf(f -> f.expiresAtNanos() - now <= 0);
+        failures.put(idempotencyKey, new CreateFailure(error.getClass().getSimpleName(), error.getMessage(),
+                now + failureTtl.toNanos()));
+    }
+
+    public record CreateFailure(String type, String message, long expiresAtNanos) {
+    }
+
+    static ResponseEntity<PaymentResponse> accepted(String idempotencyKey) {
+        return ResponseEntity.accepted().location(statusUri(idempotencyKey)).build();
+    }
+
+    static URI statusUri(String idempotencyKey) {
+        return UriComponentsBuilder.fromPath("/payments/requests/{idempotencyKey}")
+                .buildAndExpand(idempotencyKey)
+                .encode()
+                .toUri();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (executor != null) {
+            // Queued creates still run; their clients poll the status URL
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("{} payment create(s) still running at shutdown", executor.getActiveCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.service.idempotency.IdempotencyReservation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Latency and volume of every stage of the payment lifecycle.
+ *
+ * All timers publish percentile histograms so p50/p95/p99 can be aggregated
+ * across instances. Tags are limited to small fixed sets (enums, outcomes,
+ * exception class names) - never payment IDs, keys or amounts. Meters are
+ * registered up front so the hot paths only do a map lookup.
+ */
+@Component
+public class PaymentMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Map<PaymentType, Timer> createTimers = new EnumMap<>(PaymentType.class);
+    private final Map<PaymentType, Counter> replayCounters = new EnumMap<>(PaymentType.class);
+    private final Map<IdempotencyReservation.Outcome, Timer> idempotencyTimers =
+            new EnumMap<>(IdempotencyReservation.Outcome.class);
+    private final Map<PaymentStatus, Timer> lifecycleTimers = new EnumMap<>(PaymentStatus.class);
+    private final Timer dbSaveTimer;
+    private final Timer kafkaAckTimer;
+    private final Timer kafkaFailedTimer;
+    private final Timer fraudCleanTimer;
+    private final Timer fraudDetectedTimer;
+    private final Timer singleConsumerTimer;
+    private final Timer batchConsumerTimer;
+
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (PaymentType type : PaymentType.values()) {
+            createTimers.put(type, timer("payment.create", "Create request latency, controller to response",
+                    "type", type.name()));
+            replayCounters.put(type, Counter.builder("payment.idempotency.replays")
+                    .description("Create requests answered from the idempotency store")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+        for (IdempotencyReservation.Outcome outcome : IdempotencyReservation.Outcome.values()) {
+            idempotencyTimers.put(outcome, timer("payment.idempotency.lookup", "Idempotency key reservation",
+                    "outcome", outcome.name()));
+        }
+        for (PaymentStatus status : PaymentStatus.values()) {
+            lifecycleTimers.put(status, timer("payment.lifecycle", "Payment creation to terminal status",
+                    "status", status.name()));
+        }
+        dbSaveTimer = timer("payment.db.save", "Payment + outbox insert transaction");
+        kafkaAckTimer = timer("payment.kafka.send", "Send to broker acknowledgement", "result", "ack");
+        kafkaFailedTimer = timer("payment.kafka.send", "Send to broker acknowledgement", "result", "failed");
+        fraudCleanTimer = timer("payment.fraud.check", "Fraud rule evaluation", "result", "clean");
+        fraudDetectedTimer = timer("payment.fraud.check", "Fraud rule evaluation", "result", "fraud");
+        singleConsumerTimer = timer("payment.consumer.process", "Listener invocation", "mode", "single");
+        batchConsumerTimer = timer("payment.consumer.process", "Listener invocation", "mode", "batch");
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public <T> T timeCreate(PaymentType type, Supplier<T> action) {
+        return createTimers.get(type).record(action);
+    }
+
+    public void recordReplay(PaymentType type) {
+        replayCounters.get(type).increment();
+    }
+
+    public void recordIdempotencyLookup(IdempotencyReservation.Outcome outcome, long startNanos) {
+        idempotencyTimers.get(outcome).record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    public <T> T timeDbSave(Supplier<T> action) {
+        return dbSaveTimer.record(action);
+    }
+
+    public void recordKafkaSend(boolean acknowledged, long startNanos) {
+        (acknowledged ? kafkaAckTimer : kafkaFailedTimer).record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    public boolean timeFraudCheck(Supplier<Boolean> check) {
+        long start = System.nanoTime();
+        boolean fraud = check.get();
+        (fraud ? fraudDetectedTimer : fraudCleanTimer).record(Duration.ofNanos(System.nanoTime() - start));
+        return fraud;
+    }
+
+    public void recordConsumerProcessing(boolean batch, long startNanos) {
+        (batch ? batchConsumerTimer : singleConsumerTimer).record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Time from payment creation until it reached {@code status}; skipped when the creation time is unknown.
+     */
+    public void recordLifecycle(PaymentStatus status, LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return;
+        }
+        Duration elapsed = Duration.between(createdAt, LocalDateTime.now());
+        lifecycleTimers.get(status).record(elapsed.isNegative() ? Duration.ZERO : elapsed);
+    }
+
+    /**
+     * Records routed to the DLQ, tagged with the failure's class name (a small, fixed set).
+     */
+    public void recordDlqRouted(Throwable cause) {
+        registry.counter("payment.dlq.routed", "reason", cause.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * Records moved to a retry tier, tagged with the tier's topic (one per configured delay).
+     */
+    public void recordRetryRouted(String topic) {
+        registry.counter("payment.kafka.retry.routed", "topic", topic).increment();
+    }
+
+    /**
+     * Records that succeeded when redelivered from a retry tier.
+     */
+    public void recordRetryRecovered(String topic) {
+        registry.counter("payment.kafka.retry.recovered", "topic", topic).increment();
+    }
+}
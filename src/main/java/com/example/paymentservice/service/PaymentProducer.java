@@ -1,37 +1,53 @@
 package com.example.paymentservice.service;
 
 
+import com.example.paymentservice.event.PaymentCreatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentProducer {
 
-    private final KafkaTemplate<String, UUID> kafkaTemplate;
-
-    public void sendPaymentEvent(UUID paymentId) {
-
-        kafkaTemplate.send("payments", paymentId)
-                .thenAccept(result ->
-                        log.info(
-                                "Payment successfully posted to topic={}, partition={}, offset={}, paymentId={}",
-                                result.getRecordMetadata().topic(),
-                                result.getRecordMetadata().partition(),
-                                result.getRecordMetadata().offset(),
-                                paymentId
-                        )
-                )
-                .exceptionally(ex -> {
-                    log.error("Failed to publish payment event, paymentId={}", paymentId, ex);
-                    return null;
+    private final KafkaTemplate<String, PaymentCreatedEvent> kafkaTemplate;
+    private final PaymentMetrics paymentMetrics;
+
+    /**
+     * Sends without waiting for the broker; callers that need delivery
+     * guarantees (e.g. the outbox relay) wait on the returned future.
+     * Keyed by instrument token, so every payment of one card or bank account
+     * lands on the same partition (where the velocity checks keep its windows)
+     * and every event of one payment stays in order. Events without a token
+     * (legacy ones) fall back to the payment ID.
+     */
+    public CompletableFuture<SendResult<String, PaymentCreatedEvent>> sendPaymentEvent(PaymentCreatedEvent event) {
+        UUID paymentId = event.paymentId();
+        long sendStart = System.nanoTime();
+
+        String key = event.instrumentToken() != null ? event.instrumentToken() : paymentId.toString();
+
+        return kafkaTemplate.send("payments", key, event)
+                .whenComplete((result, ex) -> {
+                    paymentMetrics.recordKafkaSend(ex == null, sendStart);
+                    if (ex != null) {
+                        log.error("Failed to publish payment event, paymentId={}", paymentId, ex);
+                        return;
+                    }
+                    log.info(
+                            "Payment successfully posted to topic={}, partition={}, offset={}, paymentId={}",
+                            result.getRecordMetadata().topic(),
+                            result.getRecordMetadata().partition(),
+                            result.getRecordMetadata().offset(),
+                            paymentId
+                    );
                 });
 
     }
 }
-
@@ -2,41 +2,112 @@ package com.example.paymentservice.service;
 
 
 import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentItem;
+import com.example.paymentservice.dto.BatchPaymentItemResult;
+import com.example.paymentservice.dto.BatchPaymentResponse;
 import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentResponse;
 import com.example.paymentservice.entity.BankPaymentDetails;
 import com.example.paymentservice.entity.CardPaymentDetails;
+import com.example.paymentservice.entity.OutboxEvent;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.PaymentIdempotencyKey;
+import com.example.paymentservice.entity.enums.OutboxEventType;
 import com.example.paymentservice.entity.enums.PaymentStatus;
 import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventCodec;
+import com.example.paymentservice.exception.PaymentInProgressException;
+import com.example.paymentservice.repository.BankPaymentRepository;
+import com.example.paymentservice.repository.CardPaymentRepository;
+import com.example.paymentservice.repository.KeyedPaymentSummary;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import com.example.paymentservice.repository.PaymentCursor;
+import com.example.paymentservice.repository.PaymentExportRow;
+import com.example.paymentservice.repository.PaymentIdempotencyKeyRepository;
 import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
+import com.example.paymentservice.repository.PaymentSummary;
+import com.example.paymentservice.service.archive.ArchivedPayment;
+import com.example.paymentservice.service.archive.PaymentArchive;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.idempotency.IdempotencyReservation;
+import com.example.paymentservice.service.idempotency.IdempotencyStore;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PaymentService {
 
+    // Anything but a completed payment can be cancelled
+    private static final Set<PaymentStatus> CANCELLABLE = EnumSet.complementOf(EnumSet.of(PaymentStatus.SUCCESS));
+    private static final Set<PaymentStatus> ANY_STATUS = EnumSet.allOf(PaymentStatus.class);
+
     private final PaymentRepository paymentRepository;
-    private final PaymentProducer paymentProducer;
+    private final CardPaymentRepository cardPaymentRepository;
+    private final BankPaymentRepository bankPaymentRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final IdempotencyStore idempotencyStore;
+    private final TransactionTemplate transactionTemplate;
+    private final InstrumentTokenizer instrumentTokenizer;
+    private final PaymentMetrics paymentMetrics;
+    private final Validator validator;
+    private final PaymentCache paymentCache;
+    private final PaymentArchive paymentArchive;
+    private final PaymentIdempotencyKeyRepository idempotencyKeyRepository;
+
+    // Partitioned payment table: idempotency keys are only unique per month there
+    @Value("${payment.partitioning.enabled:false}")
+    private boolean partitioned;
 
 
-    @Transactional
     public PaymentResponse createCardPayment(CardPaymentRequest request, String idempotencyKey) {
 
-        // 🔁 Check if this request was already processed
-        Optional<Payment> existing = paymentRepository.findByIdempotencyKey(idempotencyKey);
-        if (existing.isPresent()) {
-            return mapToResponse(existing.get());
-        }
+        return createIdempotently(idempotencyKey, PaymentType.CARD,
+                () -> newCardPayment(request, idempotencyKey));
+    }
+
+    public PaymentResponse createBankPayment(BankPaymentRequest request, String idempotencyKey) {
 
+        return createIdempotently(idempotencyKey, PaymentType.BANK,
+                () -> newBankPayment(request, idempotencyKey));
+    }
+
+    /**
+     * A payment being created and its details row. Payment does not map its details,
+     * so they are saved explicitly, in the same transaction.
+     */
+    private record NewPayment(Payment payment, CardPaymentDetails card, BankPaymentDetails bank) {
+    }
+
+    private NewPayment newCardPayment(CardPaymentRequest request, String idempotencyKey) {
         // Build parent Payment entity
         Payment payment = Payment.builder()
                 .amount(request.getAmount())
@@ -55,36 +126,13 @@ public class PaymentService {
                 .expiryMonth(request.getExpiryMonth())
                 .expiryYear(request.getExpiryYear())
                 .cvv(request.getCvv())
-                .payment(payment) // 🔑 link to parent
+                .payment(payment) // 🔑 link to parent, shares its ID
                 .build();
 
-        // Attach child to parent for cascading
-        payment.setCardPaymentDetails(cardDetails);
-
-        try {
-            // Save parent, cascade saves child
-            paymentRepository.save(payment);
-        } catch (DataIntegrityViolationException ex) {
-            // Handle race condition for idempotency key
-            Payment existingPayment = paymentRepository
-                    .findByIdempotencyKey(idempotencyKey)
-                    .orElseThrow();
-            return mapToResponse(existingPayment);
-        }
-
-        // ✅ Publish Kafka event
-        paymentProducer.sendPaymentEvent(payment.getId());
-        return mapToResponse(payment);
+        return new NewPayment(payment, cardDetails, null);
     }
 
-    @Transactional
-    public PaymentResponse createBankPayment(BankPaymentRequest request, String idempotencyKey) {
-
-        Optional<Payment> existing = paymentRepository.findByIdempotencyKey(idempotencyKey);
-        if (existing.isPresent()) {
-            return mapToResponse(existing.get());
-        }
-
+    private NewPayment newBankPayment(BankPaymentRequest request, String idempotencyKey) {
         Payment payment = Payment.builder()
                 .amount(request.getAmount())
                 .currency(request.getCurrency())
@@ -103,67 +151,432 @@ public class PaymentService {
                 .payment(payment)
                 .build();
 
-        payment.setBankPaymentDetails(bankDetails);
+        return new NewPayment(payment, null, bankDetails);
+    }
+
+    /**
+     * 🔁 Idempotent create. The key is reserved in the idempotency store before any DB work:
+     * - already completed -> stored response is replayed without touching the database
+     * - still in flight elsewhere -> fail fast with PaymentInProgressException
+     * - acquired -> insert payment + outbox event, then store the response
+     */
+    private PaymentResponse createIdempotently(String idempotencyKey, PaymentType type,
+                                               Supplier<NewPayment> paymentFactory) {
+        long lookupStart = System.nanoTime();
+        IdempotencyReservation reservation = idempotencyStore.reserve(idempotencyKey);
+        paymentMetrics.recordIdempotencyLookup(reservation.outcome(), lookupStart);
+        switch (reservation.outcome()) {
+            case COMPLETED -> {
+                paymentMetrics.recordReplay(type);
+                return reservation.response();
+            }
+            case IN_PROGRESS -> throw new PaymentInProgressException(
+                    "Payment with Idempotency-Key " + idempotencyKey + " is still being processed");
+            case ACQUIRED -> { }
+        }
+
+        PaymentResponse response;
+        try {
+            response = insertPayment(paymentFactory, idempotencyKey, type);
+        } catch (RuntimeException ex) {
+            idempotencyStore.release(idempotencyKey, reservation.token());
+            throw ex;
+        }
+        idempotencyStore.complete(idempotencyKey, response);
+        return response;
+    }
+
+    private PaymentResponse insertPayment(Supplier<NewPayment> paymentFactory, String idempotencyKey,
+                                          PaymentType type) {
+        try {
+            return paymentMetrics.timeDbSave(() -> transactionTemplate.execute(status -> {
+                NewPayment newPayment = paymentFactory.get();
+                Payment payment = newPayment.payment();
+                // Save parent and flush so a duplicate key fails here, then its details
+                paymentRepository.saveAndFlush(payment);
+                claimIdempotencyKeys(List.of(payment));
+                saveDetails(newPayment);
+                // ✅ Queue Kafka event in the same transaction; OutboxRelay publishes it after commit
+                enqueuePaymentCreated(newPayment);
+                return mapToResponse(payment);
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            // Key was committed earlier but is no longer in the store (TTL, other node).
+            // The failed transaction is already rolled back, so this read runs on a clean one.
+            PaymentResponse existing = paymentRepository.findSummaryByIdempotencyKey(idempotencyKey)
+                    .map(PaymentService::mapToResponse)
+                    .orElseThrow(() -> ex);
+            paymentMetrics.recordReplay(type);
+            return existing;
+        }
+    }
+
+
+    /**
+     * Bulk create for payroll-style runs. Every item behaves like a single create
+     * with its own key, but the database work is shared:
+     * - all keys are reserved in the idempotency store first
+     * - keys the store no longer knows are checked with one IN query
+     * - the remaining payments, their details and outbox events are inserted in
+     *   one transaction, which Hibernate sends as JDBC batches
+     * If that transaction fails, the items are retried one transaction each so
+     * only the offending item fails. Results come back per item, in request order.
+     */
+    public BatchPaymentResponse createBatch(List<BatchPaymentItem> items) {
+        BatchPaymentItemResult[] results = new BatchPaymentItemResult[items.size()];
+
+        // Item index by key; the first occurrence of a key wins
+        Map<String, Integer> pending = new LinkedHashMap<>();
+        // Release tokens of the keys this request acquired
+        Map<String, String> tokens = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchPaymentItem item = items.get(i);
+            String error = validateBatchItem(item);
+            if (error == null && pending.containsKey(item.getIdempotencyKey())) {
+                error = "Duplicate idempotencyKey in batch";
+            }
+            if (error != null) {
+                results[i] = itemResult(i, item, BatchPaymentItemResult.Outcome.REJECTED, null, error);
+            } else {
+                pending.put(item.getIdempotencyKey(), i);
+            }
+        }
+
+        Iterator<Map.Entry<String, Integer>> reserving = pending.entrySet().iterator();
+        while (reserving.hasNext()) {
+            Map.Entry<String, Integer> entry = reserving.next();
+            int i = entry.getValue();
+            long lookupStart = System.nanoTime();
+            IdempotencyReservation reservation = idempotencyStore.reserve(entry.getKey());
+            paymentMetrics.recordIdempotencyLookup(reservation.outcome(), lookupStart);
+            switch (reservation.outcome()) {
+                case COMPLETED -> {
+                    paymentMetrics.recordReplay(typeOf(items.get(i)));
+                    results[i] = itemResult(i, items.get(i), BatchPaymentItemResult.Outcome.REPLAYED,
+                            reservation.response(), null);
+                    reserving.remove();
+                }
+                case IN_PROGRESS -> {
+                    results[i] = itemResult(i, items.get(i), BatchPaymentItemResult.Outcome.IN_PROGRESS,
+                            null, "Still being processed");
+                    reserving.remove();
+                }
+                case ACQUIRED -> tokens.put(entry.getKey(), reservation.token());
+            }
+        }
+
+        // Every key left in pending is held by this request until completed or released
+        try {
+            if (!pending.isEmpty()) {
+                for (KeyedPaymentSummary existing : paymentRepository.findSummariesByIdempotencyKeyIn(pending.keySet())) {
+                    int i = pending.remove(existing.idempotencyKey());
+                    PaymentResponse response = mapToResponse(existing.summary());
+                    idempotencyStore.complete(existing.idempotencyKey(), response);
+                    paymentMetrics.recordReplay(typeOf(items.get(i)));
+                    results[i] = itemResult(i, items.get(i), BatchPaymentItemResult.Outcome.REPLAYED, response, null);
+                }
+            }
+            if (!pending.isEmpty()) {
+                insertBatch(items, pending, tokens, results);
+            }
+        } catch (RuntimeException ex) {
+            pending.forEach((key, i) -> {
+                if (results[i] == null) {
+                    idempotencyStore.release(key, tokens.get(key));
+                }
+            });
+            throw ex;
+        }
+
+        return BatchPaymentResponse.builder()
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private void insertBatch(List<BatchPaymentItem> items, Map<String, Integer> pending, Map<String, String> tokens,
+                             BatchPaymentItemResult[] results) {
+        List<Payment> inserted;
+        try {
+            inserted = paymentMetrics.timeDbSave(() -> transactionTemplate.execute(status -> {
+                List<NewPayment> payments = pending.values().stream()
+                        .map(i -> newPayment(items.get(i)))
+                        .toList();
+                List<Payment> saved = paymentRepository.saveAll(payments.stream().map(NewPayment::payment).toList());
+                claimIdempotencyKeys(saved);
+                cardPaymentRepository.saveAll(payments.stream().map(NewPayment::card).filter(Objects::nonNull).toList());
+                bankPaymentRepository.saveAll(payments.stream().map(NewPayment::bank).filter(Objects::nonNull).toList());
+                outboxEventRepository.saveAll(payments.stream().map(this::paymentCreatedEvent).toList());
+                paymentRepository.flush();
+                return payments.stream().map(NewPayment::payment).toList();
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("Batch insert of {} payment(s) failed, retrying one by one: {}", pending.size(), ex.getMessage());
+            pending.forEach((key, i) -> results[i] = insertBatchItem(i, items.get(i), tokens.get(key)));
+            return;
+        }
+
+        for (Payment payment : inserted) {
+            int i = pending.get(payment.getIdempotencyKey());
+            PaymentResponse response = mapToResponse(payment);
+            idempotencyStore.complete(payment.getIdempotencyKey(), response);
+            results[i] = itemResult(i, items.get(i), BatchPaymentItemResult.Outcome.CREATED, response, null);
+        }
+    }
 
+    // Fallback after a failed batch: own transaction, so one bad item cannot fail the others
+    private BatchPaymentItemResult insertBatchItem(int index, BatchPaymentItem item, String token) {
+        String key = item.getIdempotencyKey();
         try {
-            paymentRepository.save(payment);
+            PaymentResponse response = paymentMetrics.timeDbSave(() -> transactionTemplate.execute(status -> {
+                NewPayment newPayment = newPayment(item);
+                paymentRepository.saveAndFlush(newPayment.payment());
+                claimIdempotencyKeys(List.of(newPayment.payment()));
+                saveDetails(newPayment);
+                enqueuePaymentCreated(newPayment);
+                return mapToResponse(newPayment.payment());
+            }));
+            idempotencyStore.complete(key, response);
+            return itemResult(index, item, BatchPaymentItemResult.Outcome.CREATED, response, null);
         } catch (DataIntegrityViolationException ex) {
-            Payment existingPayment = paymentRepository
-                    .findByIdempotencyKey(idempotencyKey)
-                    .orElseThrow();
-            return mapToResponse(existingPayment);
+            // Same key committed concurrently by another request
+            Optional<PaymentResponse> existing = paymentRepository.findSummaryByIdempotencyKey(key)
+                    .map(PaymentService::mapToResponse);
+            if (existing.isPresent()) {
+                idempotencyStore.complete(key, existing.get());
+                paymentMetrics.recordReplay(typeOf(item));
+                return itemResult(index, item, BatchPaymentItemResult.Outcome.REPLAYED, existing.get(), null);
+            }
+            log.warn("Batch item with key={} violates a constraint: {}", key, ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Batch item with key={} could not be stored", key, ex);
         }
-        paymentProducer.sendPaymentEvent(payment.getId());
-        return mapToResponse(payment);
+        idempotencyStore.release(key, token);
+        return itemResult(index, item, BatchPaymentItemResult.Outcome.FAILED, null,
+                "Could not be stored; retry with the same idempotencyKey");
+    }
+
+    // First constraint violation of the item, or null when it is valid
+    private String validateBatchItem(BatchPaymentItem item) {
+        if (item == null) {
+            return "Item is empty";
+        }
+        if (item.getIdempotencyKey() == null || item.getIdempotencyKey().isBlank()) {
+            return "Missing idempotencyKey";
+        }
+        if ((item.getCard() == null) == (item.getBank() == null)) {
+            return "Exactly one of card or bank is required";
+        }
+        Object request = item.getCard() != null ? item.getCard() : item.getBank();
+        return validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .findFirst()
+                .orElse(null);
     }
 
+    private NewPayment newPayment(BatchPaymentItem item) {
+        return item.getCard() != null
+                ? newCardPayment(item.getCard(), item.getIdempotencyKey())
+                : newBankPayment(item.getBank(), item.getIdempotencyKey());
+    }
+
+    private static PaymentType typeOf(BatchPaymentItem item) {
+        return item.getCard() != null ? PaymentType.CARD : PaymentType.BANK;
+    }
+
+    private static BatchPaymentItemResult itemResult(int index, BatchPaymentItem item,
+                                                     BatchPaymentItemResult.Outcome outcome,
+                                                     PaymentResponse payment, String error) {
+        return BatchPaymentItemResult.builder()
+                .index(index)
+                .idempotencyKey(item != null ? item.getIdempotencyKey() : null)
+                .outcome(outcome)
+                .payment(payment)
+                .error(error)
+                .build();
+    }
 
+    /**
+     * Served from the payment cache; every status change below and in the consumers evicts it.
+     */
     public PaymentResponse getPaymentById(UUID id) {
-        Payment payment = paymentRepository.findById(id)
+        return paymentCache.get(id, this::loadPayment);
+    }
+
+    // Column projection in a read-only transaction; no transaction at all on a cache hit.
+    // Archived payments are no longer in the table: the archive files are searched last.
+    private PaymentResponse loadPayment(UUID id) {
+        return paymentRepository.findSummaryById(id)
+                .or(() -> paymentArchive.find(id).map(ArchivedPayment::summary))
+                .map(PaymentService::mapToResponse)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
+    }
 
-        return mapToResponse(payment);
+    /**
+     * The stored payment for a create's Idempotency-Key, if it committed.
+     */
+    public Optional<PaymentResponse> findByIdempotencyKey(String idempotencyKey) {
+        return paymentRepository.findSummaryByIdempotencyKey(idempotencyKey).map(PaymentService::mapToResponse);
     }
 
-    //@Transactional
+    /**
+     * One conditional UPDATE: a cancel racing the fraud decision either lands
+     * while the payment can still be cancelled or fails; it never overwrites
+     * SUCCESS. The response columns are read back afterwards.
+     */
+    @Transactional
     public PaymentResponse cancelPayment(UUID id) {
-        Payment payment = paymentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Payment not found"));
-
-        if (payment.getStatus() == PaymentStatus.SUCCESS) {
-            throw new IllegalStateException("Completed payments cannot be cancelled");
+        if (paymentRepository.transitionStatus(id, CANCELLABLE, PaymentStatus.CANCELLED, LocalDateTime.now()) == 0) {
+            throw transitionRejected(id, "Completed payments cannot be cancelled");
         }
-        payment.setStatus(PaymentStatus.CANCELLED);
-        payment.setUpdatedAt(LocalDateTime.now());
+        PaymentSummary payment = paymentRepository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Payment not found"));
 
-        paymentRepository.save(payment);
+        paymentCache.evict(id);
+        paymentMetrics.recordLifecycle(PaymentStatus.CANCELLED, payment.createdAt());
         // Optional Kafka event
-        //paymentProducer.sendPaymentCancelledEvent(payment.getId());
+        //paymentProducer.sendPaymentCancelledEvent(payment.id());
         return mapToResponse(payment);
     }
-    public List<PaymentResponse> getAllPayments() {
-        return paymentRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+
+    /**
+     * One page of payments ordered by (createdAt, id).
+     * Reads one extra row to know whether a next page exists.
+     */
+    @Transactional(readOnly = true)
+    public PaymentPageResponse getPayments(String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<PaymentSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = paymentRepository.findSummaries(limit);
+        } else {
+            PaymentCursor after = PaymentCursor.decode(cursor);
+            rows = paymentRepository.findSummariesAfter(after.createdAt(), after.id(), limit);
+        }
+        return page(rows, size);
+    }
+
+    /**
+     * Filtered variant of {@link #getPayments} for ops, e.g. payments stuck in
+     * PENDING. Same (createdAt, id) order and cursor format.
+     */
+    @Transactional(readOnly = true)
+    public PaymentPageResponse searchPayments(PaymentSearchCriteria criteria, String cursor, int size) {
+        PaymentCursor after = cursor == null || cursor.isBlank() ? null : PaymentCursor.decode(cursor);
+        return page(paymentRepository.search(criteria, after, size + 1), size);
+    }
+
+    // rows holds up to size + 1 entries; the extra one only signals a next page
+    private PaymentPageResponse page(List<PaymentSummary> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<PaymentSummary> page = hasMore ? rows.subList(0, size) : rows;
+
+        return PaymentPageResponse.builder()
+                .items(page.stream().map(PaymentService::mapToResponse).toList())
+                .nextCursor(hasMore ? PaymentCursor.after(page.get(size - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * Pushes every payment to {@code sink} one row at a time from a forward-only
+     * cursor, so memory use does not depend on the number of payments.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPayments(Consumer<PaymentResponse> sink) {
+        try (Stream<PaymentSummary> rows = paymentRepository.streamSummaries()) {
+            rows.map(PaymentService::mapToResponse).forEach(sink);
+        }
     }
+
+    /**
+     * Reconciliation export: every payment matching {@code criteria}, pushed to
+     * {@code sink} as it is read. The transaction keeps the cursor open; when the
+     * sink throws (e.g. the client went away) it ends and the connection is returned.
+     */
+    @Transactional(readOnly = true)
+    public void exportPayments(PaymentSearchCriteria criteria, Consumer<PaymentExportRow> sink) {
+        paymentRepository.export(criteria, sink);
+    }
+    @Transactional
     public PaymentResponse updatePaymentStatus(UUID id, PaymentStatus status) {
-        Payment payment = paymentRepository.findById(id)
+        // Admin override: from any status, but still a single versioned UPDATE
+        if (paymentRepository.transitionStatus(id, ANY_STATUS, status, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Payment not found");
+        }
+        PaymentSummary payment = paymentRepository.findSummaryById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
-
-        payment.setStatus(status);
-        payment.setUpdatedAt(LocalDateTime.now());
-        paymentRepository.save(payment);
+        paymentCache.evict(id);
 
         return mapToResponse(payment);
     }
 
+    // Only reads when the transition was not applied, to tell a missing payment from a wrong status
+    private RuntimeException transitionRejected(UUID id, String message) {
+        if (paymentRepository.findExistingIds(List.of(id)).isEmpty()) {
+            return new RuntimeException("Payment not found");
+        }
+        return new IllegalStateException(message);
+    }
+
+    /**
+     * With a partitioned payment table, also inserts the keys into the unpartitioned
+     * payment_idempotency_key table and flushes, so a key used in an earlier month fails
+     * here with the same DataIntegrityViolationException as a same-month duplicate.
+     */
+    private void claimIdempotencyKeys(List<Payment> payments) {
+        if (partitioned) {
+            idempotencyKeyRepository.saveAllAndFlush(payments.stream().map(PaymentIdempotencyKey::new).toList());
+        }
+    }
+
+    private void saveDetails(NewPayment newPayment) {
+        if (newPayment.card() != null) {
+            cardPaymentRepository.save(newPayment.card());
+        }
+        if (newPayment.bank() != null) {
+            bankPaymentRepository.save(newPayment.bank());
+        }
+    }
+
+    private void enqueuePaymentCreated(NewPayment newPayment) {
+        outboxEventRepository.save(paymentCreatedEvent(newPayment));
+    }
+
+    private OutboxEvent paymentCreatedEvent(NewPayment newPayment) {
+        PaymentCreatedEvent event = PaymentCreatedEvent.of(newPayment.payment(),
+                instrumentToken(newPayment), instrumentPrefix(newPayment));
+        return OutboxEvent.builder()
+                .paymentId(newPayment.payment().getId())
+                .eventType(OutboxEventType.PAYMENT_CREATED)
+                .createdAt(LocalDateTime.now())
+                .payload(new String(PaymentEventCodec.encode(event), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private String instrumentToken(NewPayment newPayment) {
+        if (newPayment.card() != null) {
+            return instrumentTokenizer.cardToken(newPayment.card().getCardNumber());
+        }
+        if (newPayment.bank() != null) {
+            BankPaymentDetails bank = newPayment.bank();
+            return instrumentTokenizer.bankToken(bank.getBsb(), bank.getAccountNumber());
+        }
+        return null;
+    }
+
+    private static String instrumentPrefix(NewPayment newPayment) {
+        if (newPayment.card() != null) {
+            return PaymentCreatedEvent.cardPrefix(newPayment.card().getCardNumber());
+        }
+        return newPayment.bank() != null ? newPayment.bank().getBsb() : null;
+    }
+
     private String maskCard(String cardNumber) {
         // Keep last 4 digits only
         return "**** **** **** " + cardNumber.substring(cardNumber.length() - 4);
     }
-    // Mapper to Response DTO
-    private PaymentResponse mapToResponse(Payment payment) {
+    // Mapper to Response DTO (static and package-private for PaymentServiceBenchmark)
+    static PaymentResponse mapToResponse(Payment payment) {
         return PaymentResponse.builder()
                 .paymentId(payment.getId())
                 .status(payment.getStatus().name())
@@ -173,5 +586,15 @@ public class PaymentService {
                 .build();
     }
 
+    private static PaymentResponse mapToResponse(PaymentSummary summary) {
+        return PaymentResponse.builder()
+                .paymentId(summary.id())
+                .status(summary.status().name())
+                .amount(summary.amount())
+                .currency(summary.currency())
+                .createdAt(summary.createdAt())
+                .build();
+    }
+
 }
 
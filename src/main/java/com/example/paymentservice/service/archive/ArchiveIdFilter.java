@@ -0,0 +1,62 @@
+package com.example.paymentservice.service.archive;
+
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Bloom filter over the payment ids of one archive file.
+ *
+ * {@link PaymentArchive} keeps one per file in memory so a lookup only opens
+ * the files that may hold the id. Payment ids are random UUIDs, so every batch
+ * spans nearly the whole id range and a per-file min/max would rule out almost
+ * nothing; 10 bits per id give about 1% false positives and no false negatives.
+ * Immutable once built.
+ */
+final class ArchiveIdFilter {
+
+    private static final int BITS_PER_ID = 10;
+    private static final int HASHES = 7;
+
+    private final long[] words;
+    private final long bitCount;
+
+    private ArchiveIdFilter(int ids) {
+        words = new long[(int) Math.max(1, ((long) ids * BITS_PER_ID + 63) / 64)];
+        bitCount = (long) words.length * Long.SIZE;
+    }
+
+    static ArchiveIdFilter of(Collection<UUID> ids) {
+        ArchiveIdFilter filter = new ArchiveIdFilter(ids.size());
+        for (UUID id : ids) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits());
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, filter.bitCount);
+                filter.words[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return filter;
+    }
+
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits());
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MurmurHash3 finalizer: ids are not always random (tests, imported data)
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.paymentservice.service.archive;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.repository.PaymentSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One payment row as kept in the archive. Card and bank details are not
+ * archived: the responses never show them and they must not outlive retention.
+ */
+public record ArchivedPayment(
+        UUID id,
+        PaymentStatus status,
+        PaymentType paymentType,
+        BigDecimal amount,
+        String currency,
+        String idempotencyKey,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public PaymentSummary summary() {
+        return new PaymentSummary(id, status, amount, currency, createdAt);
+    }
+}
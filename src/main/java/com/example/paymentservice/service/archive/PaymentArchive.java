@@ -0,0 +1,149 @@
+package com.example.paymentservice.service.archive;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Local directory of archive files written by {@link PaymentArchiver}.
+ *
+ * Lookups are the slow path behind GET /payments/{id}: each file's id column
+ * is binary-searched on disk, newest file first, until one has the payment.
+ * An in-memory {@link ArchiveIdFilter} per file, loaded at startup and added
+ * on write, skips the files that cannot hold the id, so a miss rarely touches
+ * the disk.
+ */
+@Component
+@Slf4j
+public class PaymentArchive {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Path directory;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter fileReadCounter;
+    private final Map<Path, ArchiveIdFilter> idFilters = new ConcurrentHashMap<>();
+
+    public PaymentArchive(@Value("${payment.archive.directory:archive}") Path directory,
+                          MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.hitCounter = Counter.builder("payment.archive.lookups")
+                .description("Payment reads that missed the database and searched the archive")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("payment.archive.lookups")
+                .description("Payment reads that missed the database and searched the archive")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.fileReadCounter = Counter.builder("payment.archive.file.reads")
+                .description("Archive files searched by lookups; the others were ruled out by their id filter")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIdFilters() {
+        for (Path file : files()) {
+            try {
+                idFilter(file);
+            } catch (IOException e) {
+                log.error("Skipping unreadable archive file {}", file, e);
+            }
+        }
+        log.info("Loaded id filters of {} archive files", idFilters.size());
+    }
+
+    public Optional<ArchivedPayment> find(UUID id) {
+        for (Path file : files()) {
+            try {
+                if (!idFilter(file).mightContain(id)) {
+                    continue;
+                }
+                fileReadCounter.increment();
+                Optional<ArchivedPayment> payment = PaymentArchiveFile.find(file, id);
+                if (payment.isPresent()) {
+                    hitCounter.increment();
+                    return payment;
+                }
+            } catch (IOException e) {
+                log.error("Skipping unreadable archive file {}", file, e);
+            }
+        }
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Writes one batch to a new file and forces it to disk before returning,
+     * so the caller may delete the rows as soon as this returns. The file only
+     * appears under its final name once complete.
+     */
+    public Path write(List<ArchivedPayment> payments) {
+        LocalDateTime oldest = payments.stream().map(ArchivedPayment::createdAt).min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime newest = payments.stream().map(ArchivedPayment::createdAt).max(Comparator.naturalOrder())
+                .orElseThrow();
+        String name = "payments-" + FILE_TIME.format(oldest) + "-" + FILE_TIME.format(newest)
+                + "-" + UUID.randomUUID().toString().substring(0, 8) + PaymentArchiveFile.EXTENSION;
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "payments-", ".tmp");
+            PaymentArchiveFile.write(temp, payments);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Path file = Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            idFilters.put(file, ArchiveIdFilter.of(payments.stream().map(ArchivedPayment::id).toList()));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive file " + name, e);
+        }
+    }
+
+    // Files copied in by hand are indexed on their first lookup
+    private ArchiveIdFilter idFilter(Path file) throws IOException {
+        ArchiveIdFilter filter = idFilters.get(file);
+        if (filter == null) {
+            filter = ArchiveIdFilter.of(PaymentArchiveFile.readIds(file));
+            idFilters.put(file, filter);
+        }
+        return filter;
+    }
+
+    // Names start with the batch's oldest createdAt: newest batches first
+    List<Path> files() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(PaymentArchiveFile.EXTENSION))
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive directory " + directory, e);
+        }
+    }
+}
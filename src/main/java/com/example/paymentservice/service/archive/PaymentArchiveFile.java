@@ -0,0 +1,253 @@
+package com.example.paymentservice.service.archive;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive file format, one file per archived batch:
+ * <pre>
+ * "PARC" | version (1 byte) | row count (int)
+ * id column: 16 bytes per row, rows sorted by id, uncompressed
+ * GZIP: status, type, currency (dictionary codes, 1 byte per row)
+ *       amount (scale byte + unscaled long), createdAt, updatedAt (epoch micros), idempotency key
+ * </pre>
+ * Each column is stored contiguously so similar values sit together and
+ * compress well. Random UUIDs do not compress, so the id column is left raw
+ * and a lookup binary-searches it in place before inflating anything.
+ */
+final class PaymentArchiveFile {
+
+    static final String EXTENSION = ".parc";
+
+    private static final int MAGIC = 0x50415243; // "PARC"
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Integer.BYTES;
+    private static final int ID_BYTES = 2 * Long.BYTES;
+    private static final int NULL_CODE = 0xFF;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private PaymentArchiveFile() {
+    }
+
+    static void write(Path file, List<ArchivedPayment> payments) throws IOException {
+        List<ArchivedPayment> rows = payments.stream()
+                .sorted(Comparator.comparing(ArchivedPayment::id))
+                .toList();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(rows.size());
+            for (ArchivedPayment row : rows) {
+                out.writeLong(row.id().getMostSignificantBits());
+                out.writeLong(row.id().getLeastSignificantBits());
+            }
+
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+            DataOutputStream columns = new DataOutputStream(gzip);
+            writeDictionary(columns, rows, row -> row.status() != null ? row.status().name() : null);
+            writeDictionary(columns, rows, row -> row.paymentType() != null ? row.paymentType().name() : null);
+            writeDictionary(columns, rows, ArchivedPayment::currency);
+            for (ArchivedPayment row : rows) {
+                columns.writeByte(row.amount().scale());
+            }
+            for (ArchivedPayment row : rows) {
+                columns.writeLong(row.amount().unscaledValue().longValueExact());
+            }
+            for (ArchivedPayment row : rows) {
+                columns.writeLong(micros(row.createdAt()));
+            }
+            for (ArchivedPayment row : rows) {
+                columns.writeLong(micros(row.updatedAt()));
+            }
+            for (ArchivedPayment row : rows) {
+                columns.writeUTF(row.idempotencyKey());
+            }
+            columns.flush();
+            gzip.finish();
+        }
+    }
+
+    static List<ArchivedPayment> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readColumns(channel, readIds(channel, file));
+        }
+    }
+
+    // Only the raw id column; nothing is inflated
+    static List<UUID> readIds(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return List.of(readIds(channel, file));
+        }
+    }
+
+    /**
+     * Binary search of the id column; the other columns are only inflated on a hit.
+     */
+    static Optional<ArchivedPayment> find(Path file, UUID id) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int count = readHeader(channel, file);
+            ByteBuffer idBuffer = ByteBuffer.allocate(ID_BYTES);
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                idBuffer.clear();
+                readFully(channel, idBuffer, HEADER_BYTES + (long) mid * ID_BYTES);
+                int cmp = new UUID(idBuffer.getLong(), idBuffer.getLong()).compareTo(id);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    UUID[] ids = new UUID[count];
+                    ids[mid] = id;
+                    return Optional.of(readColumns(channel, ids).get(mid));
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static UUID[] readIds(FileChannel channel, Path file) throws IOException {
+        int count = readHeader(channel, file);
+        UUID[] ids = new UUID[count];
+        ByteBuffer idColumn = ByteBuffer.allocate(count * ID_BYTES);
+        readFully(channel, idColumn, HEADER_BYTES);
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(idColumn.getLong(), idColumn.getLong());
+        }
+        return ids;
+    }
+
+    private static int readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        if (header.getInt() != MAGIC || header.get() != VERSION) {
+            throw new IOException("Not a payment archive file: " + file);
+        }
+        return header.getInt();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated payment archive file");
+            }
+        }
+        buffer.flip();
+    }
+
+    // ids may be sparse (lookups only know the matching one); rows for null ids are still decoded
+    private static List<ArchivedPayment> readColumns(FileChannel channel, UUID[] ids) throws IOException {
+        int count = ids.length;
+        channel.position(HEADER_BYTES + (long) count * ID_BYTES);
+        InputStream raw = Channels.newInputStream(channel);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 64 * 1024)));
+
+        String[] statuses = readDictionary(in, count);
+        String[] types = readDictionary(in, count);
+        String[] currencies = readDictionary(in, count);
+        int[] scales = new int[count];
+        for (int i = 0; i < count; i++) {
+            scales[i] = in.readByte();
+        }
+        long[] unscaled = readLongs(in, count);
+        long[] created = readLongs(in, count);
+        long[] updated = readLongs(in, count);
+
+        List<ArchivedPayment> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new ArchivedPayment(
+                    ids[i],
+                    statuses[i] != null ? PaymentStatus.valueOf(statuses[i]) : null,
+                    types[i] != null ? PaymentType.valueOf(types[i]) : null,
+                    new BigDecimal(BigInteger.valueOf(unscaled[i]), scales[i]),
+                    currencies[i],
+                    in.readUTF(),
+                    dateTime(created[i]),
+                    dateTime(updated[i])));
+        }
+        return rows;
+    }
+
+    // Distinct values once, then one code per row; 0xFF marks null
+    private static void writeDictionary(DataOutputStream out, List<ArchivedPayment> rows,
+                                        Function<ArchivedPayment, String> column) throws IOException {
+        List<String> dictionary = rows.stream().map(column).filter(Objects::nonNull).distinct().toList();
+        if (dictionary.size() >= NULL_CODE) {
+            throw new IllegalStateException("Too many distinct values for a dictionary column: " + dictionary.size());
+        }
+        out.writeByte(dictionary.size());
+        for (String value : dictionary) {
+            out.writeUTF(value);
+        }
+        for (ArchivedPayment row : rows) {
+            String value = column.apply(row);
+            out.writeByte(value == null ? NULL_CODE : dictionary.indexOf(value));
+        }
+    }
+
+    private static String[] readDictionary(DataInputStream in, int count) throws IOException {
+        String[] dictionary = new String[in.readUnsignedByte()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int code = in.readUnsignedByte();
+            values[i] = code == NULL_CODE ? null : dictionary[code];
+        }
+        return values;
+    }
+
+    private static long[] readLongs(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.paymentservice.service.archive;
+
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves terminal payments (SUCCESS, FAILED, CANCELLED) older than
+ * {@code payment.archive.retention} out of the database into
+ * {@link PaymentArchive} files.
+ *
+ * Each batch is selected, written and fsynced, then deleted in one
+ * transaction: a crash before the commit leaves the rows in place and at
+ * worst an extra file holding copies of them, never a payment in neither.
+ *
+ * With partitioning enabled, a month wholly before the cutoff is retired as a
+ * whole instead: its terminal rows are written to files page by page without
+ * deleting them, then one short transaction detaches the partition, archives
+ * the rows that turned terminal meanwhile and moves the ones still in progress
+ * to the default partition. Their details and idempotency keys go with
+ * set-based deletes and the detached table is dropped. Row-by-row deletes are
+ * left for the month the cutoff falls in.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "payment.archive.enabled", havingValue = "true")
+public class PaymentArchiver {
+
+    // Anything else stays in the database, in the default partition once its month is retired
+    static final String TERMINAL_STATUSES = "('SUCCESS', 'FAILED', 'CANCELLED')";
+
+    // The oldest first, locked so a late status update cannot slip in between the file and the delete
+    private static final String SELECT_EXPIRED_SQL = """
+            SELECT id, status, payment_type, amount, currency, idempotency_key, created_at, updated_at
+            FROM payment
+            WHERE status IN ('SUCCESS', 'FAILED', 'CANCELLED') AND created_at < ?
+            ORDER BY created_at, id
+            LIMIT ?
+            FOR UPDATE
+            """;
+
+    private static final RowMapper<ArchivedPayment> ROW = (rs, rowNum) -> {
+        String paymentType = rs.getString("payment_type");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new ArchivedPayment(
+                rs.getObject("id", UUID.class),
+                PaymentStatus.valueOf(rs.getString("status")),
+                paymentType != null ? PaymentType.valueOf(paymentType) : null,
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("idempotency_key"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    };
+
+    // Margin for app clocks behind this one when catching rows updated during a retirement
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+    private static final String DETACH_LOCK_TIMEOUT = "5s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentArchive paymentArchive;
+    private final ObjectProvider<PaymentPartitionManager> partitionManager;
+    private final Duration retention;
+    private final int batchSize;
+    private final Counter archivedCounter;
+
+    public PaymentArchiver(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           PaymentArchive paymentArchive,
+                           ObjectProvider<PaymentPartitionManager> partitionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${payment.archive.retention:P90D}") Duration retention,
+                           @Value("${payment.archive.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.paymentArchive = paymentArchive;
+        this.partitionManager = partitionManager;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.archivedCounter = Counter.builder("payment.archive.archived")
+                .description("Terminal payments moved from the database to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.archive.interval-ms:3600000}",
+            initialDelayString = "${payment.archive.initial-delay-ms:60000}")
+    public void archiveExpired() {
+        archiveBefore(LocalDateTime.now().minus(retention));
+    }
+
+    /**
+     * Archives every terminal payment created before {@code cutoff}, one batch
+     * per transaction, and returns how many were moved.
+     */
+    public int archiveBefore(LocalDateTime cutoff) {
+        int total = 0;
+        PaymentPartitionManager manager = partitionManager.getIfAvailable();
+        if (manager != null) {
+            for (PaymentPartitionManager.MonthPartition partition : manager.partitionsBefore(cutoff)) {
+                try {
+                    total += retire(partition);
+                } catch (DataAccessException e) {
+                    // Typically the detach lock timed out behind a long query; the next run retries
+                    log.warn("Could not retire payment partition {}, retrying next run", partition.name(), e);
+                }
+            }
+        }
+
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += archived;
+        } while (archived == batchSize);
+
+        if (total > 0) {
+            log.info("Archived {} payment(s) created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    /**
+     * Archives a month's terminal payments and drops its partition; returns how many were archived.
+     */
+    private int retire(PaymentPartitionManager.MonthPartition partition) {
+        String name = partition.name();
+        int archived = 0;
+        if (partition.attached()) {
+            // Rows updated from here on are picked up again after the detach
+            LocalDateTime changedSince = LocalDateTime.now().minus(CLOCK_SKEW);
+            archived += archivePages(partition, null);
+            archived += transactionTemplate.execute(status -> {
+                // DETACH locks the whole payment table until commit: give up rather than queue traffic behind it
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + DETACH_LOCK_TIMEOUT + "'");
+                jdbcTemplate.execute(PaymentPartitionManager.detachPartitionSql(name));
+                int late = archivePages(partition, changedSince);
+                int moved = jdbcTemplate.update(PaymentPartitionManager.moveLiveRowsSql(name));
+                log.info("Detached payment partition {}, {} payment(s) still in progress moved out", name, moved);
+                return late;
+            });
+        }
+        // Nothing writes to a detached table, so these need no lock on payment
+        jdbcTemplate.update(PaymentPartitionManager.deleteArchivedDetailsSql("card_payment_details", name));
+        jdbcTemplate.update(PaymentPartitionManager.deleteArchivedDetailsSql("bank_payment_details", name));
+        jdbcTemplate.update(PaymentPartitionManager.deleteArchivedIdempotencyKeysSql(name));
+        jdbcTemplate.execute(PaymentPartitionManager.dropPartitionSql(name));
+        log.info("Dropped payment partition {} after archiving {} payment(s)", name, archived);
+        return archived;
+    }
+
+    // Keyset pages of the partition's terminal rows, each written and fsynced; nothing is deleted
+    private int archivePages(PaymentPartitionManager.MonthPartition partition, LocalDateTime changedSince) {
+        String sql = PaymentPartitionManager.selectTerminalPageSql(partition.name(), changedSince != null);
+        LocalDateTime afterCreatedAt = PaymentPartitionManager.start(partition.month()).minusSeconds(1);
+        UUID afterId = new UUID(0, 0);
+        int archived = 0;
+        List<ArchivedPayment> page;
+        do {
+            Object[] args = changedSince != null
+                    ? new Object[]{afterCreatedAt, afterId, changedSince, batchSize}
+                    : new Object[]{afterCreatedAt, afterId, batchSize};
+            page = jdbcTemplate.query(sql, ROW, args);
+            if (page.isEmpty()) {
+                break;
+            }
+            paymentArchive.write(page);
+            archivedCounter.increment(page.size());
+            archived += page.size();
+            ArchivedPayment last = page.getLast();
+            afterCreatedAt = last.createdAt();
+            afterId = last.id();
+        } while (page.size() == batchSize);
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<ArchivedPayment> batch = jdbcTemplate.query(SELECT_EXPIRED_SQL, ROW, cutoff, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // Durable before the rows go
+        paymentArchive.write(batch);
+
+        List<Object[]> ids = batch.stream().map(payment -> new Object[]{payment.id()}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM card_payment_details WHERE payment_id = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM bank_payment_details WHERE payment_id = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM payment WHERE id = ?", ids);
+        // Frees the key as deleting an unpartitioned payment row did; empty unless partitioned
+        jdbcTemplate.batchUpdate("DELETE FROM payment_idempotency_key WHERE idempotency_key = ? AND payment_id = ?",
+                batch.stream().map(payment -> new Object[]{payment.idempotencyKey(), payment.id()}).toList());
+        archivedCounter.increment(batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.paymentservice.service.archive;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Monthly partitions of the payment table (PostgreSQL, after
+ * {@code db/postgres/021_payment_partitioning.sql}).
+ *
+ * Partitions for the current month and {@code payment.partitioning.months-ahead}
+ * more are created at startup and daily, so inserts never fall through to the
+ * default partition. {@link PaymentArchiver} retires the months wholly before
+ * the archive cutoff with the SQL built here: it archives their terminal rows
+ * without deleting them, detaches the partition, moves the rows still in
+ * progress to the default partition and drops the table. A whole month goes
+ * with a catalog change instead of row-by-row deletes and vacuum.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.partitioning.enabled", havingValue = "true")
+public class PaymentPartitionManager {
+
+    static final String PREFIX = "payment_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Attached partitions, and monthly tables a retirement detached but did not get to drop
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname, i.inhrelid IS NOT NULL AS attached
+            FROM pg_class c
+            LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = 'payment'::regclass
+            WHERE c.relkind = 'r' AND c.relname LIKE 'payment\\_p%' AND pg_table_is_visible(c.oid)
+            """;
+
+    /**
+     * A monthly payment table; {@code attached} is false once a retirement has
+     * detached it (its rows are archived or moved, only the drop is left).
+     */
+    record MonthPartition(String name, YearMonth month, boolean attached) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public PaymentPartitionManager(JdbcTemplate jdbcTemplate,
+                                   @Value("${payment.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${payment.partitioning.cron:0 0 1 * * *}")
+    public void createFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute(createPartitionSql(month));
+            jdbcTemplate.execute(idempotencyKeyIndexSql(month));
+        }
+    }
+
+    /**
+     * The monthly partitions whose whole month is before {@code cutoff}, oldest first.
+     */
+    public List<MonthPartition> partitionsBefore(LocalDateTime cutoff) {
+        List<MonthPartition> partitions = new ArrayList<>();
+        jdbcTemplate.query(PARTITIONS_SQL, rs -> {
+            String name = rs.getString("relname");
+            Optional<YearMonth> month = monthOf(name);
+            if (month.isPresent() && !end(month.get()).isAfter(cutoff)) {
+                partitions.add(new MonthPartition(name, month.get(), rs.getBoolean("attached")));
+            }
+        });
+        partitions.sort(Comparator.comparing(MonthPartition::month));
+        return partitions;
+    }
+
+    static String partitionName(YearMonth month) {
+        return PREFIX + SUFFIX.format(month);
+    }
+
+    static Optional<YearMonth> monthOf(String partitionName) {
+        if (!partitionName.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partitionName.substring(PREFIX.length()), SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    static String createPartitionSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF payment"
+                + " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00') TO ('" + month.plusMonths(1).atDay(1)
+                + " 00:00:00')";
+    }
+
+    // A partitioned table's unique keys must include created_at, so this one is per month;
+    // payment_idempotency_key keeps the key unique across months
+    static String idempotencyKeyIndexSql(YearMonth month) {
+        String partition = partitionName(month);
+        return "CREATE UNIQUE INDEX IF NOT EXISTS " + partition + "_idempotency_key ON " + partition
+                + " (idempotency_key)";
+    }
+
+    // Keyset page over one partition, as PaymentArchiver's batches; changedOnly adds "updated_at >= ?"
+    static String selectTerminalPageSql(String partition, boolean changedOnly) {
+        return "SELECT id, status, payment_type, amount, currency, idempotency_key, created_at, updated_at"
+                + " FROM " + partition
+                + " WHERE status IN " + PaymentArchiver.TERMINAL_STATUSES + " AND (created_at, id) > (?, ?)"
+                + (changedOnly ? " AND updated_at >= ?" : "")
+                + " ORDER BY created_at, id LIMIT ?";
+    }
+
+    static String detachPartitionSql(String partition) {
+        return "ALTER TABLE payment DETACH PARTITION " + partition;
+    }
+
+    // After the detach no range covers the month, so the rows land in the default partition
+    static String moveLiveRowsSql(String partition) {
+        return "INSERT INTO payment SELECT * FROM " + partition
+                + " WHERE status NOT IN " + PaymentArchiver.TERMINAL_STATUSES;
+    }
+
+    // Rows moved out keep their details and key
+    static String deleteArchivedDetailsSql(String detailsTable, String partition) {
+        return "DELETE FROM " + detailsTable + " d USING " + partition + " p"
+                + " WHERE d.payment_id = p.id AND p.status IN " + PaymentArchiver.TERMINAL_STATUSES;
+    }
+
+    static String deleteArchivedIdempotencyKeysSql(String partition) {
+        return "DELETE FROM payment_idempotency_key k USING " + partition + " p"
+                + " WHERE k.idempotency_key = p.idempotency_key AND k.payment_id = p.id"
+                + " AND p.status IN " + PaymentArchiver.TERMINAL_STATUSES;
+    }
+
+    static String dropPartitionSql(String partition) {
+        return "DROP TABLE " + partition;
+    }
+
+    static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private static LocalDateTime end(YearMonth month) {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+}
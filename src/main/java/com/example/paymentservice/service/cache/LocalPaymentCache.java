@@ -0,0 +1,65 @@
+package com.example.paymentservice.service.cache;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Per-instance cache: a size-bounded Caffeine (W-TinyLFU) map.
+ *
+ * PENDING payments are about to change, so they live for {@code pendingTtl}
+ * only; other statuses for {@code ttl}. Hits, misses, evictions and size are
+ * published as {@code cache.*} meters tagged {@code cache=payments}.
+ */
+public class LocalPaymentCache implements PaymentCache {
+
+    static final String CACHE_NAME = "payments";
+
+    private final Cache<UUID, PaymentResponse> cache;
+
+    public LocalPaymentCache(MeterRegistry registry, long maxSize, Duration ttl, Duration pendingTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.writing((UUID id, PaymentResponse payment) -> ttlFor(payment, ttl, pendingTtl)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    static Duration ttlFor(PaymentResponse payment, Duration ttl, Duration pendingTtl) {
+        return PaymentStatus.PENDING.name().equals(payment.getStatus()) ? pendingTtl : ttl;
+    }
+
+    @Override
+    public PaymentResponse get(UUID id, Function<UUID, PaymentResponse> loader) {
+        // Caffeine runs one loader per key; concurrent callers wait for its result
+        return cache.get(id, loader);
+    }
+
+    @Override
+    public void evict(UUID id) {
+        AfterCommit.run(() -> cache.invalidate(id));
+    }
+
+    @Override
+    public void evictAll(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            AfterCommit.run(() -> cache.invalidateAll(ids));
+        }
+    }
+
+    // For RedisPaymentCache: drop entries without deferring, e.g. on a remote invalidation
+    void invalidateNow(Collection<UUID> ids) {
+        cache.invalidateAll(ids);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.paymentservice.service.cache;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for single payment lookups.
+ *
+ * Every status change must evict the payment. Evictions issued inside a
+ * transaction take effect after it commits, so a concurrent read cannot
+ * put the old status back.
+ */
+public interface PaymentCache {
+
+    /**
+     * The cached payment, or the result of {@code loader}. Concurrent calls
+     * for the same ID on one instance share a single load. Loader exceptions
+     * propagate and nothing is cached.
+     */
+    PaymentResponse get(UUID id, Function<UUID, PaymentResponse> loader);
+
+    void evict(UUID id);
+
+    void evictAll(Collection<UUID> ids);
+}
@@ -0,0 +1,140 @@
+package com.example.paymentservice.service.cache;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Two-level cache for multi-instance deployments: the local Caffeine cache
+ * in front of JSON entries shared in Redis.
+ *
+ * A local miss reads Redis, and only a Redis miss reaches the loader; the
+ * local cache makes concurrent misses for one ID on an instance share that
+ * path. Evictions delete the Redis entries and publish the IDs on
+ * {@value #INVALIDATION_CHANNEL}, where every instance (this one included)
+ * drops them from its local cache. Redis being unavailable degrades to
+ * database reads, never to errors.
+ */
+@Slf4j
+public class RedisPaymentCache implements PaymentCache {
+
+    public static final String INVALIDATION_CHANNEL = "payment:cache:invalidate";
+
+    private static final String KEY_PREFIX = "payment:cache:";
+
+    private final LocalPaymentCache local;
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteErrors;
+    private final Counter remoteInvalidations;
+
+    public RedisPaymentCache(LocalPaymentCache local, StringRedisTemplate redisTemplate, JsonMapper jsonMapper,
+                             MeterRegistry registry, Duration ttl, Duration pendingTtl) {
+        this.local = local;
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+        this.remoteHits = remoteCounter(registry, "hit");
+        this.remoteMisses = remoteCounter(registry, "miss");
+        this.remoteErrors = remoteCounter(registry, "error");
+        this.remoteInvalidations = Counter.builder("payment.cache.invalidations.received")
+                .description("Payment IDs dropped from the local cache on a published invalidation")
+                .register(registry);
+    }
+
+    private static Counter remoteCounter(MeterRegistry registry, String result) {
+        return Counter.builder("payment.cache.redis")
+                .description("Lookups in the shared Redis level after a local miss")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public PaymentResponse get(UUID id, Function<UUID, PaymentResponse> loader) {
+        return local.get(id, key -> readThrough(key, loader));
+    }
+
+    private PaymentResponse readThrough(UUID id, Function<UUID, PaymentResponse> loader) {
+        String redisKey = KEY_PREFIX + id;
+        try {
+            String json = redisTemplate.opsForValue().get(redisKey);
+            if (json != null) {
+                remoteHits.increment();
+                return jsonMapper.readValue(json, PaymentResponse.class);
+            }
+            remoteMisses.increment();
+        } catch (DataAccessException e) {
+            remoteErrors.increment();
+            log.warn("Payment cache read failed for id={}, loading from the database", id, e);
+            return loader.apply(id);
+        }
+
+        PaymentResponse loaded = loader.apply(id);
+        try {
+            redisTemplate.opsForValue().set(redisKey, jsonMapper.writeValueAsString(loaded),
+                    LocalPaymentCache.ttlFor(loaded, ttl, pendingTtl));
+        } catch (DataAccessException e) {
+            remoteErrors.increment();
+            log.warn("Payment cache write failed for id={}", id, e);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void evict(UUID id) {
+        evictAll(List.of(id));
+    }
+
+    @Override
+    public void evictAll(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<UUID> evicted = List.copyOf(ids);
+        AfterCommit.run(() -> {
+            local.invalidateNow(evicted);
+            try {
+                redisTemplate.delete(evicted.stream().map(id -> KEY_PREFIX + id).toList());
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                        evicted.stream().map(UUID::toString).collect(Collectors.joining(",")));
+            } catch (DataAccessException e) {
+                // Entries still expire on their own: PENDING ones after pending-ttl
+                remoteErrors.increment();
+                log.warn("Payment cache invalidation failed for {} id(s)", evicted.size(), e);
+            }
+        });
+    }
+
+    /**
+     * Handles a message from {@value #INVALIDATION_CHANNEL}: comma-separated payment IDs.
+     */
+    public void onInvalidation(String message) {
+        List<UUID> ids = new ArrayList<>();
+        for (String id : message.split(",")) {
+            if (!id.isBlank()) {
+                ids.add(UUID.fromString(id.trim()));
+            }
+        }
+        local.invalidateNow(ids);
+        remoteInvalidations.increment(ids.size());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.paymentservice.service.fraud;
+
+
+import java.util.List;
+
+/**
+ * Outcome of one fraud evaluation.
+ *
+ * @param fraud        true if at least one BLOCK rule fired
+ * @param firedRuleIds every rule that fired, BLOCK and MONITOR, in plan order
+ */
+public record FraudDecision(boolean fraud, List<String> firedRuleIds) {
+
+    public static final FraudDecision CLEAN = new FraudDecision(false, List.of());
+}
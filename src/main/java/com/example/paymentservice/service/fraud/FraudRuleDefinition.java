@@ -0,0 +1,55 @@
+package com.example.paymentservice.service.fraud;
+
+
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One rule as written in the rules file, before compilation.
+ *
+ * @param currency    only evaluate for this currency; null = any
+ * @param paymentType only evaluate for this payment type; null = any
+ * @param min         inclusive lower bound ({@link Kind#AMOUNT_BAND})
+ * @param max         exclusive upper bound for bands, the limit for {@link Kind#AMOUNT_LIMIT}
+ *                    and {@link Kind#VELOCITY_SUM}
+ * @param values      BINs or BSBs for the blocklist kinds
+ * @param window      1m, 1h or 24h for the velocity kinds
+ * @param maxCount    the limit for {@link Kind#VELOCITY_COUNT}
+ */
+public record FraudRuleDefinition(
+        String id,
+        Kind kind,
+        Action action,
+        String currency,
+        PaymentType paymentType,
+        BigDecimal min,
+        BigDecimal max,
+        List<String> values,
+        Duration window,
+        Integer maxCount) {
+
+    public enum Kind {
+        // amount > max
+        AMOUNT_LIMIT,
+        // min <= amount < max, either bound optional
+        AMOUNT_BAND,
+        // card BIN is listed
+        CARD_BIN_BLOCKLIST,
+        // BSB is listed
+        BSB_BLOCKLIST,
+        // more than maxCount payments from the same card/account within window
+        VELOCITY_COUNT,
+        // payments from the same card/account add up to more than max within window
+        VELOCITY_SUM
+    }
+
+    public enum Action {
+        // Firing marks the payment as fraud
+        BLOCK,
+        // Firing is only recorded, e.g. while trialling a new rule
+        MONITOR
+    }
+}
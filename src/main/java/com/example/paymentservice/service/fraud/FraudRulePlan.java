@@ -0,0 +1,241 @@
+package com.example.paymentservice.service.fraud;
+
+
+import com.example.paymentservice.entity.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled form of the fraud rules.
+ *
+ * Rules are validated once and indexed by currency, so an evaluation only
+ * visits the rules that can apply to the payment and does nothing but array
+ * walks, {@code compareTo} and hash lookups. A clean payment allocates nothing;
+ * only a decision with fired rules builds its ID list. A plan is never changed
+ * after compilation, so it can be shared by all consumer threads and replaced
+ * as a whole on reload.
+ */
+public final class FraudRulePlan {
+
+    static final String DEFAULT_RULE_ID = "amount-over-15000";
+
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private final Rule[] anyCurrencyRules;
+    private final Map<String, Rule[]> rulesByCurrency;
+    private final int size;
+
+    private FraudRulePlan(Rule[] anyCurrencyRules, Map<String, Rule[]> rulesByCurrency, int size) {
+        this.anyCurrencyRules = anyCurrencyRules;
+        this.rulesByCurrency = rulesByCurrency;
+        this.size = size;
+    }
+
+    /**
+     * The historical behaviour: any payment above 15,000 is fraud, whatever its currency.
+     */
+    public static FraudRulePlan defaultPlan() {
+        return compile(List.of(new FraudRuleDefinition(DEFAULT_RULE_ID, FraudRuleDefinition.Kind.AMOUNT_LIMIT,
+                null, null, null, null, BigDecimal.valueOf(15000), null, null, null)));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a rule is incomplete or two rules share an ID
+     */
+    public static FraudRulePlan compile(List<FraudRuleDefinition> definitions) {
+        List<Rule> anyCurrency = new ArrayList<>();
+        Map<String, List<Rule>> byCurrency = new LinkedHashMap<>();
+        Set<String> ids = new HashSet<>();
+
+        for (FraudRuleDefinition definition : definitions) {
+            Rule rule = compileRule(definition);
+            if (!ids.add(rule.id)) {
+                throw new IllegalArgumentException("Duplicate fraud rule id: " + rule.id);
+            }
+            if (definition.currency() == null) {
+                anyCurrency.add(rule);
+            } else {
+                byCurrency.computeIfAbsent(definition.currency().toUpperCase(Locale.ROOT), c -> new ArrayList<>())
+                        .add(rule);
+            }
+        }
+
+        Map<String, Rule[]> index = new HashMap<>();
+        byCurrency.forEach((currency, rules) -> index.put(currency, rules.toArray(NO_RULES)));
+        return new FraudRulePlan(anyCurrency.toArray(NO_RULES), Map.copyOf(index), ids.size());
+    }
+
+    private static Rule compileRule(FraudRuleDefinition definition) {
+        String id = definition.id();
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Fraud rule without id");
+        }
+        if (definition.kind() == null) {
+            throw new IllegalArgumentException("Fraud rule " + id + " has no kind");
+        }
+        boolean blocking = definition.action() != FraudRuleDefinition.Action.MONITOR;
+
+        return switch (definition.kind()) {
+            case AMOUNT_LIMIT -> {
+                if (definition.max() == null) {
+                    throw new IllegalArgumentException("Fraud rule " + id + " needs max");
+                }
+                yield new Rule(id, blocking, definition.kind(), definition.paymentType(),
+                        definition.max(), null, null, null, 0);
+            }
+            case AMOUNT_BAND -> {
+                if (definition.min() == null && definition.max() == null) {
+                    throw new IllegalArgumentException("Fraud rule " + id + " needs min and/or max");
+                }
+                yield new Rule(id, blocking, definition.kind(), definition.paymentType(),
+                        definition.min(), definition.max(), null, null, 0);
+            }
+            case CARD_BIN_BLOCKLIST, BSB_BLOCKLIST -> {
+                if (definition.values() == null || definition.values().isEmpty()) {
+                    throw new IllegalArgumentException("Fraud rule " + id + " needs values");
+                }
+                Set<String> values = new HashSet<>();
+                for (String value : definition.values()) {
+                    values.add(normalise(value));
+                }
+                yield new Rule(id, blocking, definition.kind(), definition.paymentType(),
+                        null, null, Set.copyOf(values), null, 0);
+            }
+            case VELOCITY_COUNT -> {
+                if (definition.maxCount() == null || definition.maxCount() < 0) {
+                    throw new IllegalArgumentException("Fraud rule " + id + " needs max-count");
+                }
+                yield new Rule(id, blocking, definition.kind(), definition.paymentType(),
+                        null, null, null, window(definition), definition.maxCount());
+            }
+            case VELOCITY_SUM -> {
+                if (definition.max() == null) {
+                    throw new IllegalArgumentException("Fraud rule " + id + " needs max");
+                }
+                yield new Rule(id, blocking, definition.kind(), definition.paymentType(),
+                        definition.max(), null, null, window(definition), 0);
+            }
+        };
+    }
+
+    private static VelocityWindow window(FraudRuleDefinition definition) {
+        Duration window = definition.window();
+        if (window == null) {
+            throw new IllegalArgumentException("Fraud rule " + definition.id() + " needs window");
+        }
+        try {
+            return VelocityWindow.of(window);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Fraud rule " + definition.id() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // "062-000" and "062000" are the same BSB
+    private static String normalise(String value) {
+        return value.replace("-", "").replace(" ", "").trim();
+    }
+
+    /**
+     * Evaluates every rule that applies to the payment's currency; velocity rules are skipped.
+     *
+     * @param instrumentPrefix card BIN or BSB; null skips the blocklists
+     */
+    public FraudDecision evaluate(BigDecimal amount, String currency, PaymentType paymentType,
+                                  String instrumentPrefix) {
+        return evaluate(amount, currency, paymentType, instrumentPrefix, null);
+    }
+
+    /**
+     * @param velocity recent payments of the same instrument, including this one; null skips the velocity rules
+     */
+    public FraudDecision evaluate(BigDecimal amount, String currency, PaymentType paymentType,
+                                  String instrumentPrefix, VelocityStats velocity) {
+        Rule[] currencyRules = currency == null
+                ? NO_RULES
+                : rulesByCurrency.getOrDefault(currency.toUpperCase(Locale.ROOT), NO_RULES);
+
+        List<String> fired = null;
+        boolean fraud = false;
+        for (Rule rule : anyCurrencyRules) {
+            if (rule.fires(amount, paymentType, instrumentPrefix, velocity)) {
+                fired = add(fired, rule.id);
+                fraud |= rule.blocking;
+            }
+        }
+        for (Rule rule : currencyRules) {
+            if (rule.fires(amount, paymentType, instrumentPrefix, velocity)) {
+                fired = add(fired, rule.id);
+                fraud |= rule.blocking;
+            }
+        }
+        return fired == null ? FraudDecision.CLEAN : new FraudDecision(fraud, List.copyOf(fired));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static List<String> add(List<String> fired, String id) {
+        List<String> list = fired == null ? new ArrayList<>(2) : fired;
+        list.add(id);
+        return list;
+    }
+
+    private static final class Rule {
+
+        private final String id;
+        private final boolean blocking;
+        private final FraudRuleDefinition.Kind kind;
+        private final PaymentType paymentType;
+        private final BigDecimal lower;
+        private final BigDecimal upper;
+        private final Set<String> values;
+        private final VelocityWindow window;
+        private final int maxCount;
+        private final long maxSum;
+
+        private Rule(String id, boolean blocking, FraudRuleDefinition.Kind kind, PaymentType paymentType,
+                     BigDecimal lower, BigDecimal upper, Set<String> values, VelocityWindow window, int maxCount) {
+            this.id = id;
+            this.blocking = blocking;
+            this.kind = kind;
+            this.paymentType = paymentType;
+            this.lower = lower;
+            this.upper = upper;
+            this.values = values;
+            this.window = window;
+            this.maxCount = maxCount;
+            // In minor units like the sums; rounding down keeps "sum > max" exact for sub-cent limits
+            this.maxSum = lower == null ? 0
+                    : lower.setScale(VelocityStats.MINOR_UNIT_SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        }
+
+        boolean fires(BigDecimal amount, PaymentType type, String instrumentPrefix, VelocityStats velocity) {
+            if (paymentType != null && paymentType != type) {
+                return false;
+            }
+            return switch (kind) {
+                case AMOUNT_LIMIT -> amount != null && amount.compareTo(lower) > 0;
+                case AMOUNT_BAND -> amount != null
+                        && (lower == null || amount.compareTo(lower) >= 0)
+                        && (upper == null || amount.compareTo(upper) < 0);
+                case CARD_BIN_BLOCKLIST -> type == PaymentType.CARD
+                        && instrumentPrefix != null && values.contains(instrumentPrefix);
+                case BSB_BLOCKLIST -> type == PaymentType.BANK
+                        && instrumentPrefix != null && values.contains(instrumentPrefix);
+                case VELOCITY_COUNT -> velocity != null && velocity.count(window) > maxCount;
+                case VELOCITY_SUM -> velocity != null && velocity.sum(window) > maxSum;
+            };
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.paymentservice.service.fraud;
+
+
+import com.example.paymentservice.service.FraudService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Loads the fraud rules file ({@code payment.fraud.rules-location}) into
+ * {@link FraudService} and reloads it whenever its modification time changes.
+ *
+ * The new file is compiled off to the side and swapped in as a whole, so
+ * consumers keep evaluating the old plan until the new one is ready. A broken
+ * file fails startup, but on reload it is logged and the current rules stay.
+ */
+@Component
+@Slf4j
+public class FraudRuleReloader {
+
+    private final FraudService fraudService;
+    private final Resource rulesFile;
+    private long loadedModified;
+
+    public FraudRuleReloader(FraudService fraudService,
+                             ResourceLoader resourceLoader,
+                             @Value("${payment.fraud.rules-location:classpath:fraud-rules.yaml}") String location) {
+        this.fraudService = fraudService;
+        this.rulesFile = resourceLoader.getResource(location);
+    }
+
+    @PostConstruct
+    void loadInitialRules() {
+        loadedModified = lastModified();
+        fraudService.updateRules(load(rulesFile));
+    }
+
+    @Scheduled(fixedDelayString = "${payment.fraud.reload-interval-ms:5000}",
+            initialDelayString = "${payment.fraud.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified == loadedModified) {
+            return;
+        }
+        // Remember the attempt either way, so a broken file is reported once, not every poll
+        loadedModified = modified;
+        try {
+            fraudService.updateRules(load(rulesFile));
+        } catch (RuntimeException ex) {
+            log.error("Fraud rules in {} are invalid, keeping the current rules: {}", rulesFile, ex.getMessage());
+        }
+    }
+
+    static FraudRulePlan load(Resource resource) {
+        List<PropertySource<?>> sources;
+        try {
+            sources = new YamlPropertySourceLoader().load("fraud-rules", resource);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read fraud rules from " + resource, ex);
+        }
+        List<FraudRuleDefinition> definitions = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("rules", Bindable.listOf(FraudRuleDefinition.class))
+                .orElse(List.of());
+        return FraudRulePlan.compile(definitions);
+    }
+
+    private long lastModified() {
+        try {
+            return rulesFile.lastModified();
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+}
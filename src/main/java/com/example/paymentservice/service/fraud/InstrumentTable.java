@@ -0,0 +1,155 @@
+package com.example.paymentservice.service.fraud;
+
+
+/**
+ * Velocity counters of one lock stripe, keyed by the instrument's 64-bit hash.
+ *
+ * Open addressing with linear probing over a primitive {@code long[]}, so a
+ * lookup neither boxes the key nor allocates an entry; only a newly seen
+ * instrument allocates its {@link VelocityCounters}. Recency is an intrusive
+ * doubly linked list through the counters themselves, eldest first, which
+ * keeps the table at {@code maxSize} entries by dropping the least recently
+ * seen instrument. Not thread-safe; {@link VelocityTracker} guards it with the
+ * stripe lock.
+ */
+final class InstrumentTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final int maxSize;
+    private long[] keys;
+    private VelocityCounters[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private VelocityCounters eldest;
+    private VelocityCounters newest;
+
+    InstrumentTable(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * The instrument's counters, created when it is new, marked as most recently seen.
+     */
+    VelocityCounters touch(long key) {
+        int slot = index(key);
+        for (VelocityCounters counters; (counters = values[slot]) != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                moveToNewest(counters);
+                return counters;
+            }
+        }
+        VelocityCounters counters = new VelocityCounters(key);
+        keys[slot] = key;
+        values[slot] = counters;
+        size++;
+        linkNewest(counters);
+        if (size > maxSize) {
+            remove(eldest);
+        } else if (size * 2 > keys.length) {
+            allocate(keys.length * 2);
+        }
+        return counters;
+    }
+
+    // Lookup that leaves the recency order alone
+    VelocityCounters find(long key) {
+        int slot = index(key);
+        for (VelocityCounters counters; (counters = values[slot]) != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return counters;
+            }
+        }
+        return null;
+    }
+
+    VelocityCounters eldest() {
+        return eldest;
+    }
+
+    void remove(VelocityCounters counters) {
+        int gap = index(counters.key);
+        while (values[gap] != counters) {
+            gap = (gap + 1) & mask;
+        }
+        unlink(counters);
+        size--;
+
+        // Backward-shift deletion: pull later entries of the probe chain into the gap, no tombstones
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = index(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Fibonacci hashing takes the high bits; the stripe was already chosen from the low ones
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        VelocityCounters[] oldValues = values;
+        keys = new long[capacity];
+        values = new VelocityCounters[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        if (oldValues == null) {
+            return;
+        }
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = index(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void moveToNewest(VelocityCounters counters) {
+        if (counters != newest) {
+            unlink(counters);
+            linkNewest(counters);
+        }
+    }
+
+    private void linkNewest(VelocityCounters counters) {
+        counters.older = newest;
+        counters.newer = null;
+        if (newest == null) {
+            eldest = counters;
+        } else {
+            newest.newer = counters;
+        }
+        newest = counters;
+    }
+
+    private void unlink(VelocityCounters counters) {
+        if (counters.older == null) {
+            eldest = counters.newer;
+        } else {
+            counters.older.newer = counters.newer;
+        }
+        if (counters.newer == null) {
+            newest = counters.older;
+        } else {
+            counters.newer.older = counters.older;
+        }
+        counters.older = null;
+        counters.newer = null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.paymentservice.service.fraud;
+
+
+/**
+ * Bucketed counts and sums (in minor units) of one instrument for every {@link VelocityWindow}.
+ * Not thread-safe; {@link VelocityTracker} guards it with the stripe lock.
+ */
+final class VelocityCounters {
+
+    final long key;
+    // Recency links, maintained by InstrumentTable
+    VelocityCounters older;
+    VelocityCounters newer;
+
+    private final int[] counts = new int[VelocityWindow.TOTAL_BUCKETS];
+    private final long[] sums = new long[VelocityWindow.TOTAL_BUCKETS];
+    // Absolute number (epoch millis / bucket width) of the newest bucket, per window
+    private final long[] heads = new long[VelocityWindow.values().length];
+    private long lastSeenMillis;
+
+    VelocityCounters(long key) {
+        this.key = key;
+    }
+
+    VelocityStats add(long nowMillis, long amount) {
+        for (VelocityWindow window : VelocityWindow.values()) {
+            int slot = window.offset + advance(window, nowMillis);
+            counts[slot]++;
+            sums[slot] += amount;
+        }
+        lastSeenMillis = nowMillis;
+        return new VelocityStats(
+                count(VelocityWindow.ONE_MINUTE), sum(VelocityWindow.ONE_MINUTE),
+                count(VelocityWindow.ONE_HOUR), sum(VelocityWindow.ONE_HOUR),
+                count(VelocityWindow.ONE_DAY), sum(VelocityWindow.ONE_DAY),
+                nowMillis);
+    }
+
+    // Takes back an add made at atMillis, from whichever of its buckets are still inside their window
+    void remove(long atMillis, long amount) {
+        for (VelocityWindow window : VelocityWindow.values()) {
+            long bucket = atMillis / window.bucketMillis;
+            long head = heads[window.ordinal()];
+            if (bucket <= head && bucket > head - window.buckets) {
+                int slot = window.offset + (int) (bucket % window.buckets);
+                counts[slot]--;
+                sums[slot] -= amount;
+            }
+        }
+    }
+
+    long lastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    // Moves the ring to now, zeroing buckets that slid out; returns the current bucket's index
+    private int advance(VelocityWindow window, long nowMillis) {
+        long bucket = nowMillis / window.bucketMillis;
+        long head = heads[window.ordinal()];
+        if (bucket > head) {
+            long stale = Math.min(bucket - head, window.buckets);
+            for (long b = bucket - stale + 1; b <= bucket; b++) {
+                int slot = window.offset + (int) (b % window.buckets);
+                counts[slot] = 0;
+                sums[slot] = 0;
+            }
+            heads[window.ordinal()] = bucket;
+        }
+        // Clock steps backwards land in the current bucket
+        return (int) (heads[window.ordinal()] % window.buckets);
+    }
+
+    private int count(VelocityWindow window) {
+        int total = 0;
+        for (int i = window.offset; i < window.offset + window.buckets; i++) {
+            total += counts[i];
+        }
+        return total;
+    }
+
+    private long sum(VelocityWindow window) {
+        long total = 0;
+        for (int i = window.offset; i < window.offset + window.buckets; i++) {
+            total += sums[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.paymentservice.service.fraud;
+
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Payments seen for one instrument, including the one being checked.
+ * Sums add up amounts as given, whatever their currency, in minor units
+ * (hundredths, see {@link #toMinorUnits}) so they compare exactly against
+ * the rule limits.
+ *
+ * @param recordedAtMillis when the checked payment was added, so {@link VelocityTracker#undo} can take it out again
+ */
+public record VelocityStats(
+        int minuteCount, long minuteSum,
+        int hourCount, long hourSum,
+        int dayCount, long daySum,
+        long recordedAtMillis) {
+
+    static final int MINOR_UNIT_SCALE = 2;
+
+    public int count(VelocityWindow window) {
+        return switch (window) {
+            case ONE_MINUTE -> minuteCount;
+            case ONE_HOUR -> hourCount;
+            case ONE_DAY -> dayCount;
+        };
+    }
+
+    public long sum(VelocityWindow window) {
+        return switch (window) {
+            case ONE_MINUTE -> minuteSum;
+            case ONE_HOUR -> hourSum;
+            case ONE_DAY -> daySum;
+        };
+    }
+
+    /**
+     * Amount in hundredths, rounded half up; the payment columns keep two decimals.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.paymentservice.service.fraud;
+
+
+import com.example.paymentservice.config.KafkaConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-instrument payment counts and sums over the {@link VelocityWindow}s,
+ * feeding the velocity fraud rules.
+ *
+ * Payment events are keyed by instrument token, so every payment of a card or
+ * bank account arrives on the same partition and state only has to be kept for
+ * the partitions this instance consumes. State is held per partition and
+ * dropped when the partition is revoked or lost; the new owner starts with
+ * empty windows. Within a partition, instruments are spread over lock stripes
+ * by a 64-bit hash of the token, and each stripe is a primitive-keyed
+ * {@link InstrumentTable}. Each stripe keeps at most its share of
+ * {@code payment.fraud.velocity.max-keys-per-partition} instruments, dropping
+ * the least recently seen one when full, and instruments not seen for a day
+ * are evicted on a schedule.
+ */
+@Component
+@Slf4j
+public class VelocityTracker implements ConsumerAwareRebalanceListener {
+
+    static final int STRIPES = 16;
+
+    private static final long IDLE_MILLIS = VelocityWindow.ONE_DAY.length().toMillis();
+
+    private final Map<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+    private final int maxKeysPerStripe;
+    private final Clock clock;
+
+    @Autowired
+    public VelocityTracker(MeterRegistry registry,
+                           @Value("${payment.fraud.velocity.max-keys-per-partition:20000}") int maxKeysPerPartition) {
+        this(registry, maxKeysPerPartition, Clock.systemUTC());
+    }
+
+    VelocityTracker(MeterRegistry registry, int maxKeysPerPartition, Clock clock) {
+        this.maxKeysPerStripe = Math.max(1, maxKeysPerPartition / STRIPES);
+        this.clock = clock;
+        Gauge.builder("payment.fraud.velocity.keys", this, VelocityTracker::trackedKeys)
+                .description("Instruments with velocity state on this instance")
+                .register(registry);
+    }
+
+    /**
+     * Adds the payment to its instrument's windows.
+     *
+     * @return the windows including this payment, or null when the event carries no instrument token
+     */
+    public VelocityStats record(int partition, String instrumentToken, BigDecimal amount) {
+        if (instrumentToken == null || amount == null) {
+            return null;
+        }
+        long hash = hash(instrumentToken);
+        PartitionState state = partitions.computeIfAbsent(partition, p -> new PartitionState(maxKeysPerStripe));
+        return state.record(hash, clock.millis(), VelocityStats.toMinorUnits(amount));
+    }
+
+    /**
+     * Takes a payment added by {@link #record} out of its instrument's windows again,
+     * for a payment that turned out to be processed already (a redelivered event).
+     *
+     * @param recorded what {@link #record} returned for it; null is ignored
+     */
+    public void undo(int partition, String instrumentToken, BigDecimal amount, VelocityStats recorded) {
+        if (recorded == null) {
+            return;
+        }
+        PartitionState state = partitions.get(partition);
+        if (state != null) {
+            state.remove(hash(instrumentToken), recorded.recordedAtMillis(), VelocityStats.toMinorUnits(amount));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.fraud.velocity.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = clock.millis() - IDLE_MILLIS;
+        int evicted = 0;
+        for (PartitionState state : partitions.values()) {
+            evicted += state.evictIdle(idleBefore);
+        }
+        if (evicted > 0) {
+            log.debug("Evicted velocity state of {} idle instrument(s)", evicted);
+        }
+    }
+
+    public int trackedKeys() {
+        int keys = 0;
+        for (PartitionState state : partitions.values()) {
+            keys += state.size();
+        }
+        return keys;
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        drop(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        drop(partitions);
+    }
+
+    private void drop(Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            if (KafkaConfig.PAYMENT_TOPIC.equals(partition.topic())
+                    && partitions.remove(partition.partition()) != null) {
+                log.info("Dropped velocity state of {}", partition);
+            }
+        }
+    }
+
+    // 64-bit FNV-1a over the token's chars; allocation free, and collisions only merge two instruments' windows
+    static long hash(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class PartitionState {
+
+        private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        private final InstrumentTable[] stripes = new InstrumentTable[STRIPES];
+
+        PartitionState(int maxKeysPerStripe) {
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i] = new ReentrantLock();
+                stripes[i] = new InstrumentTable(maxKeysPerStripe);
+            }
+        }
+
+        VelocityStats record(long hash, long nowMillis, long amount) {
+            int stripe = stripe(hash);
+            ReentrantLock lock = locks[stripe];
+            lock.lock();
+            try {
+                return stripes[stripe].touch(hash).add(nowMillis, amount);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long hash, long atMillis, long amount) {
+            int stripe = stripe(hash);
+            ReentrantLock lock = locks[stripe];
+            lock.lock();
+            try {
+                VelocityCounters counters = stripes[stripe].find(hash);
+                if (counters != null) {
+                    counters.remove(atMillis, amount);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int evictIdle(long idleBefore) {
+            int evicted = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i].lock();
+                try {
+                    InstrumentTable table = stripes[i];
+                    VelocityCounters eldest;
+                    while ((eldest = table.eldest()) != null && eldest.lastSeenMillis() < idleBefore) {
+                        table.remove(eldest);
+                        evicted++;
+                    }
+                } finally {
+                    locks[i].unlock();
+                }
+            }
+            return evicted;
+        }
+
+        // Read without the locks: good enough for a gauge
+        int size() {
+            int size = 0;
+            for (InstrumentTable stripe : stripes) {
+                size += stripe.size();
+            }
+            return size;
+        }
+
+        private static int stripe(long hash) {
+            return (int) (hash ^ (hash >>> 32)) & (STRIPES - 1);
+        }
+    }
+}
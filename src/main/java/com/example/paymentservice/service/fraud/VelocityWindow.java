@@ -0,0 +1,55 @@
+package com.example.paymentservice.service.fraud;
+
+
+import java.time.Duration;
+
+/**
+ * Sliding windows tracked per instrument. Each window is a ring of
+ * fixed-width buckets, so it slides in bucket-sized steps: the 1m window
+ * covers the last 50-60 seconds, the 1h window the last 55-60 minutes.
+ */
+public enum VelocityWindow {
+
+    ONE_MINUTE(Duration.ofMinutes(1), 6),
+    ONE_HOUR(Duration.ofHours(1), 12),
+    ONE_DAY(Duration.ofHours(24), 24);
+
+    // Buckets of all windows, laid out back to back in one array per instrument
+    static final int TOTAL_BUCKETS;
+
+    static {
+        int total = 0;
+        for (VelocityWindow window : values()) {
+            window.offset = total;
+            total += window.buckets;
+        }
+        TOTAL_BUCKETS = total;
+    }
+
+    private final Duration length;
+    final int buckets;
+    final long bucketMillis;
+    int offset;
+
+    VelocityWindow(Duration length, int buckets) {
+        this.length = length;
+        this.buckets = buckets;
+        this.bucketMillis = length.toMillis() / buckets;
+    }
+
+    public Duration length() {
+        return length;
+    }
+
+    /**
+     * @throws IllegalArgumentException unless {@code length} is exactly 1m, 1h or 24h
+     */
+    public static VelocityWindow of(Duration length) {
+        for (VelocityWindow window : values()) {
+            if (window.length.equals(length)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Velocity window must be 1m, 1h or 24h, was " + length);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.paymentservice.service.idempotency;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+
+/**
+ * Result of trying to reserve an idempotency key.
+ *
+ * @param outcome  what the caller should do next
+ * @param response the stored response, only set for {@link Outcome#COMPLETED}
+ * @param token    identifies this caller's in-progress marker, only set for {@link Outcome#ACQUIRED}
+ */
+public record IdempotencyReservation(Outcome outcome, PaymentResponse response, String token) {
+
+    public enum Outcome {
+        // Key is now held by the caller, who must complete() or release() it
+        ACQUIRED,
+        // Another request with the same key is still running
+        IN_PROGRESS,
+        // Key was already processed; response can be replayed as is
+        COMPLETED
+    }
+
+    private static final IdempotencyReservation IN_PROGRESS_RESERVATION =
+            new IdempotencyReservation(Outcome.IN_PROGRESS, null, null);
+
+    public static IdempotencyReservation acquired(String token) {
+        return new IdempotencyReservation(Outcome.ACQUIRED, null, token);
+    }
+
+    public static IdempotencyReservation inProgress() {
+        return IN_PROGRESS_RESERVATION;
+    }
+
+    public static IdempotencyReservation completed(PaymentResponse response) {
+        return new IdempotencyReservation(Outcome.COMPLETED, response, null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.paymentservice.service.idempotency;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+
+/**
+ * Fast idempotency tier in front of the database.
+ *
+ * The unique {@code idempotency_key} column stays the source of truth;
+ * the store only saves the round trips for replays and concurrent duplicates.
+ * Entries expire after a TTL, after which the database constraint takes over.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims {@code key} unless it is already in progress or completed.
+     * An acquired reservation carries the token that {@link #release} needs.
+     */
+    IdempotencyReservation reserve(String key);
+
+    /**
+     * Records the response for a key acquired by {@link #reserve(String)}.
+     */
+    void complete(String key, PaymentResponse response);
+
+    /**
+     * Frees a key acquired by {@link #reserve(String)} whose request failed,
+     * so the client can retry with the same key. Only the in-progress marker
+     * with this {@code token} is removed: once the lease expired and another
+     * request reserved the key, that request's marker is left alone.
+     */
+    void release(String key, String token);
+}
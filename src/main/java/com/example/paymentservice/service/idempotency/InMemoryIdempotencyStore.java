@@ -0,0 +1,73 @@
+package com.example.paymentservice.service.idempotency;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-node stand-in for {@link RedisIdempotencyStore}.
+ * Only deduplicates requests that land on the same instance.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    // response == null means the key is still in progress, held by the request with this token
+    private record Entry(PaymentResponse response, String token, long expiresAtMillis) {
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final long inProgressTtlMillis;
+    private final Clock clock;
+
+    public InMemoryIdempotencyStore(Duration ttl, Duration inProgressTtl, Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.inProgressTtlMillis = inProgressTtl.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public IdempotencyReservation reserve(String key) {
+        long now = clock.millis();
+        IdempotencyReservation[] result = new IdempotencyReservation[1];
+
+        entries.compute(key, (k, existing) -> {
+            if (existing == null || existing.expiresAtMillis() <= now) {
+                String token = UUID.randomUUID().toString();
+                result[0] = IdempotencyReservation.acquired(token);
+                return new Entry(null, token, now + inProgressTtlMillis);
+            }
+            result[0] = existing.response() == null
+                    ? IdempotencyReservation.inProgress()
+                    : IdempotencyReservation.completed(existing.response());
+            return existing;
+        });
+        return result[0];
+    }
+
+    @Override
+    public void complete(String key, PaymentResponse response) {
+        entries.put(key, new Entry(response, null, clock.millis() + ttlMillis));
+    }
+
+    @Override
+    public void release(String key, String token) {
+        entries.computeIfPresent(key, (k, existing) ->
+                existing.response() == null && existing.token().equals(token) ? null : existing);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.paymentservice.service.idempotency;
+
+
+import com.example.paymentservice.dto.PaymentResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster-wide idempotency store.
+ *
+ * {@code SET key IN_PROGRESS:<token> NX PX <in-progress-ttl>} is the atomic reservation;
+ * the short lease means a crashed request frees its key on its own. The random
+ * token lets a failed request release only its own marker.
+ * Completing overwrites the marker with the JSON response and the full TTL.
+ */
+@Slf4j
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String KEY_PREFIX = "payment:idempotency:";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+
+    // Only delete our own in-progress marker: never a completed response, nor a later request's lease
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final Duration ttl;
+    private final Duration inProgressTtl;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, JsonMapper jsonMapper,
+                                 Duration ttl, Duration inProgressTtl) {
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.ttl = ttl;
+        this.inProgressTtl = inProgressTtl;
+    }
+
+    @Override
+    public IdempotencyReservation reserve(String key) {
+        String redisKey = KEY_PREFIX + key;
+
+        // Retry once: the existing entry may expire between SET NX and GET
+        String token = IN_PROGRESS + ":" + UUID.randomUUID();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(redisKey, token, inProgressTtl);
+            if (Boolean.TRUE.equals(acquired)) {
+                return IdempotencyReservation.acquired(token);
+            }
+            String value = redisTemplate.opsForValue().get(redisKey);
+            // Also matches the bare marker written before tokens existed
+            if (value != null && value.startsWith(IN_PROGRESS)) {
+                return IdempotencyReservation.inProgress();
+            }
+            if (value != null) {
+                return IdempotencyReservation.completed(jsonMapper.readValue(value, PaymentResponse.class));
+            }
+        }
+        // Extremely unlikely churn on the same key; let the caller fall through to the database.
+        // No marker of ours exists, so there is nothing to release.
+        log.warn("Could not settle idempotency reservation for key={}", key);
+        return IdempotencyReservation.acquired(null);
+    }
+
+    @Override
+    public void complete(String key, PaymentResponse response) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + key, jsonMapper.writeValueAsString(response), ttl);
+    }
+
+    @Override
+    public void release(String key, String token) {
+        if (token != null) {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + key), token);
+        }
+    }
+}
@@ -2,13 +2,19 @@ package com.example.paymentservice.validator;
 
 
 import com.example.paymentservice.exception.BadRequestException;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class RequestValidator {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 500;
+
     public void validateIdempotencyKey(String idempotencyKey) {
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
             throw new BadRequestException("Missing required header: Idempotency-Key");
@@ -20,5 +26,37 @@ public class RequestValidator {
             throw new BadRequestException("Amount must be greater than zero");
         }
     }
-}
 
+    public void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public void validateBatchSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    // A search without a status or createdAt bound would scan the whole payment table
+    public void validateSearch(PaymentSearchCriteria criteria) {
+        if (!criteria.isIndexed()) {
+            throw new BadRequestException("Search needs a status or a createdFrom/createdTo bound");
+        }
+        validateRange("created", criteria.createdFrom(), criteria.createdTo());
+        validateRange("updated", criteria.updatedFrom(), criteria.updatedTo());
+    }
+
+    public void validateExportRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+    }
+
+    private static void validateRange(String name, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException(name + "From must be before " + name + "To");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+-- Card/bank detail rows are keyed by their payment's UUID (@MapsId) instead of
+-- their own sequence id. ddl-auto cannot change a primary key, so run this once
+-- on an existing database before deploying. New databases need nothing.
+
+BEGIN;
+
+ALTER TABLE card_payment_details DROP CONSTRAINT card_payment_details_pkey;
+ALTER TABLE card_payment_details DROP COLUMN id;
+ALTER TABLE card_payment_details ADD PRIMARY KEY (payment_id);
+DROP SEQUENCE IF EXISTS card_payment_details_seq;
+
+ALTER TABLE bank_payment_details DROP CONSTRAINT bank_payment_details_pkey;
+ALTER TABLE bank_payment_details DROP COLUMN id;
+ALTER TABLE bank_payment_details ADD PRIMARY KEY (payment_id);
+DROP SEQUENCE IF EXISTS bank_payment_details_seq;
+
+-- The old unique constraint on payment_id is now covered by the primary key;
+-- drop it to save its index. Hibernate generated its name, so look it up.
+DO $$
+DECLARE uk record;
+BEGIN
+    FOR uk IN SELECT c.conrelid::regclass AS tbl, c.conname
+              FROM pg_constraint c
+              JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+              WHERE c.contype = 'u'
+                AND c.conrelid IN ('card_payment_details'::regclass, 'bank_payment_details'::regclass)
+                AND array_length(c.conkey, 1) = 1
+                AND a.attname = 'payment_id' LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', uk.tbl, uk.conname);
+    END LOOP;
+END $$;
+
+COMMIT;
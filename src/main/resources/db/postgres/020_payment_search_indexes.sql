@@ -0,0 +1,24 @@
+-- Indexes for GET /payments/search on PostgreSQL. The composite indexes on
+-- (status, created_at, id) and (status, updated_at) are declared on Payment and
+-- created by ddl-auto; the partial ones below cannot be expressed in JPA.
+--
+-- PENDING and FAILED are a small share of all payments but are what ops search
+-- for, so indexes over just those rows stay small and hot in cache. The search
+-- writes statuses as literals, so the planner matches these on every execution.
+--
+-- CONCURRENTLY avoids blocking writes on a large table; it cannot run inside a
+-- transaction, so run the statements one by one (psql runs each in autocommit).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_pending_created_at_id
+    ON payment (created_at, id) WHERE status = 'PENDING';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_pending_updated_at
+    ON payment (updated_at) WHERE status = 'PENDING';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_failed_created_at_id
+    ON payment (created_at, id) WHERE status = 'FAILED';
+
+-- Check a search uses them, e.g.:
+-- EXPLAIN SELECT id, status, amount, currency, created_at FROM payment
+--  WHERE status IN ('PENDING') AND updated_at < now() - interval '15 minutes'
+--  ORDER BY created_at, id LIMIT 51;
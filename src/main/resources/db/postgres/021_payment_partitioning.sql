@@ -0,0 +1,86 @@
+-- Converts payment into a table range-partitioned by month of created_at, so
+-- PaymentArchiver can drop whole archived months instead of deleting rows.
+--
+-- Run once in a maintenance window (it rewrites the table and holds an
+-- exclusive lock until COMMIT), then deploy with:
+--   payment.partitioning.enabled=true   (PaymentPartitionManager creates months ahead)
+--   spring.jpa.hibernate.ddl-auto=validate
+-- ddl-auto=update would try to add back the table-wide unique key on
+-- idempotency_key, which a partitioned table cannot have.
+--
+-- PostgreSQL requires every unique index of a partitioned table to contain the
+-- partition key, hence:
+--   * the primary key becomes (id, created_at)
+--   * idempotency_key is unique per monthly partition only, so the keys are also
+--     kept in the unpartitioned payment_idempotency_key table (primary key on the
+--     key), which PaymentService writes in the same transaction as the payment
+--   * card_payment_details / bank_payment_details can no longer reference payment
+--     with a foreign key; PaymentArchiver deletes them with their payment or month
+--   * payment_default receives the rows still in progress when a month is retired
+
+BEGIN;
+
+DO $$
+DECLARE fk record;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS tbl, conname
+              FROM pg_constraint
+              WHERE contype = 'f' AND confrelid = 'payment'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.tbl, fk.conname);
+    END LOOP;
+END $$;
+
+CREATE TABLE payment_partitioned (LIKE payment INCLUDING DEFAULTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE payment_partitioned ALTER COLUMN created_at SET NOT NULL;
+
+-- One partition per month that has payments (same names as PaymentPartitionManager),
+-- and a default partition so an insert outside every range is never rejected
+DO $$
+DECLARE month date;
+BEGIN
+    FOR month IN SELECT DISTINCT date_trunc('month', created_at)::date FROM payment LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF payment_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'payment_p' || to_char(month, 'YYYYMM'), month, (month + interval '1 month')::date);
+    END LOOP;
+END $$;
+CREATE TABLE payment_default PARTITION OF payment_partitioned DEFAULT;
+
+INSERT INTO payment_partitioned SELECT * FROM payment;
+DROP TABLE payment;
+ALTER TABLE payment_partitioned RENAME TO payment;
+
+ALTER TABLE payment ADD PRIMARY KEY (id, created_at);
+CREATE INDEX idx_payment_created_at_id ON payment (created_at, id);
+CREATE INDEX idx_payment_status_created_at_id ON payment (status, created_at, id);
+CREATE INDEX idx_payment_status_updated_at ON payment (status, updated_at);
+-- The partial indexes of 020, without CONCURRENTLY (not supported on a partitioned table)
+CREATE INDEX idx_payment_pending_created_at_id ON payment (created_at, id) WHERE status = 'PENDING';
+CREATE INDEX idx_payment_pending_updated_at ON payment (updated_at) WHERE status = 'PENDING';
+CREATE INDEX idx_payment_failed_created_at_id ON payment (created_at, id) WHERE status = 'FAILED';
+
+DO $$
+DECLARE partition record;
+BEGIN
+    FOR partition IN SELECT c.relname
+                     FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+                     WHERE i.inhparent = 'payment'::regclass LOOP
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %I (idempotency_key)',
+                       partition.relname || '_idempotency_key', partition.relname);
+    END LOOP;
+END $$;
+
+-- Table-wide uniqueness of idempotency_key, which the partitions cannot enforce
+CREATE TABLE payment_idempotency_key (
+    idempotency_key varchar(255) PRIMARY KEY,
+    payment_id uuid NOT NULL
+);
+INSERT INTO payment_idempotency_key (idempotency_key, payment_id)
+SELECT idempotency_key, id FROM payment;
+
+COMMIT;
+
+-- Lookups by id alone (GET /payments/{id}) probe every partition's primary key
+-- index; check with:
+-- EXPLAIN SELECT id FROM payment WHERE id = '00000000-0000-0000-0000-000000000000';
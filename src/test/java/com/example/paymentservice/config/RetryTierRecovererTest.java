@@ -0,0 +1,74 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.PaymentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTierRecovererTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC);
+    private final PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry());
+
+    private RetryTierRecoverer recoverer(double jitter) {
+        return new RetryTierRecoverer(record -> null, (record, exception) -> null, paymentMetrics, jitter, clock);
+    }
+
+    private static Headers dueIn(long delayMs) {
+        Headers headers = new RecordHeaders();
+        headers.add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+                BigInteger.valueOf(NOW - 5_000).toByteArray());
+        headers.add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+                BigInteger.valueOf(NOW + delayMs).toByteArray());
+        return headers;
+    }
+
+    private static long due(Headers headers) {
+        return new BigInteger(headers.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP).value())
+                .longValue();
+    }
+
+    @Test
+    void jitterBackoff_shouldKeepDelayWithinJitterAndSpreadRecords() {
+        RetryTierRecoverer recoverer = recoverer(0.2);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        for (int i = 0; i < 200; i++) {
+            Headers headers = dueIn(10_000);
+            recoverer.jitterBackoff(headers);
+            long delay = due(headers) - NOW;
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+            assertEquals(1, headers.toArray().length);
+        }
+
+        assertTrue(min >= 8_000 && max <= 12_000, "delay range " + min + ".." + max);
+        assertTrue(max - min > 1_000, "delays should be spread, got " + min + ".." + max);
+    }
+
+    @Test
+    void jitterBackoff_shouldLeaveHeadersAlone_whenDisabledOrAlreadyDue() {
+        Headers disabled = dueIn(10_000);
+        recoverer(0).jitterBackoff(disabled);
+        assertEquals(NOW + 10_000, due(disabled));
+
+        Headers overdue = dueIn(-1);
+        recoverer(0.2).jitterBackoff(overdue);
+        assertEquals(NOW - 1, due(overdue));
+        assertEquals(2, overdue.toArray().length);
+
+        assertDoesNotThrow(() -> recoverer(0.2).jitterBackoff(new RecordHeaders()));
+    }
+}
@@ -1,26 +1,54 @@
 package com.example.paymentservice.controller;
 
 import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentItem;
+import com.example.paymentservice.dto.BatchPaymentItemResult;
+import com.example.paymentservice.dto.BatchPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentResponse;
 import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentResponse;
 import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.repository.PaymentExportRow;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
+import com.example.paymentservice.service.PaymentCreateExecutor;
+import com.example.paymentservice.service.PaymentMetrics;
 import com.example.paymentservice.service.PaymentService;
 import com.example.paymentservice.validator.RequestValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.util.function.Consumer;
+
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +58,7 @@ class PaymentControllerStandaloneTest {
     private MockMvc mockMvc;
     private PaymentService paymentService;
     private RequestValidator requestValidator;
+    private PaymentCreateExecutor paymentCreateExecutor;
     private ObjectMapper objectMapper;
 
     private UUID paymentId;
@@ -41,7 +70,10 @@ class PaymentControllerStandaloneTest {
         requestValidator = Mockito.mock(RequestValidator.class);
         objectMapper = new ObjectMapper();
 
-        PaymentController controller = new PaymentController(paymentService, requestValidator);
+        paymentCreateExecutor = new PaymentCreateExecutor(new SimpleMeterRegistry(), "sync", 1, 1, Duration.ofSeconds(2),
+                Duration.ofMinutes(10), false);
+        PaymentController controller = new PaymentController(paymentService, requestValidator, JsonMapper.builder().build(),
+                new PaymentMetrics(new SimpleMeterRegistry()), paymentCreateExecutor);
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
 
         paymentId = UUID.randomUUID();
@@ -66,10 +98,13 @@ class PaymentControllerStandaloneTest {
         Mockito.doNothing().when(requestValidator).validateAmount(any());
         when(paymentService.createCardPayment(any(), anyString())).thenReturn(sampleResponse);
 
-        mockMvc.perform(post("/payments/card")
+        MvcResult result = mockMvc.perform(post("/payments/card")
                         .header("Idempotency-Key", "test-key")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.paymentId").value(paymentId.toString()))
                 .andExpect(jsonPath("$.status").value("SUCCESS"));
@@ -88,15 +123,54 @@ class PaymentControllerStandaloneTest {
         Mockito.doNothing().when(requestValidator).validateAmount(any());
         when(paymentService.createBankPayment(any(), anyString())).thenReturn(sampleResponse);
 
-        mockMvc.perform(post("/payments/bank")
+        MvcResult result = mockMvc.perform(post("/payments/bank")
                         .header("Idempotency-Key", "bank-key")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.paymentId").value(paymentId.toString()))
                 .andExpect(jsonPath("$.status").value("SUCCESS"));
     }
 
+    @Test
+    void testGetCreateRequestReturnsStoredPayment() throws Exception {
+        when(paymentService.findByIdempotencyKey("bank-key")).thenReturn(Optional.of(sampleResponse));
+
+        mockMvc.perform(get("/payments/requests/{key}", "bank-key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId").value(paymentId.toString()));
+    }
+
+    @Test
+    void testCreateBatchPayments() throws Exception {
+        CardPaymentRequest card = new CardPaymentRequest();
+        card.setAmount(BigDecimal.valueOf(100));
+        card.setCurrency("USD");
+        card.setCardNumber("4111111111111111");
+        BatchPaymentRequest request = new BatchPaymentRequest(List.of(
+                BatchPaymentItem.builder().idempotencyKey("k1").card(card).build(),
+                BatchPaymentItem.builder().idempotencyKey("k2").build()));
+
+        when(paymentService.createBatch(any())).thenReturn(new BatchPaymentResponse(List.of(
+                BatchPaymentItemResult.builder().index(0).idempotencyKey("k1")
+                        .outcome(BatchPaymentItemResult.Outcome.CREATED).payment(sampleResponse).build(),
+                BatchPaymentItemResult.builder().index(1).idempotencyKey("k2")
+                        .outcome(BatchPaymentItemResult.Outcome.REJECTED)
+                        .error("Exactly one of card or bank is required").build())));
+
+        mockMvc.perform(post("/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].payment.paymentId").value(paymentId.toString()))
+                .andExpect(jsonPath("$.results[1].outcome").value("REJECTED"));
+        Mockito.verify(requestValidator).validateBatchSize(any());
+    }
+
     @Test
     void testGetPaymentById() throws Exception {
         when(paymentService.getPaymentById(paymentId)).thenReturn(sampleResponse);
@@ -109,12 +183,124 @@ class PaymentControllerStandaloneTest {
 
     @Test
     void testGetAllPayments() throws Exception {
-        when(paymentService.getAllPayments()).thenReturn(Collections.singletonList(sampleResponse));
+        when(paymentService.getPayments(null, 50)).thenReturn(PaymentPageResponse.builder()
+                .items(Collections.singletonList(sampleResponse))
+                .nextCursor("next-token")
+                .build());
 
         mockMvc.perform(get("/payments"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].paymentId").value(paymentId.toString()))
-                .andExpect(jsonPath("$[0].status").value("SUCCESS"));
+                .andExpect(jsonPath("$.items[0].paymentId").value(paymentId.toString()))
+                .andExpect(jsonPath("$.items[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void testSearchPayments() throws Exception {
+        PaymentSearchCriteria criteria = new PaymentSearchCriteria(
+                Set.of(PaymentStatus.PENDING, PaymentStatus.FAILED), PaymentType.CARD, null,
+                null, null, null, LocalDateTime.of(2026, 1, 1, 12, 0));
+        when(paymentService.searchPayments(criteria, null, 20)).thenReturn(PaymentPageResponse.builder()
+                .items(Collections.singletonList(sampleResponse))
+                .build());
+
+        mockMvc.perform(get("/payments/search")
+                        .param("status", "PENDING", "FAILED")
+                        .param("type", "CARD")
+                        .param("updatedTo", "2026-01-01T12:00:00")
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].paymentId").value(paymentId.toString()));
+        verify(requestValidator).validateSearch(criteria);
+    }
+
+    @Test
+    void testGetAllPaymentsWithCursor() throws Exception {
+        when(paymentService.getPayments("abc", 10)).thenReturn(PaymentPageResponse.builder()
+                .items(List.of())
+                .build());
+
+        mockMvc.perform(get("/payments").param("cursor", "abc").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllPayments() throws Exception {
+        doAnswer(inv -> {
+            Consumer<PaymentResponse> sink = inv.getArgument(0);
+            sink.accept(sampleResponse);
+            sink.accept(sampleResponse);
+            return null;
+        }).when(paymentService).streamAllPayments(any());
+
+        MvcResult result = mockMvc.perform(get("/payments/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].paymentId").value(paymentId.toString()));
+    }
+
+    private void stubExport() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+        doAnswer(inv -> {
+            Consumer<PaymentExportRow> sink = inv.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                sink.accept(new PaymentExportRow(paymentId, PaymentStatus.SUCCESS, PaymentType.CARD,
+                        new BigDecimal("10.00"), "AUD", "key-" + i, createdAt, createdAt.plusSeconds(5)));
+            }
+            return null;
+        }).when(paymentService).exportPayments(any(), any());
+    }
+
+    @Test
+    void testExportPaymentsWritesOneJsonObjectPerLine() throws Exception {
+        stubExport();
+
+        MvcResult result = mockMvc.perform(get("/payments/export")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("to", "2026-01-02T00:00:00")
+                        .param("status", "SUCCESS", "FAILED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(body.endsWith("\n"));
+        assertEquals("key-2", objectMapper.readTree(lines[2]).get("idempotencyKey").asText());
+        verify(paymentService).exportPayments(eq(new PaymentSearchCriteria(
+                Set.of(PaymentStatus.SUCCESS, PaymentStatus.FAILED), null, null,
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 2, 0, 0), null, null)), any());
+    }
+
+    @Test
+    void testExportPaymentsIsGzippedWhenAccepted() throws Exception {
+        stubExport();
+
+        MvcResult result = mockMvc.perform(get("/payments/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("to", "2026-01-02T00:00:00"))
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(3, new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().count());
+        }
     }
 
     @Test
@@ -0,0 +1,132 @@
+package com.example.paymentservice.event;
+
+import com.example.paymentservice.entity.enums.PaymentType;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentEventBinaryCodecTest {
+
+    private final PaymentEventSerializer serializer = new PaymentEventSerializer();
+    private final PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+
+    PaymentEventBinaryCodecTest() {
+        serializer.configure(Map.of(PaymentEventSerializer.WIRE_FORMAT_CONFIG, "binary"), false);
+    }
+
+    private PaymentCreatedEvent event() {
+        return new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(),
+                new BigDecimal("120.50"), "AUD", PaymentType.CARD, "key-1", "card_token",
+                LocalDateTime.of(2026, 1, 2, 3, 4, 5, 123_456_789), "411111");
+    }
+
+    @Test
+    void shouldRoundTripFromBytesAndFromRecordBuffers() {
+        PaymentCreatedEvent event = event();
+
+        byte[] bytes = serializer.serialize("payments", event);
+
+        assertEquals(PaymentEventBinaryCodec.MAGIC, bytes[0]);
+        assertEquals(event, deserializer.deserialize("payments", bytes));
+
+        // As the consumer passes it: a window into a larger fetch buffer, position not at 0
+        ByteBuffer fetch = ByteBuffer.allocate(bytes.length + 20).position(10);
+        fetch.put(bytes).flip().position(10);
+        assertEquals(event, deserializer.deserialize("payments", new RecordHeaders(), fetch));
+        assertEquals(10, fetch.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        assertEquals(event, deserializer.deserialize("payments", new RecordHeaders(), direct));
+    }
+
+    @Test
+    void shouldNotDependOnTheRecordBufferAfterDecoding() {
+        PaymentCreatedEvent event = event();
+        ByteBuffer fetch = ByteBuffer.wrap(serializer.serialize("payments", event));
+
+        PaymentCreatedEvent decoded = deserializer.deserialize("payments", new RecordHeaders(), fetch);
+        // Kafka reuses the fetch buffer for the next batch
+        Arrays.fill(fetch.array(), (byte) 0);
+
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void shouldRoundTripLegacyEventsWithNullFields() {
+        PaymentCreatedEvent legacy = PaymentCreatedEvent.legacy(UUID.randomUUID());
+
+        assertEquals(legacy, deserializer.deserialize("payments", serializer.serialize("payments", legacy)));
+    }
+
+    @Test
+    void shouldBeSmallerThanJson() {
+        PaymentCreatedEvent event = event();
+
+        byte[] binary = PaymentEventBinaryCodec.encode(event);
+        byte[] json = PaymentEventCodec.encode(event);
+
+        // 44 fixed bytes + 3 length-prefixed strings (5 + 10 + 6 bytes)
+        assertEquals(71, binary.length);
+        assertTrue(binary.length * 3 < json.length, binary.length + " vs " + json.length);
+    }
+
+    @Test
+    void shouldSkipFieldsAndEnumOrdinalsFromNewerProducers() {
+        PaymentCreatedEvent event = event();
+        byte[] current = PaymentEventBinaryCodec.encode(event);
+        // A later producer: event version 3, a type this build has not heard of, one more field at the end
+        ByteBuffer newer = ByteBuffer.allocate(current.length + 6).put(current)
+                .putShort((short) 4).put("m-42".getBytes(StandardCharsets.UTF_8));
+        newer.put(2, (byte) 3).put(3, (byte) 9);
+
+        PaymentCreatedEvent read = deserializer.deserialize("payments", newer.array());
+
+        assertEquals(3, read.version());
+        assertNull(read.paymentType());
+        assertEquals(event.paymentId(), read.paymentId());
+        assertEquals(event.instrumentPrefix(), read.instrumentPrefix());
+    }
+
+    @Test
+    void shouldReadFieldsMissingFromOlderProducersAsNull() {
+        PaymentCreatedEvent event = event();
+        byte[] current = PaymentEventBinaryCodec.encode(event);
+        // A version 1 producer stopped before instrumentPrefix
+        byte[] older = Arrays.copyOf(current, current.length - 2 - event.instrumentPrefix().length());
+
+        PaymentCreatedEvent read = deserializer.deserialize("payments", older);
+
+        assertEquals(event.instrumentToken(), read.instrumentToken());
+        assertNull(read.instrumentPrefix());
+    }
+
+    @Test
+    void shouldRejectUnknownLayoutsAndTruncatedPayloads() {
+        byte[] bytes = PaymentEventBinaryCodec.encode(event());
+        byte[] nextLayout = bytes.clone();
+        nextLayout[1] = 2;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("payments", nextLayout));
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("payments", Arrays.copyOf(bytes, 30)));
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("payments", Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    // Ordinals are on the wire: constants may only be appended
+    @Test
+    void paymentTypeOrdinalsAreStable() {
+        assertEquals(0, PaymentType.CARD.ordinal());
+        assertEquals(1, PaymentType.BANK.ordinal());
+    }
+}
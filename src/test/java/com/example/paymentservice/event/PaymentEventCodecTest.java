@@ -0,0 +1,80 @@
+package com.example.paymentservice.event;
+
+import com.example.paymentservice.entity.enums.PaymentType;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.UUIDSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentEventCodecTest {
+
+    private final PaymentEventSerializer serializer = new PaymentEventSerializer();
+    private final PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+
+    private PaymentCreatedEvent event() {
+        return new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(),
+                new BigDecimal("120.50"), "AUD", PaymentType.BANK, "key-1", "bank_token",
+                LocalDateTime.of(2026, 1, 2, 3, 4, 5), "062000");
+    }
+
+    @Test
+    void shouldRoundTripEvent() {
+        PaymentCreatedEvent event = event();
+
+        byte[] bytes = serializer.serialize("payments", event);
+
+        assertEquals(event, deserializer.deserialize("payments", bytes));
+    }
+
+    @Test
+    void shouldReadLegacyUuidPayloadAsVersionZero() {
+        UUID paymentId = UUID.randomUUID();
+        byte[] legacy = new UUIDSerializer().serialize("payments", paymentId);
+
+        PaymentCreatedEvent event = deserializer.deserialize("payments", legacy);
+
+        assertEquals(PaymentCreatedEvent.legacy(paymentId), event);
+        assertFalse(event.isSelfContained());
+    }
+
+    @Test
+    void shouldIgnoreFieldsAndEnumValuesFromNewerVersions() {
+        UUID paymentId = UUID.randomUUID();
+        String v3 = """
+                {"version":3,"paymentId":"%s","amount":10.00,"currency":"AUD",
+                 "paymentType":"PAYPAL","merchantId":"m-1"}
+                """.formatted(paymentId);
+
+        PaymentCreatedEvent event = deserializer.deserialize("payments", v3.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, event.version());
+        assertEquals(paymentId, event.paymentId());
+        assertNull(event.paymentType());
+        assertTrue(event.isSelfContained());
+    }
+
+    @Test
+    void shouldReadVersion1EventsWithoutInstrumentPrefix() {
+        String v1 = """
+                {"version":1,"paymentId":"%s","amount":10.00,"currency":"AUD","paymentType":"CARD"}
+                """.formatted(UUID.randomUUID());
+
+        PaymentCreatedEvent event = deserializer.deserialize("payments", v1.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(PaymentType.CARD, event.paymentType());
+        assertNull(event.instrumentPrefix());
+    }
+
+    @Test
+    void shouldRejectGarbage() {
+        byte[] garbage = "not an event at all".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("payments", garbage));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.service.idempotency.IdempotencyReservation;
+import com.example.paymentservice.service.idempotency.IdempotencyStore;
+import com.example.paymentservice.service.idempotency.InMemoryIdempotencyStore;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sync vs async create path with the same Tomcat thread count.
+ *
+ * Boots the service twice - {@code payment.create.mode=sync} and {@code async},
+ * both with Tomcat capped at {@value #TOMCAT_MAX_THREADS} threads - and fires
+ * {@value #CREATES} creates whose persistence blocks for {@value #BLOCKING_MILLIS} ms
+ * together with {@value #READS} reads of an existing payment. In sync mode the
+ * creates hold every Tomcat thread and the reads queue behind them; in async
+ * mode the creates wait on their own pool and the reads keep flowing.
+ *
+ * Timing-sensitive, so opt-in like the load harness: {@code -Dload.enabled=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+class AsyncCreateLoadComparisonTest {
+
+    private static final int TOMCAT_MAX_THREADS = 4;
+    private static final int CREATES = 32;
+    private static final int READS = 32;
+    private static final long BLOCKING_MILLIS = 300;
+    private static final Pattern PAYMENT_ID = Pattern.compile("\"paymentId\":\"([0-9a-f-]{36})\"");
+
+    @Test
+    void asyncCreatesLeaveTomcatThreadsForReads() throws Exception {
+        LoadResult sync = runLoad("sync");
+        LoadResult async = runLoad("async");
+
+        log.info("{} blocking creates + {} reads on {} Tomcat threads: "
+                        + "sync reads={} req/s (mean {} ms), async reads={} req/s (mean {} ms)",
+                CREATES, READS, TOMCAT_MAX_THREADS, Math.round(sync.readsPerSecond()), sync.meanReadMillis(),
+                Math.round(async.readsPerSecond()), async.meanReadMillis());
+
+        // Sync reads wait for CREATES x BLOCKING_MILLIS / TOMCAT_MAX_THREADS (~2.4 s) of writes
+        // to drain; async reads only wait for a free Tomcat thread
+        assertThat(async.meanReadMillis() * 4).isLessThan(sync.meanReadMillis());
+        assertThat(async.readsPerSecond()).isGreaterThan(sync.readsPerSecond() * 2);
+    }
+
+    private LoadResult runLoad(String mode) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                PaymentServiceApplication.class, LoadTestConfig.class)
+                .profiles("test")
+                // Command-line args, so they win over application.yaml
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        "--server.tomcat.accept-count=" + (CREATES + READS),
+                        "--payment.create.mode=" + mode,
+                        "--payment.create.async.threads=" + TOMCAT_MAX_THREADS,
+                        "--payment.create.async.respond-within=30s",
+                        // Own database: closing this context drops its schema
+                        "--spring.datasource.url=jdbc:h2:mem:async-create-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--payment.outbox.poll-interval-ms=3600000",
+                        "--payment.dlq.replay.interval-ms=3600000",
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--spring.jpa.show-sql=false")) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI base = URI.create("http://localhost:" + port + "/payments/");
+
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .executor(clientThreads)
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .build();
+
+                // Untimed: warms up both sides and gives the reads a payment to fetch
+                HttpResponse<String> created = client.send(create(base), HttpResponse.BodyHandlers.ofString());
+                assertThat(created.statusCode()).isEqualTo(200);
+                Matcher id = PAYMENT_ID.matcher(created.body());
+                assertThat(id.find()).isTrue();
+                HttpRequest read = HttpRequest.newBuilder(base.resolve(id.group(1))).GET().build();
+                client.send(read, HttpResponse.BodyHandlers.discarding());
+
+                List<CompletableFuture<HttpResponse<Void>>> creates = new ArrayList<>(CREATES);
+                List<CompletableFuture<Long>> reads = new ArrayList<>(READS);
+                long start = System.nanoTime();
+                for (int i = 0; i < Math.max(CREATES, READS); i++) {
+                    if (i < CREATES) {
+                        creates.add(client.sendAsync(create(base), HttpResponse.BodyHandlers.discarding()));
+                    }
+                    if (i < READS) {
+                        long sent = System.nanoTime();
+                        reads.add(client.sendAsync(read, HttpResponse.BodyHandlers.discarding())
+                                .thenApply(response -> {
+                                    assertThat(response.statusCode()).isEqualTo(200);
+                                    return (System.nanoTime() - sent) / 1_000_000;
+                                }));
+                    }
+                }
+                long totalReadMillis = reads.stream().mapToLong(CompletableFuture::join).sum();
+                long readsDoneMillis = (System.nanoTime() - start) / 1_000_000;
+                for (CompletableFuture<HttpResponse<Void>> response : creates) {
+                    assertThat(response.join().statusCode()).isEqualTo(200);
+                }
+                return new LoadResult(totalReadMillis / READS, READS * 1000.0 / Math.max(1, readsDoneMillis));
+            }
+        }
+    }
+
+    private static HttpRequest create(URI base) {
+        return HttpRequest.newBuilder(base.resolve("bank"))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"amount": 10.00, "currency": "AUD", "accountNumber": "12345678", "bsb": "062000",
+                         "accountHolderName": "Jane Doe", "bankName": "CBA"}
+                        """))
+                .build();
+    }
+
+    private record LoadResult(long meanReadMillis, double readsPerSecond) {
+    }
+
+    @TestConfiguration
+    static class LoadTestConfig {
+
+        // Every create blocks for BLOCKING_MILLIS in persistence, standing in for a slow database
+        @Bean
+        @Primary
+        IdempotencyStore slowIdempotencyStore() {
+            IdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofHours(1), Duration.ofMinutes(1),
+                    Clock.systemUTC());
+            return new IdempotencyStore() {
+                @Override
+                public IdempotencyReservation reserve(String key) {
+                    try {
+                        Thread.sleep(BLOCKING_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return store.reserve(key);
+                }
+
+                @Override
+                public void complete(String key, PaymentResponse response) {
+                    store.complete(key, response);
+                }
+
+                @Override
+                public void release(String key, String token) {
+                    store.release(key, token);
+                }
+            };
+        }
+
+        // Anonymous callers get the payment scopes on the payment paths only
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/payments/**")
+                    .csrf(AbstractHttpConfigurer::disable)
+                    .anonymous(anonymous -> anonymous.authorities("SCOPE_payment.read", "SCOPE_payment.write"))
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.DlqEntryResponse;
+import com.example.paymentservice.dto.DlqReplayRequest;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.service.DlqService;
+import com.example.paymentservice.service.PaymentProducer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Full DLQ round trip on embedded Kafka: an event for an unknown payment fails
+ * in PaymentConsumer, lands on payments_dlq and is persisted; replaying it by
+ * exception type republishes it to payments, where it fails again and the same
+ * entry records the second attempt.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = "payment.dlq.replay.interval-ms=200"
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class DlqReplayIntegrationTest {
+
+    @Autowired
+    private PaymentProducer paymentProducer;
+
+    @Autowired
+    private DlqService dlqService;
+
+    @Test
+    void failedEventIsPersistedAndReplayedAtMostOnce() {
+        UUID paymentId = UUID.randomUUID();
+        paymentProducer.sendPaymentEvent(new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, paymentId,
+                new BigDecimal("10.00"), "AUD", PaymentType.CARD, "key-dlq", "card_token", LocalDateTime.now(),
+                "411111"));
+
+        DlqEntryResponse failed = awaitEntry(paymentId, 1);
+        assertThat(failed.getStatus()).isEqualTo(DlqEntryStatus.FAILED.name());
+        assertThat(failed.getExceptionType()).isEqualTo("PaymentNotFoundException");
+
+        int queued = dlqService.queueReplay(DlqReplayRequest.builder()
+                .exceptionType("PaymentNotFoundException")
+                .build());
+        assertThat(queued).isEqualTo(1);
+
+        DlqEntryResponse failedAgain = awaitEntry(paymentId, 2);
+        assertThat(failedAgain.getId()).isEqualTo(failed.getId());
+        assertThat(failedAgain.getReplayCount()).isEqualTo(1);
+        assertThat(failedAgain.getStatus()).isEqualTo(DlqEntryStatus.FAILED.name());
+    }
+
+    private DlqEntryResponse awaitEntry(UUID paymentId, int attempts) {
+        return await().atMost(Duration.ofSeconds(30))
+                .until(() -> find(paymentId), entry -> entry != null && entry.getAttempts() == attempts);
+    }
+
+    private DlqEntryResponse find(UUID paymentId) {
+        List<DlqEntryResponse> entries = dlqService.findEntries(null, null, null, null, 100);
+        return entries.stream().filter(e -> e.getPaymentId().equals(paymentId)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.config.KafkaConfig;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.service.PaymentProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shows why the payments topic is partitioned: consumer throughput scales
+ * with {@code payment.kafka.partitions} and {@code payment.consumer.concurrency},
+ * while the payments of one instrument stay in order.
+ *
+ * The service runs twice on its own embedded broker, once with 1 partition and
+ * 1 consumer thread and once with 4 and 4. Each run publishes the same events
+ * through {@link PaymentProducer} (keyed by instrument token) and consumes them
+ * from a container built by the service's {@code kafkaListenerContainerFactory}.
+ * The listener sleeps per record to stand in for the blocking DB work in
+ * PaymentConsumer, so the run is bound by listener parallelism rather than
+ * broker speed. Expected: roughly 4x, asserted at a conservative 2x; every
+ * instrument's events arrive in publish order on a single partition.
+ *
+ * Timing-sensitive, so opt-in like the load harness: {@code -Dload.enabled=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+class PartitionScalingIntegrationTest {
+
+    private static final int RECORDS = 400;
+    private static final int INSTRUMENTS = 40;
+    private static final long PROCESSING_MILLIS = 5;
+
+    @Test
+    void throughputScalesWithPartitionsAndConcurrency_andInstrumentsStayInOrder() throws Exception {
+        double singlePartitionRate = measureRecordsPerSecond(1);
+        double multiPartitionRate = measureRecordsPerSecond(4);
+
+        log.info("Partition scaling: 1 partition = {} rec/s, 4 partitions = {} rec/s",
+                Math.round(singlePartitionRate), Math.round(multiPartitionRate));
+
+        assertThat(multiPartitionRate).isGreaterThan(singlePartitionRate * 2);
+    }
+
+    private double measureRecordsPerSecond(int partitions) throws Exception {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, partitions);
+        broker.afterPropertiesSet();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .profiles("test")
+                // Command-line args, so they win over application.yaml and the test profile
+                .run("--server.port=0",
+                        "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                        "--payment.kafka.partitions=" + partitions,
+                        "--payment.consumer.concurrency=" + partitions,
+                        // The service's own listeners stay off; the test starts its container itself
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--payment.outbox.poll-interval-ms=3600000",
+                        "--payment.dlq.replay.interval-ms=3600000",
+                        "--spring.jpa.show-sql=false")) {
+            return measureRecordsPerSecond(context, partitions);
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private double measureRecordsPerSecond(ConfigurableApplicationContext context, int partitions)
+            throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(RECORDS);
+        AtomicLong firstReceived = new AtomicLong();
+        Map<String, List<Integer>> sequencesByInstrument = new ConcurrentHashMap<>();
+        Map<String, Set<Integer>> partitionsByInstrument = new ConcurrentHashMap<>();
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                context.getBean("kafkaListenerContainerFactory", ConcurrentKafkaListenerContainerFactory.class);
+        ConcurrentMessageListenerContainer<Object, Object> container =
+                factory.createContainer(KafkaConfig.PAYMENT_TOPIC);
+        container.getContainerProperties().setGroupId("partition-scaling");
+        container.getContainerProperties().setMessageListener((MessageListener<Object, Object>) record -> {
+            firstReceived.compareAndSet(0, System.nanoTime());
+            PaymentCreatedEvent event = (PaymentCreatedEvent) record.value();
+            // One thread per partition, so each instrument's list only ever has one writer
+            sequencesByInstrument.computeIfAbsent(event.instrumentToken(), k -> new ArrayList<>())
+                    .add(event.amount().intValue());
+            partitionsByInstrument.computeIfAbsent(event.instrumentToken(), k -> ConcurrentHashMap.newKeySet())
+                    .add(((ConsumerRecord<Object, Object>) record).partition());
+            try {
+                Thread.sleep(PROCESSING_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            latch.countDown();
+        });
+        assertThat(container.getConcurrency()).isEqualTo(partitions);
+
+        container.start();
+        try {
+            // Produce only once every consumer owns its partition, otherwise the first
+            // consumer to join can drain the whole topic before the rebalance finishes
+            ContainerTestUtils.waitForAssignment(container, partitions);
+            awaitPartitionPerConsumer(container);
+            publish(context.getBean(PaymentProducer.class));
+            assertThat(latch.await(60, TimeUnit.SECONDS)).isTrue();
+            long elapsedNanos = System.nanoTime() - firstReceived.get();
+
+            assertThat(sequencesByInstrument).hasSize(INSTRUMENTS);
+            sequencesByInstrument.values().forEach(sequences -> assertThat(sequences).isSorted());
+            partitionsByInstrument.values().forEach(used -> assertThat(used).hasSize(1));
+            // ...and the instruments spread over every partition the topic was created with
+            assertThat(partitionsByInstrument.values().stream().flatMap(Set::stream).distinct())
+                    .hasSize(partitions);
+            return RECORDS / (elapsedNanos / 1_000_000_000.0);
+        } finally {
+            container.stop();
+        }
+    }
+
+    // waitForAssignment counts partitions, which the first consumer to join can hold all of
+    private static void awaitPartitionPerConsumer(ConcurrentMessageListenerContainer<Object, Object> container)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (container.getContainers().stream().anyMatch(child -> {
+            Collection<TopicPartition> assigned = child.getAssignedPartitions();
+            return assigned == null || assigned.size() != 1;
+        })) {
+            assertThat(System.nanoTime()).as("one partition per consumer").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    // The amount carries the publish sequence, so the listener can check the order per instrument
+    private void publish(PaymentProducer paymentProducer) {
+        List<CompletableFuture<?>> acks = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            acks.add(paymentProducer.sendPaymentEvent(new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION,
+                    UUID.randomUUID(), BigDecimal.valueOf(i), "AUD", null, "scaling-" + i,
+                    "instrument-" + (i % INSTRUMENTS), LocalDateTime.now(), null)));
+        }
+        CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).join();
+    }
+}
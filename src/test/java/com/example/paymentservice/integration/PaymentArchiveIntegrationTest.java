@@ -0,0 +1,100 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.repository.CardPaymentRepository;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.example.paymentservice.service.archive.PaymentArchiver;
+import com.example.paymentservice.service.cache.PaymentCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The archiver against a real database: expired terminal payments leave the
+ * tables for an archive file and stay readable through GET /payments/{id};
+ * PENDING and recent payments stay where they are.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = {
+                "payment.archive.enabled=true",
+                "payment.archive.directory=target/test-archive/${random.uuid}",
+                "payment.archive.batch-size=2",
+                // Driven by the test, not the schedule
+                "payment.archive.initial-delay-ms=3600000",
+                "payment.outbox.poll-interval-ms=3600000",
+                "payment.dlq.replay.interval-ms=3600000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class PaymentArchiveIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentArchiver paymentArchiver;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CardPaymentRepository cardPaymentRepository;
+
+    @Autowired
+    private PaymentCache paymentCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID createPayment(PaymentStatus status, LocalDateTime createdAt) {
+        UUID id = paymentService.createCardPayment(new CardPaymentRequest(
+                new BigDecimal("42.50"), "AUD", "4111111111111111", "Jane Doe", 12, 2030, "123"),
+                UUID.randomUUID().toString()).getPaymentId();
+        jdbcTemplate.update("UPDATE payment SET status = ?, created_at = ?, updated_at = ? WHERE id = ?",
+                status.name(), createdAt, createdAt.plusMinutes(1), id);
+        paymentCache.evict(id);
+        return id;
+    }
+
+    @Test
+    void archivesExpiredTerminalPaymentsAndKeepsThemReadable() {
+        LocalDateTime old = LocalDateTime.of(2001, 1, 1, 10, 0);
+        UUID success = createPayment(PaymentStatus.SUCCESS, old);
+        UUID failed = createPayment(PaymentStatus.FAILED, old.plusHours(1));
+        UUID cancelled = createPayment(PaymentStatus.CANCELLED, old.plusHours(2));
+        UUID pending = createPayment(PaymentStatus.PENDING, old);
+        UUID recent = createPayment(PaymentStatus.SUCCESS, LocalDateTime.now());
+
+        // Batches of 2: the loop runs until a short batch
+        assertThat(paymentArchiver.archiveBefore(LocalDateTime.of(2002, 1, 1, 0, 0))).isEqualTo(3);
+
+        assertThat(paymentRepository.findAllById(List.of(success, failed, cancelled))).isEmpty();
+        assertThat(cardPaymentRepository.findById(success)).isEmpty();
+        assertThat(paymentRepository.findById(pending)).isPresent();
+        assertThat(paymentRepository.findById(recent)).isPresent();
+
+        PaymentResponse archived = paymentService.getPaymentById(failed);
+        assertThat(archived.getStatus()).isEqualTo("FAILED");
+        assertThat(archived.getAmount()).isEqualByComparingTo("42.50");
+        assertThat(archived.getCreatedAt()).isEqualTo(old.plusHours(1));
+
+        // Nothing left to move
+        assertThat(paymentArchiver.archiveBefore(LocalDateTime.of(2002, 1, 1, 0, 0))).isZero();
+    }
+}
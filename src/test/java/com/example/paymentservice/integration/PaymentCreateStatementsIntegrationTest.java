@@ -0,0 +1,91 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentItem;
+import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.service.PaymentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JDBC statements per create, from Hibernate statistics. A statement batch
+ * is prepared once, so prepared-statement counts show whether inserts were
+ * grouped into JDBC batches.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                // Keep the pollers' queries out of the counts
+                "payment.outbox.poll-interval-ms=3600000",
+                "payment.dlq.replay.interval-ms=3600000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class PaymentCreateStatementsIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Warm-up: first create pays for sequence allocation and metadata queries
+        paymentService.createCardPayment(card(), UUID.randomUUID().toString());
+        statistics.clear();
+    }
+
+    private static CardPaymentRequest card() {
+        return new CardPaymentRequest(new BigDecimal("10.00"), "AUD", "4111111111111111", "Jane Doe", 12, 2030, "123");
+    }
+
+    private static BankPaymentRequest bank() {
+        return new BankPaymentRequest(new BigDecimal("10.00"), "AUD", "12345678", "062000", "Jane Doe", "CBA");
+    }
+
+    @Test
+    void singleCreateInsertsPaymentDetailsAndOutboxEvent() {
+        paymentService.createCardPayment(card(), UUID.randomUUID().toString());
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        // Details share the payment's UUID; the outbox sequence is pooled (one call per 50 events)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void batchCreateGroupsInsertsPerTable() {
+        List<BatchPaymentItem> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            items.add(i % 2 == 0
+                    ? new BatchPaymentItem(UUID.randomUUID().toString(), card(), null)
+                    : new BatchPaymentItem(UUID.randomUUID().toString(), null, bank()));
+        }
+
+        paymentService.createBatch(items);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // Idempotency IN query + one batch per table: payment, card, bank, outbox (+ at most one outbox sequence call)
+        assertThat(statistics.getPrepareStatementCount()).isBetween(5L, 6L);
+    }
+}
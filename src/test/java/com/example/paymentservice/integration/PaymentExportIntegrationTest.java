@@ -0,0 +1,126 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.repository.PaymentExportRow;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
+import com.example.paymentservice.service.PaymentService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reconciliation export against a real database: the filters and order of
+ * the rows, and a client that disconnects mid-export giving its connection back.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = {
+                "payment.outbox.poll-interval-ms=3600000",
+                "payment.dlq.replay.interval-ms=3600000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class PaymentExportIntegrationTest {
+
+    private static final String KEY_PREFIX = "export-fixture-";
+    // Outside every other test's data
+    private static final LocalDateTime DAY = LocalDateTime.of(2003, 6, 1, 0, 0);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    // 3 days of payments, one every 2 minutes; every 4th FAILED
+    @BeforeEach
+    void insertFixture() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 3 * 720; i++) {
+            LocalDateTime createdAt = DAY.minusDays(1).plusMinutes(i * 2L);
+            rows.add(new Object[]{UUID.randomUUID(), "10.00", "AUD", PaymentType.BANK.name(),
+                    (i % 4 == 0 ? PaymentStatus.FAILED : PaymentStatus.SUCCESS).name(),
+                    createdAt, createdAt.plusSeconds(30), KEY_PREFIX + i});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO payment (id, amount, currency, payment_type, status, created_at, updated_at,
+                                     idempotency_key, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)
+                """, rows);
+    }
+
+    @AfterEach
+    void deleteFixture() {
+        jdbcTemplate.update("DELETE FROM payment WHERE idempotency_key LIKE ?", KEY_PREFIX + "%");
+    }
+
+    private static PaymentSearchCriteria day(Set<PaymentStatus> statuses) {
+        return new PaymentSearchCriteria(statuses, null, null, DAY, DAY.plusDays(1), null, null);
+    }
+
+    @Test
+    void exportsOneDayInKeysetOrder() {
+        List<PaymentExportRow> rows = new ArrayList<>();
+
+        paymentService.exportPayments(day(Set.of()), rows::add);
+
+        assertThat(rows).hasSize(720)
+                .allMatch(row -> !row.createdAt().isBefore(DAY) && row.createdAt().isBefore(DAY.plusDays(1)))
+                .isSortedAccordingTo(Comparator.comparing(PaymentExportRow::createdAt)
+                        .thenComparing(PaymentExportRow::id));
+        assertThat(rows.getFirst().idempotencyKey()).isEqualTo(KEY_PREFIX + 720);
+        assertThat(rows.getFirst().updatedAt()).isEqualTo(DAY.plusSeconds(30));
+    }
+
+    @Test
+    void exportsOnlyTheRequestedStatuses() {
+        AtomicInteger failed = new AtomicInteger();
+
+        paymentService.exportPayments(day(Set.of(PaymentStatus.FAILED)), row -> {
+            assertThat(row.status()).isEqualTo(PaymentStatus.FAILED);
+            failed.incrementAndGet();
+        });
+
+        assertThat(failed).hasValue(180);
+    }
+
+    @Test
+    void clientDisconnectEndsTheExportAndReleasesTheConnection() {
+        AtomicInteger written = new AtomicInteger();
+
+        // What the response stream throws once the client has gone
+        assertThatThrownBy(() -> paymentService.exportPayments(day(Set.of()), row -> {
+            if (written.incrementAndGet() == 100) {
+                throw new UncheckedIOException(new IOException("Broken pipe"));
+            }
+        })).isInstanceOf(UncheckedIOException.class);
+
+        assertThat(written).hasValue(100);
+        assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.paymentservice.integration;
 
 import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventDeserializer;
 import com.example.paymentservice.service.PaymentProducer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.UUIDDeserializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +22,8 @@ import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.ContainerTestUtils;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -39,8 +43,8 @@ public class PaymentProducerIntegrationTest {
     @Autowired
     private EmbeddedKafkaBroker embeddedKafkaBroker;
 
-    private KafkaMessageListenerContainer<String, UUID> container;
-    private ConsumerRecord<String, UUID> singleRecord;
+    private KafkaMessageListenerContainer<String, PaymentCreatedEvent> container;
+    private ConsumerRecord<String, PaymentCreatedEvent> singleRecord;
 
     @BeforeEach
     void setUp() {
@@ -50,17 +54,17 @@ public class PaymentProducerIntegrationTest {
         consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "testGroup");
         consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, UUIDDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, PaymentEventDeserializer.class);
 
         // 2️⃣ Create container
         ContainerProperties containerProps = new ContainerProperties("payments");
-        DefaultKafkaConsumerFactory<String, UUID> consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps);
+        DefaultKafkaConsumerFactory<String, PaymentCreatedEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps);
         container = new KafkaMessageListenerContainer<>(consumerFactory, containerProps);
 
         // 3️⃣ Set listener (avoid lambda issue)
-        container.setupMessageListener(new MessageListener<String, UUID>() {
+        container.setupMessageListener(new MessageListener<String, PaymentCreatedEvent>() {
             @Override
-            public void onMessage(ConsumerRecord<String, UUID> record) {
+            public void onMessage(ConsumerRecord<String, PaymentCreatedEvent> record) {
                 singleRecord = record; // capture the message
             }
         });
@@ -80,16 +84,19 @@ public class PaymentProducerIntegrationTest {
     void testSendPaymentEvent() throws InterruptedException {
         // Given
         UUID paymentId = UUID.randomUUID();
+        PaymentCreatedEvent event = new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, paymentId,
+                new BigDecimal("120.50"), "AUD", PaymentType.CARD, "key-1", "card_token", LocalDateTime.now(), "411111");
 
         // When
-        paymentProducer.sendPaymentEvent(paymentId);
+        paymentProducer.sendPaymentEvent(event);
 
         // Small delay to allow the message to arrive
         Thread.sleep(2000);
 
         // Then
         assertThat(singleRecord).isNotNull();
-        assertThat(singleRecord.value()).isEqualTo(paymentId);
+        assertThat(singleRecord.value()).isEqualTo(event);
+        assertThat(singleRecord.key()).isEqualTo("card_token");
         assertThat(singleRecord.topic()).isEqualTo("payments");
     }
 }
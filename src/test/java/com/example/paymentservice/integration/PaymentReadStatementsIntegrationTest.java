@@ -0,0 +1,122 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.PaymentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JDBC statements per payment read, from Hibernate statistics. Details are
+ * mapped from their own side only, so a payment read is one select on the
+ * payment table, however many payments it returns. The response paths select
+ * columns only and load no entity at all.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                // Keep the pollers' queries out of the counts
+                "payment.outbox.poll-interval-ms=3600000",
+                "payment.dlq.replay.interval-ms=3600000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class PaymentReadStatementsIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String cardKey;
+    private UUID cardPaymentId;
+    private UUID bankPaymentId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cardKey = UUID.randomUUID().toString();
+        cardPaymentId = paymentService.createCardPayment(new CardPaymentRequest(
+                new BigDecimal("10.00"), "AUD", "4111111111111111", "Jane Doe", 12, 2030, "123"),
+                cardKey).getPaymentId();
+        bankPaymentId = paymentService.createBankPayment(new BankPaymentRequest(
+                new BigDecimal("10.00"), "AUD", "12345678", "062000", "Jane Doe", "CBA"),
+                UUID.randomUUID().toString()).getPaymentId();
+        statistics.clear();
+    }
+
+    @Test
+    void findByIdLoadsOnlyThePaymentRow() {
+        assertThat(paymentRepository.findById(cardPaymentId)).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIdempotencyKeyLoadsOnlyThePaymentRow() {
+        assertThat(paymentRepository.findByIdempotencyKey(cardKey)).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllIsOneSelectWhateverTheRowCount() {
+        List<?> payments = paymentRepository.findAll();
+
+        assertThat(payments).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(payments.size());
+    }
+
+    @Test
+    void getPaymentByIdIsOneProjectionOnMissAndNothingOnHit() {
+        assertThat(paymentService.getPaymentById(bankPaymentId).getStatus()).isEqualTo("PENDING");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        // Column projection: no managed entity is built
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        paymentService.getPaymentById(bankPaymentId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void idempotentReplayReadsTheResponseColumnsOnly() {
+        assertThat(paymentRepository.findSummaryByIdempotencyKey(cardKey))
+                .hasValueSatisfying(summary -> assertThat(summary.id()).isEqualTo(cardPaymentId));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void instrumentPrefixesForLegacyEventsAreOneSelect() {
+        assertThat(paymentRepository.findInstrumentPrefixes(List.of(cardPaymentId, bankPaymentId)))
+                .extracting("prefix")
+                .containsExactlyInAnyOrder("411111", "062000");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
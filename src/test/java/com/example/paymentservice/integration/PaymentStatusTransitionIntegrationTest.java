@@ -0,0 +1,84 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Status transitions against a real database: the conditional UPDATE decides
+ * a cancel racing the fraud decision, and bumps the version so an entity
+ * update based on an older read is rejected.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(classes = PaymentServiceApplication.class)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class PaymentStatusTransitionIntegrationTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Payment pendingPayment(String key) {
+        return paymentRepository.save(Payment.builder()
+                .amount(new BigDecimal("10.00"))
+                .currency("AUD")
+                .paymentType(PaymentType.CARD)
+                .status(PaymentStatus.PENDING)
+                .idempotencyKey(key)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private int transition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        return transactionTemplate.execute(status ->
+                paymentRepository.transitionStatus(payment.getId(), List.of(from), to, LocalDateTime.now()));
+    }
+
+    @Test
+    void cancelAfterFraudDecisionIsRejectedWithoutOverwritingIt() {
+        Payment payment = pendingPayment("key-transition-1");
+
+        assertThat(transition(payment, PaymentStatus.PENDING, PaymentStatus.SUCCESS)).isEqualTo(1);
+        assertThat(transition(payment, PaymentStatus.PENDING, PaymentStatus.FAILED)).isZero();
+
+        assertThatThrownBy(() -> paymentService.cancelPayment(payment.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void transitionBumpsVersionSoStaleEntityUpdateFails() {
+        Payment stale = pendingPayment("key-transition-2");
+        long version = stale.getVersion();
+
+        assertThat(paymentService.cancelPayment(stale.getId()).getStatus()).isEqualTo("CANCELLED");
+        assertThat(paymentRepository.findById(stale.getId()).orElseThrow().getVersion()).isEqualTo(version + 1);
+
+        stale.setStatus(PaymentStatus.SUCCESS);
+        assertThatThrownBy(() -> paymentRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+}
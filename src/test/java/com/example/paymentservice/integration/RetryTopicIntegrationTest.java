@@ -0,0 +1,82 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.FraudService;
+import com.example.paymentservice.service.PaymentProducer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * A transient failure on the main topic moves the record to the first retry
+ * tier, where it succeeds; nothing reaches the DLQ.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = {
+                "payment.kafka.retry.attempts=3",
+                "payment.kafka.retry.initial-delay-ms=200",
+                "payment.kafka.retry.multiplier=2",
+                "payment.kafka.retry.max-delay-ms=1000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+class RetryTopicIntegrationTest {
+
+    @Autowired
+    private PaymentProducer paymentProducer;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private FraudService fraudService;
+
+    @Test
+    void transientFailureIsRetriedFromRetryTopic() {
+        Payment payment = paymentRepository.save(Payment.builder()
+                .amount(new BigDecimal("10.00"))
+                .currency("AUD")
+                .paymentType(PaymentType.CARD)
+                .status(PaymentStatus.PENDING)
+                .idempotencyKey("key-retry")
+                .createdAt(LocalDateTime.now())
+                .build());
+        doThrow(new IllegalStateException("fraud rules unavailable"))
+                .doCallRealMethod()
+                .when(fraudService).checkFraud(any(PaymentCreatedEvent.class), any());
+
+        paymentProducer.sendPaymentEvent(PaymentCreatedEvent.of(payment, "card_token", null));
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(paymentRepository.findById(payment.getId()))
+                        .hasValueSatisfying(p -> assertThat(p.getStatus()).isEqualTo(PaymentStatus.SUCCESS)));
+        assertThat(meterRegistry.get("payment.kafka.retry.routed")
+                .tag("topic", "payments-retry-200").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.kafka.retry.recovered")
+                .tag("topic", "payments-retry-200").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("payment.dlq.routed").counter()).isNull();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.paymentservice.integration;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Platform vs virtual threads for blocking request handling.
+ *
+ * Boots the service twice - once per {@code spring.threads.virtual.enabled}
+ * value, both with Tomcat capped at {@value #TOMCAT_MAX_THREADS} threads -
+ * and fires {@value #REQUESTS} concurrent requests at an endpoint that blocks
+ * for {@value #BLOCKING_MILLIS} ms, standing in for a JDBC round trip.
+ * Platform threads queue behind the pool (~REQUESTS / MAX_THREADS rounds);
+ * virtual threads park instead, so all requests overlap. Kafka is not needed
+ * and stays switched off.
+ *
+ * Timing-sensitive, so opt-in like the load harness: {@code -Dload.enabled=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+class VirtualThreadLoadComparisonTest {
+
+    private static final int TOMCAT_MAX_THREADS = 5;
+    private static final int REQUESTS = 50;
+    private static final long BLOCKING_MILLIS = 500;
+
+    @Test
+    void virtualThreadsServeBlockingLoadFasterThanBoundedPlatformPool() throws Exception {
+        long platformMillis = runLoad(false);
+        long virtualMillis = runLoad(true);
+
+        log.info("Blocking load, {} requests x {} ms: platform={} ms, virtual={} ms",
+                REQUESTS, BLOCKING_MILLIS, platformMillis, virtualMillis);
+
+        // Floor: platform 10 rounds = 5000 ms, virtual 1 round = 500 ms, both plus per-request CPU.
+        // Blocking time dominates CPU time even on a single-core CI runner.
+        assertThat(virtualMillis * 2).isLessThan(platformMillis);
+    }
+
+    private long runLoad(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                PaymentServiceApplication.class, BlockingEndpointConfig.class)
+                .profiles("test")
+                // Command-line args, so they win over application.yaml
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        "--server.tomcat.accept-count=" + REQUESTS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--spring.jpa.show-sql=false")) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/load-test/blocking");
+
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .executor(clientThreads)
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .build();
+                HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+                // One untimed round warms up both sides and opens the client connections
+                fireConcurrently(client, request);
+
+                long start = System.nanoTime();
+                fireConcurrently(client, request);
+                return (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+    }
+
+    private void fireConcurrently(HttpClient client, HttpRequest request) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            assertThat(response.join().statusCode()).isEqualTo(200);
+        }
+    }
+
+    @TestConfiguration
+    static class BlockingEndpointConfig {
+
+        @Bean
+        RouterFunction<ServerResponse> blockingEndpoint() {
+            return RouterFunctions.route()
+                    .GET("/load-test/blocking", request -> {
+                        Thread.sleep(BLOCKING_MILLIS);
+                        return ServerResponse.ok().body(Thread.currentThread().isVirtual() ? "virtual" : "platform");
+                    })
+                    .build();
+        }
+
+        // Only this path is opened; the service's own chain still guards everything else
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/load-test/**")
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .build();
+        }
+    }
+}
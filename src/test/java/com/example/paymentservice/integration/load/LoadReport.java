@@ -0,0 +1,212 @@
+package com.example.paymentservice.integration.load;
+
+import com.example.paymentservice.integration.load.LoadSettings.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What one measured phase of the load harness saw, and its JSON report.
+ *
+ * Latencies are recorded in microseconds. HTTP latency starts at the intended
+ * send time (so an open-loop run that falls behind shows it instead of hiding
+ * it); create-to-terminal starts at the create's send time and ends when the
+ * status poll first sees SUCCESS or FAILED. Each histogram is also written in
+ * HdrHistogram's compressed form, so runs from different commits can be
+ * merged or plotted with the HdrHistogram tools.
+ */
+class LoadReport {
+
+    static final int TRANSPORT_ERROR = 0;
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    private final Map<Operation, Histogram> latency = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+    private final Histogram createToTerminal = new ConcurrentHistogram(3);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder duplicateMismatches = new LongAdder();
+    private final LongAdder cancelledBeforeDecision = new LongAdder();
+    private long undecided;
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latency.put(operation, new ConcurrentHistogram(3));
+            statuses.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    void recordRequest(Operation operation, int status, long startNanos) {
+        latency.get(operation).recordValue(micros(System.nanoTime() - startNanos));
+        statuses.get(operation).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void recordTerminal(long createStartNanos) {
+        createToTerminal.recordValue(micros(System.nanoTime() - createStartNanos));
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordDuplicateMismatch() {
+        duplicateMismatches.increment();
+    }
+
+    void recordCancelledBeforeDecision() {
+        cancelledBeforeDecision.increment();
+    }
+
+    void setUndecided(long undecided) {
+        this.undecided = undecided;
+    }
+
+    long requests() {
+        return latency.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    long duplicateMismatches() {
+        return duplicateMismatches.sum();
+    }
+
+    long count(Operation operation, int status) {
+        LongAdder count = statuses.get(operation).get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    long transportErrors() {
+        return statuses.values().stream()
+                .flatMap(byStatus -> byStatus.entrySet().stream())
+                .filter(entry -> entry.getKey() == TRANSPORT_ERROR)
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    long serverErrors() {
+        return statuses.values().stream()
+                .flatMap(byStatus -> byStatus.entrySet().stream())
+                .filter(entry -> entry.getKey() >= 500)
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    /**
+     * Writes {@code load-<commit>-<utc timestamp>.json} to the report directory.
+     */
+    Path write(LoadSettings settings, Duration elapsed, String commit) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("commit", commit);
+        report.put("timestamp", Instant.now().toString());
+        report.put("settings", settings(settings));
+        report.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+        report.put("requests", requests());
+        report.put("requestsPerSecond", requests() * 1000.0 / Math.max(1, elapsed.toMillis()));
+        report.put("transportErrors", transportErrors());
+        report.put("serverErrors", serverErrors());
+        report.put("dropped", dropped.sum());
+        report.put("duplicateMismatches", duplicateMismatches.sum());
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        latency.forEach((operation, histogram) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("statuses", counts(statuses.get(operation)));
+            entry.put("latencyMicros", percentiles(histogram));
+            operations.put(operation.name(), entry);
+        });
+        report.put("operations", operations);
+
+        Map<String, Object> terminal = new LinkedHashMap<>();
+        terminal.put("pollMillis", settings.statusPoll().toMillis());
+        terminal.put("cancelledBeforeDecision", cancelledBeforeDecision.sum());
+        terminal.put("undecided", undecided);
+        terminal.put("latencyMicros", percentiles(createToTerminal));
+        report.put("createToTerminal", terminal);
+
+        Files.createDirectories(settings.reportDirectory());
+        Path file = settings.reportDirectory()
+                .resolve("load-" + commit + "-" + FILE_TIMESTAMP.format(Instant.now()) + ".json");
+        MAPPER.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder(String.format("%-18s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        latency.forEach((operation, histogram) -> summary.append(row(operation.name(), histogram)));
+        summary.append(row("CREATE_TO_TERMINAL", createToTerminal));
+        return summary.toString();
+    }
+
+    private static String row(String name, Histogram histogram) {
+        return String.format("%-18s %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(),
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Map<String, Object> settings(LoadSettings settings) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("mode", settings.openLoop() ? "open" : "closed");
+        values.put("warmupSeconds", settings.warmup().toSeconds());
+        values.put("durationSeconds", settings.duration().toSeconds());
+        values.put("ratePerSecond", settings.ratePerSecond());
+        values.put("concurrency", settings.concurrency());
+        values.put("maxInFlight", settings.maxInFlight());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        settings.mix().forEach((operation, weight) -> mix.put(operation.name(), weight));
+        values.put("mix", mix);
+        return values;
+    }
+
+    private static Map<String, Long> counts(Map<Integer, LongAdder> byStatus) {
+        Map<String, Long> counts = new TreeMap<>();
+        byStatus.forEach((status, count) ->
+                counts.put(status == TRANSPORT_ERROR ? "error" : status.toString(), count.sum()));
+        return counts;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getTotalCount());
+        values.put("mean", histogram.getTotalCount() == 0 ? 0 : Math.round(histogram.getMean()));
+        values.put("p50", histogram.getValueAtPercentile(50));
+        values.put("p90", histogram.getValueAtPercentile(90));
+        values.put("p99", histogram.getValueAtPercentile(99));
+        values.put("p99.9", histogram.getValueAtPercentile(99.9));
+        values.put("max", histogram.getMaxValue());
+        ByteBuffer encoded = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(encoded);
+        values.put("hdr", Base64.getEncoder().encodeToString(Arrays.copyOf(encoded.array(), length)));
+        return values;
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.paymentservice.integration.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load harness settings, from {@code -Dload.*} system properties:
+ * <ul>
+ *   <li>{@code load.warmup} / {@code load.duration}: ISO-8601 or seconds (default 5 / 30)</li>
+ *   <li>{@code load.rate}: requests per second, open loop; 0 (default) = closed loop</li>
+ *   <li>{@code load.concurrency}: closed-loop clients (default 8)</li>
+ *   <li>{@code load.max-in-flight}: open-loop cap, arrivals beyond it are counted as dropped (default 1000)</li>
+ *   <li>{@code load.mix}: operation weights, e.g. {@code card=35,bank=25,duplicate=10,get=25,cancel=5}</li>
+ *   <li>{@code load.status-poll}: how often create-to-terminal status is polled (default 10 ms)</li>
+ *   <li>{@code load.report-dir}: where the JSON report goes (default {@code target/load-reports})</li>
+ * </ul>
+ */
+record LoadSettings(
+        Duration warmup,
+        Duration duration,
+        int ratePerSecond,
+        int concurrency,
+        int maxInFlight,
+        Map<Operation, Integer> mix,
+        Duration statusPoll,
+        Path reportDirectory) {
+
+    enum Operation {
+        CARD_CREATE("card"),
+        BANK_CREATE("bank"),
+        DUPLICATE_CREATE("duplicate"),
+        GET("get"),
+        CANCEL("cancel");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown load.mix operation: " + key);
+        }
+    }
+
+    static final String DEFAULT_MIX = "card=35,bank=25,duplicate=10,get=25,cancel=5";
+
+    static LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                duration("load.warmup", "5"),
+                duration("load.duration", "30"),
+                Integer.getInteger("load.rate", 0),
+                Integer.getInteger("load.concurrency", 8),
+                Integer.getInteger("load.max-in-flight", 1000),
+                mix(System.getProperty("load.mix", DEFAULT_MIX)),
+                Duration.ofMillis(Long.getLong("load.status-poll", 10)),
+                Path.of(System.getProperty("load.report-dir", "target/load-reports")));
+    }
+
+    boolean openLoop() {
+        return ratePerSecond > 0;
+    }
+
+    static Map<Operation, Integer> mix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("load.mix entries are operation=weight: " + entry);
+            }
+            mix.put(Operation.of(weight[0].trim().toLowerCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("load.mix weights add up to nothing: " + spec);
+        }
+        return mix;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        String value = System.getProperty(property, defaultValue).trim();
+        return value.startsWith("P") || value.startsWith("p")
+                ? Duration.parse(value)
+                : Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.paymentservice.integration.load;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.integration.load.LoadSettings.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load harness: the whole service (HTTP, security, H2, outbox
+ * relay, embedded Kafka, fraud consumer) under a configurable mix of card and
+ * bank creates, duplicate Idempotency-Key retries, GETs and cancels.
+ *
+ * Opt-in, it does not run with the normal build:
+ * <pre>
+ * ./mvnw test -Dtest=PaymentLoadHarnessTest -Dload.enabled=true -Dload.duration=60 -Dload.rate=200
+ * </pre>
+ * Settings are in {@link LoadSettings}; closed loop by default. Prints a
+ * percentile table and writes a JSON report ({@link LoadReport}) under
+ * {@code target/load-reports}, named after the commit, to compare runs.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // Own database: the run leaves thousands of payments behind
+                "spring.datasource.url=jdbc:h2:mem:load-harness;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.use_sql_comments=false",
+                "server.tomcat.accept-count=1000",
+                "payment.dlq.replay.interval-ms=3600000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+@Import(PaymentLoadHarnessTest.LoadAuthConfig.class)
+@Slf4j
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+class PaymentLoadHarnessTest {
+
+    private static final int KNOWN_PAYMENTS = 10_000;
+    private static final int STATUS_QUERY_BATCH = 500;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern PAYMENT_ID = Pattern.compile("\"paymentId\":\"([0-9a-f-]{36})\"");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private URI base;
+    private HttpClient client;
+    private List<Operation> weightedOperations;
+
+    // Created payments for GET/cancel, and recent creates for duplicate retries; both overwrite the oldest
+    private final AtomicReferenceArray<UUID> knownPayments = new AtomicReferenceArray<>(KNOWN_PAYMENTS);
+    private final AtomicLong knownPaymentCount = new AtomicLong();
+    private final AtomicReferenceArray<SentCreate> recentCreates = new AtomicReferenceArray<>(KNOWN_PAYMENTS);
+    private final AtomicLong recentCreateCount = new AtomicLong();
+
+    // Payment ID -> nanoTime its create was sent, until the poll sees a fraud decision
+    private final Map<UUID, Long> awaitingDecision = new ConcurrentHashMap<>();
+
+    @Test
+    void runLoad() throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        base = URI.create("http://localhost:" + port + "/payments/");
+        weightedOperations = weighted(settings.mix());
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            client = HttpClient.newBuilder()
+                    .executor(clientThreads)
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            // Warm-up results are thrown away, along with the payments still waiting for a decision
+            runPhase(settings, settings.warmup(), new LoadReport(), clientThreads);
+            awaitingDecision.clear();
+
+            LoadReport report = new LoadReport();
+            long start = System.nanoTime();
+            runPhase(settings, settings.duration(), report, clientThreads);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            Path file = report.write(settings, elapsed, commit());
+            log.info("Load run ({} loop, {} s): {} requests, {} req/s, {} 5xx\n{}{}",
+                    settings.openLoop() ? "open" : "closed", settings.duration().toSeconds(), report.requests(),
+                    Math.round(report.requests() * 1000.0 / Math.max(1, elapsed.toMillis())), report.serverErrors(),
+                    report.summary(), file);
+
+            // 4xx/5xx answers are part of the result (see the report); these mean the run itself is broken
+            assertThat(report.count(Operation.CARD_CREATE, 200)).isPositive();
+            assertThat(report.transportErrors()).isZero();
+            assertThat(report.duplicateMismatches()).isZero();
+        }
+    }
+
+    private void runPhase(LoadSettings settings, Duration duration, LoadReport report, ExecutorService clientThreads)
+            throws InterruptedException {
+        ScheduledExecutorService statusPoller = Executors.newSingleThreadScheduledExecutor();
+        statusPoller.scheduleWithFixedDelay(() -> pollDecisions(report),
+                settings.statusPoll().toMillis(), settings.statusPoll().toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            long end = System.nanoTime() + duration.toNanos();
+            if (settings.openLoop()) {
+                openLoop(settings, end, report, clientThreads);
+            } else {
+                closedLoop(settings, end, report, clientThreads);
+            }
+            // Creates sent in this phase still count towards create-to-terminal
+            long drainEnd = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+            while (!awaitingDecision.isEmpty() && System.nanoTime() < drainEnd) {
+                Thread.sleep(settings.statusPoll().toMillis());
+            }
+            report.setUndecided(awaitingDecision.size());
+        } finally {
+            statusPoller.shutdownNow();
+            statusPoller.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    // Sends on a fixed schedule whatever the response times; latency counts from the scheduled send time
+    private void openLoop(LoadSettings settings, long end, LoadReport report, ExecutorService clientThreads)
+            throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        for (long intended = System.nanoTime(); intended < end; intended += interval) {
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                report.recordDropped();
+                continue;
+            }
+            long scheduled = intended;
+            clientThreads.execute(() -> {
+                try {
+                    perform(nextOperation(), scheduled, report);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(settings.maxInFlight());
+    }
+
+    // Each client sends its next request when the previous one is answered
+    private void closedLoop(LoadSettings settings, long end, LoadReport report, ExecutorService clientThreads)
+            throws InterruptedException {
+        Semaphore done = new Semaphore(0);
+        for (int i = 0; i < settings.concurrency(); i++) {
+            clientThreads.execute(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        perform(nextOperation(), System.nanoTime(), report);
+                    }
+                } finally {
+                    done.release();
+                }
+            });
+        }
+        done.acquire(settings.concurrency());
+    }
+
+    private void perform(Operation operation, long startNanos, LoadReport report) {
+        switch (operation) {
+            case CARD_CREATE -> create(Operation.CARD_CREATE, "card", cardBody(), startNanos, report);
+            case BANK_CREATE -> create(Operation.BANK_CREATE, "bank", bankBody(), startNanos, report);
+            case DUPLICATE_CREATE -> {
+                SentCreate original = pick(recentCreates, recentCreateCount);
+                if (original == null) {
+                    create(Operation.CARD_CREATE, "card", cardBody(), startNanos, report);
+                    return;
+                }
+                HttpResponse<String> response = send(Operation.DUPLICATE_CREATE,
+                        post(original.path(), original.idempotencyKey(), original.body()), startNanos, report);
+                if (response != null && response.statusCode() == 200
+                        && !original.paymentId().equals(paymentId(response))) {
+                    report.recordDuplicateMismatch();
+                }
+            }
+            case GET -> {
+                UUID paymentId = pick(knownPayments, knownPaymentCount);
+                if (paymentId == null) {
+                    create(Operation.CARD_CREATE, "card", cardBody(), startNanos, report);
+                    return;
+                }
+                send(Operation.GET, HttpRequest.newBuilder(base.resolve(paymentId.toString()))
+                        .header("Authorization", "Bearer load").GET().build(), startNanos, report);
+            }
+            case CANCEL -> {
+                UUID paymentId = pick(knownPayments, knownPaymentCount);
+                if (paymentId == null) {
+                    create(Operation.CARD_CREATE, "card", cardBody(), startNanos, report);
+                    return;
+                }
+                HttpResponse<String> response = send(Operation.CANCEL,
+                        HttpRequest.newBuilder(base.resolve(paymentId + "/cancel"))
+                                .header("Authorization", "Bearer load")
+                                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                                .build(), startNanos, report);
+                // Cancelled before the consumer got to it: terminal, but not a fraud decision
+                if (response != null && response.statusCode() == 200 && awaitingDecision.remove(paymentId) != null) {
+                    report.recordCancelledBeforeDecision();
+                }
+            }
+        }
+    }
+
+    private void create(Operation operation, String path, String body, long startNanos, LoadReport report) {
+        String idempotencyKey = UUID.randomUUID().toString();
+        HttpResponse<String> response = send(operation, post(path, idempotencyKey, body), startNanos, report);
+        // 202 (async create mode) carries no payment yet; only completed creates are tracked
+        UUID paymentId = response == null || response.statusCode() != 200 ? null : paymentId(response);
+        if (paymentId == null) {
+            return;
+        }
+        awaitingDecision.put(paymentId, startNanos);
+        add(knownPayments, knownPaymentCount, paymentId);
+        add(recentCreates, recentCreateCount, new SentCreate(path, idempotencyKey, body, paymentId));
+    }
+
+    private HttpResponse<String> send(Operation operation, HttpRequest request, long startNanos, LoadReport report) {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            report.recordRequest(operation, response.statusCode(), startNanos);
+            return response;
+        } catch (IOException e) {
+            report.recordRequest(operation, LoadReport.TRANSPORT_ERROR, startNanos);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest post(String path, String idempotencyKey, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer load")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    // Looks up every payment still waiting for a decision, in batches; the poll interval bounds the resolution
+    private void pollDecisions(LoadReport report) {
+        List<UUID> waiting = new ArrayList<>(awaitingDecision.keySet());
+        for (int from = 0; from < waiting.size(); from += STATUS_QUERY_BATCH) {
+            List<UUID> batch = waiting.subList(from, Math.min(waiting.size(), from + STATUS_QUERY_BATCH));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query("SELECT id FROM payment WHERE status IN ('SUCCESS', 'FAILED') AND id IN ("
+                    + placeholders + ")", (rs) -> {
+                Long sent = awaitingDecision.remove(rs.getObject(1, UUID.class));
+                if (sent != null) {
+                    report.recordTerminal(sent);
+                }
+            }, batch.toArray());
+        }
+    }
+
+    private Operation nextOperation() {
+        return weightedOperations.get(ThreadLocalRandom.current().nextInt(weightedOperations.size()));
+    }
+
+    private static List<Operation> weighted(Map<Operation, Integer> mix) {
+        List<Operation> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> operations.addAll(Collections.nCopies(weight, operation)));
+        return operations;
+    }
+
+    private static <T> void add(AtomicReferenceArray<T> ring, AtomicLong count, T value) {
+        ring.set((int) (count.getAndIncrement() % ring.length()), value);
+    }
+
+    private static <T> T pick(AtomicReferenceArray<T> ring, AtomicLong count) {
+        long size = Math.min(count.get(), ring.length());
+        return size == 0 ? null : ring.get(ThreadLocalRandom.current().nextInt((int) size));
+    }
+
+    private static UUID paymentId(HttpResponse<String> response) {
+        Matcher matcher = PAYMENT_ID.matcher(response.body());
+        return matcher.find() ? UUID.fromString(matcher.group(1)) : null;
+    }
+
+    // Amounts up to 20,000 so the amount-over-15000 rule fails a share of them
+    private static String cardBody() {
+        return """
+                {"amount": %s, "currency": "AUD", "cardNumber": "4111111111111111", "cardHolderName": "Jane Doe",
+                 "expiryMonth": 12, "expiryYear": 2030, "cvv": "123"}
+                """.formatted(amount());
+    }
+
+    private static String bankBody() {
+        return """
+                {"amount": %s, "currency": "AUD", "accountNumber": "12345678", "bsb": "062000",
+                 "accountHolderName": "Jane Doe", "bankName": "CBA"}
+                """.formatted(amount());
+    }
+
+    private static String amount() {
+        return String.format("%d.%02d", ThreadLocalRandom.current().nextInt(1, 20_000),
+                ThreadLocalRandom.current().nextInt(100));
+    }
+
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 && !commit.isEmpty() ? commit : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private record SentCreate(String path, String idempotencyKey, String body, UUID paymentId) {
+    }
+
+    @TestConfiguration
+    static class LoadAuthConfig {
+
+        // Every bearer token passes with the payment scopes; the filter chain is the real one
+        @Bean
+        JwtDecoder loadHarnessJwtDecoder() {
+            return token -> {
+                Instant now = Instant.now();
+                return Jwt.withTokenValue(token)
+                        .header("alg", "none")
+                        .subject("load-harness")
+                        .claim("scope", "payment.read payment.write")
+                        .issuedAt(now)
+                        .expiresAt(now.plusSeconds(3600))
+                        .build();
+            };
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-plan regression for GET /payments/search: on a large payment table,
+ * every search shape the API accepts must be answered from an index lookup.
+ * H2's EXPLAIN comments the access path: {@code PUBLIC.IDX_NAME: condition} for an
+ * index lookup. An index name without a condition (walked only for its order) or
+ * {@code tableScan} reads every row.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = PaymentServiceApplication.class,
+        properties = {
+                "payment.outbox.poll-interval-ms=3600000",
+                "payment.dlq.replay.interval-ms=3600000"
+        }
+)
+@EmbeddedKafka(partitions = 1, topics = {"payments", "payments_dlq"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaymentSearchQueryPlanTest {
+
+    private static final int ROWS = 20_000;
+    private static final String KEY_PREFIX = "plan-fixture-";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* PUBLIC\\.\\w+: ");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    // 90 days of payments: 1% PENDING, 9% FAILED, the rest SUCCESS
+    @BeforeAll
+    void insertFixture() {
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            PaymentStatus status = i % 100 == 0 ? PaymentStatus.PENDING
+                    : i % 100 < 10 ? PaymentStatus.FAILED
+                    : PaymentStatus.SUCCESS;
+            LocalDateTime createdAt = START.plusMinutes(i * 6L);
+            rows.add(new Object[]{UUID.randomUUID(), "10.00", i % 3 == 0 ? "USD" : "AUD",
+                    i % 2 == 0 ? PaymentType.CARD.name() : PaymentType.BANK.name(), status.name(),
+                    createdAt, createdAt.plusSeconds(30), KEY_PREFIX + i});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO payment (id, amount, currency, payment_type, status, created_at, updated_at,
+                                     idempotency_key, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)
+                """, rows);
+        // Refresh the optimizer's selectivity statistics
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void deleteFixture() {
+        jdbcTemplate.update("DELETE FROM payment WHERE idempotency_key LIKE ?", KEY_PREFIX + "%");
+    }
+
+    private String plan(PaymentSearchCriteria criteria, PaymentCursor after) {
+        PaymentRepositoryImpl.SearchQuery query = PaymentRepositoryImpl.searchQuery(criteria, after, 51);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class,
+                query.args().toArray()));
+    }
+
+    private static PaymentSearchCriteria criteria(Set<PaymentStatus> statuses, PaymentType type, String currency,
+                                                  LocalDateTime createdFrom, LocalDateTime createdTo,
+                                                  LocalDateTime updatedTo) {
+        return new PaymentSearchCriteria(statuses, type, currency, createdFrom, createdTo, null, updatedTo);
+    }
+
+    static Stream<Arguments> indexedSearches() {
+        LocalDateTime from = START.plusDays(10);
+        LocalDateTime to = START.plusDays(12);
+        return Stream.of(
+                Arguments.of("pending", criteria(Set.of(PaymentStatus.PENDING), null, null, null, null, null)),
+                Arguments.of("stuck pending", criteria(Set.of(PaymentStatus.PENDING), null, null, null, null,
+                        START.plusDays(30))),
+                Arguments.of("pending or failed in a range", criteria(
+                        Set.of(PaymentStatus.PENDING, PaymentStatus.FAILED), null, null, from, to, null)),
+                Arguments.of("failed card payments in AUD", criteria(
+                        Set.of(PaymentStatus.FAILED), PaymentType.CARD, "AUD", null, null, null)),
+                Arguments.of("type and currency in a range", criteria(
+                        Set.of(), PaymentType.BANK, "USD", from, to, null)),
+                Arguments.of("created since", criteria(Set.of(), null, null, from, null, null)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("indexedSearches")
+    void searchUsesAnIndex(String name, PaymentSearchCriteria criteria) {
+        assertThat(criteria.isIndexed()).isTrue();
+        assertThat(plan(criteria, null)).containsPattern(INDEX_LOOKUP);
+        // Later pages add the keyset condition
+        PaymentCursor after = new PaymentCursor(START.plusDays(5), new UUID(0, 0));
+        assertThat(plan(criteria, after)).containsPattern(INDEX_LOOKUP);
+    }
+
+    @Test
+    void exportOfADayUsesAnIndex() {
+        PaymentSearchCriteria day = criteria(Set.of(), null, null, START.plusDays(10), START.plusDays(11), null);
+        PaymentRepositoryImpl.SearchQuery query = PaymentRepositoryImpl.exportQuery(day);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class,
+                query.args().toArray()));
+        assertThat(plan).containsPattern(INDEX_LOOKUP);
+    }
+
+    @Test
+    void unindexedSearchReadsEveryRow() {
+        // What RequestValidator.validateSearch rejects; proves the check above can fail
+        PaymentSearchCriteria criteria = criteria(Set.of(), PaymentType.CARD, "AUD", null, null, null);
+
+        assertThat(criteria.isIndexed()).isFalse();
+        assertThat(plan(criteria, null)).doesNotContainPattern(INDEX_LOOKUP);
+    }
+
+    @Test
+    void searchReturnsMatchingRowsInKeysetOrder() {
+        PaymentSearchCriteria pending = criteria(Set.of(PaymentStatus.PENDING), null, null, null, null, null);
+
+        List<PaymentSummary> first = paymentRepository.search(pending, null, 50);
+        List<PaymentSummary> second = paymentRepository.search(pending, PaymentCursor.after(first.getLast()), 50);
+
+        assertThat(first).hasSize(50);
+        assertThat(second).hasSize(50);
+        assertThat(Stream.concat(first.stream(), second.stream()))
+                .allMatch(summary -> summary.status() == PaymentStatus.PENDING)
+                .isSortedAccordingTo(Comparator.comparing(PaymentSummary::createdAt).thenComparing(PaymentSummary::id))
+                .doesNotHaveDuplicates();
+    }
+}
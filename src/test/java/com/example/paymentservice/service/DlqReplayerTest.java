@@ -0,0 +1,174 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.DlqEntry;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.repository.DlqEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DlqReplayerTest {
+
+    @Mock
+    private DlqEntryRepository dlqEntryRepository;
+
+    @Mock
+    private PaymentProducer paymentProducer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Records when transactions are open, so the test can check no ack is awaited inside one
+    private final List<String> transactions = new ArrayList<>();
+
+    private DlqReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                transactions.add("begin");
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactions.add("commit");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactions.add("rollback");
+            }
+        };
+        // 10/s polled every 500 ms -> at most 5 entries per run
+        replayer = new DlqReplayer(dlqEntryRepository, paymentProducer, new TransactionTemplate(transactionManager),
+                meterRegistry, 10, 500);
+        ReflectionTestUtils.setField(replayer, "sendTimeoutMs", 1000L);
+    }
+
+    private DlqEntry queued(long id) {
+        return DlqEntry.builder().id(id).paymentId(UUID.randomUUID()).status(DlqEntryStatus.REPLAY_QUEUED).build();
+    }
+
+    @Test
+    void replayQueued_shouldClaimAtMostTheRateLimitedBatch_andMarkAcknowledgedEntries() {
+        DlqEntry acked = queued(1);
+        DlqEntry failed = queued(2);
+        when(dlqEntryRepository.findClaimable(eq(DlqEntryStatus.REPLAY_QUEUED), any(), eq(Limit.of(5))))
+                .thenReturn(List.of(acked, failed));
+        when(paymentProducer.sendPaymentEvent(argThat(e -> e != null && e.paymentId().equals(acked.getPaymentId()))))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(paymentProducer.sendPaymentEvent(argThat(e -> e != null && e.paymentId().equals(failed.getPaymentId()))))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(dlqEntryRepository.countByStatus(DlqEntryStatus.REPLAY_QUEUED)).thenReturn(1L);
+
+        replayer.replayQueued();
+
+        // Leased for twice the send timeout, then marked and released in a second transaction
+        verify(dlqEntryRepository).claim(eq(List.of(1L, 2L)),
+                argThat(until -> until.isAfter(LocalDateTime.now().plusNanos(1_500_000_000L))));
+        verify(dlqEntryRepository).markReplayed(eq(List.of(1L)), any(),
+                eq(DlqEntryStatus.REPLAY_QUEUED), eq(DlqEntryStatus.REPLAYED));
+        verify(dlqEntryRepository).release(List.of(2L));
+        assertEquals(List.of("begin", "commit", "begin", "commit"), transactions);
+        assertEquals(1.0, meterRegistry.get("payment.dlq.replayed").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.dlq.replay.failed").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.dlq.replay.queued").gauge().value());
+    }
+
+    @Test
+    void replayQueued_shouldAwaitAcksWithNoTransactionOpen() {
+        DlqEntry entry = queued(1);
+        when(dlqEntryRepository.findClaimable(eq(DlqEntryStatus.REPLAY_QUEUED), any(), eq(Limit.of(5))))
+                .thenReturn(List.of(entry));
+        CompletableFuture<SendResult<String, PaymentCreatedEvent>> ack = new CompletableFuture<>();
+        when(paymentProducer.sendPaymentEvent(any())).thenAnswer(invocation -> {
+            // Acknowledged from another thread once the claim transaction has committed
+            CompletableFuture.runAsync(() -> {
+                assertEquals(List.of("begin", "commit"), List.copyOf(transactions));
+                ack.complete(null);
+            }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            return ack;
+        });
+
+        replayer.replayQueued();
+
+        assertTrue(ack.isDone() && !ack.isCompletedExceptionally());
+        verify(dlqEntryRepository).markReplayed(eq(List.of(1L)), any(),
+                eq(DlqEntryStatus.REPLAY_QUEUED), eq(DlqEntryStatus.REPLAYED));
+        verify(dlqEntryRepository, never()).release(any());
+    }
+
+    @Test
+    void replayQueued_shouldReleaseEntriesWhoseAckMissesTheDeadline() {
+        ReflectionTestUtils.setField(replayer, "sendTimeoutMs", 50L);
+        DlqEntry slow = queued(1);
+        DlqEntry alsoSlow = queued(2);
+        when(dlqEntryRepository.findClaimable(eq(DlqEntryStatus.REPLAY_QUEUED), any(), eq(Limit.of(5))))
+                .thenReturn(List.of(slow, alsoSlow));
+        when(paymentProducer.sendPaymentEvent(any())).thenAnswer(invocation -> new CompletableFuture<>());
+
+        long start = System.nanoTime();
+        replayer.replayQueued();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // One deadline for the batch, not one timeout per entry
+        assertTrue(elapsedMs < 100, "waited " + elapsedMs + " ms");
+        verify(dlqEntryRepository).release(List.of(1L, 2L));
+        verify(dlqEntryRepository, never()).markReplayed(any(), any(), any(), any());
+        assertEquals(2.0, meterRegistry.get("payment.dlq.replay.failed").counter().count());
+    }
+
+    @Test
+    void replayQueued_shouldRepublishLegacyEvent_whenEntryHasNoPayload() {
+        DlqEntry entry = queued(1);
+        when(dlqEntryRepository.findClaimable(eq(DlqEntryStatus.REPLAY_QUEUED), any(), eq(Limit.of(5))))
+                .thenReturn(List.of(entry));
+        when(paymentProducer.sendPaymentEvent(PaymentCreatedEvent.legacy(entry.getPaymentId())))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        replayer.replayQueued();
+
+        verify(dlqEntryRepository).markReplayed(eq(List.of(1L)), any(),
+                eq(DlqEntryStatus.REPLAY_QUEUED), eq(DlqEntryStatus.REPLAYED));
+    }
+
+    @Test
+    void replayQueued_shouldNotOpenASecondTransaction_whenNothingIsQueued() {
+        when(dlqEntryRepository.findClaimable(eq(DlqEntryStatus.REPLAY_QUEUED), any(), eq(Limit.of(5))))
+                .thenReturn(List.of());
+
+        replayer.replayQueued();
+
+        assertEquals(List.of("begin", "commit"), transactions);
+        verifyNoInteractions(paymentProducer);
+        assertEquals(0.0, meterRegistry.get("payment.dlq.replay.queued").gauge().value());
+    }
+}
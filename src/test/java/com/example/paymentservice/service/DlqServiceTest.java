@@ -0,0 +1,128 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.DlqReplayRequest;
+import com.example.paymentservice.entity.DlqEntry;
+import com.example.paymentservice.entity.enums.DlqEntryStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.exception.BadRequestException;
+import com.example.paymentservice.repository.DlqEntryRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DlqServiceTest {
+
+    @Mock
+    private DlqEntryRepository dlqEntryRepository;
+
+    @InjectMocks
+    private DlqService dlqService;
+
+    private PaymentCreatedEvent event() {
+        return new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(),
+                new BigDecimal("10.00"), "AUD", PaymentType.CARD, "key-1", "card_token", LocalDateTime.now(), "411111");
+    }
+
+    @Test
+    void recordFailure_shouldCreateEntryWithPayloadAndCause() {
+        PaymentCreatedEvent event = event();
+        when(dlqEntryRepository.findByPaymentId(event.paymentId())).thenReturn(Optional.empty());
+        when(dlqEntryRepository.save(any(DlqEntry.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        DlqEntry entry = dlqService.recordFailure(event, "PaymentNotFoundException", "x".repeat(5000), 2, 42L);
+
+        assertEquals(DlqEntryStatus.FAILED, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        assertEquals(DlqService.MAX_MESSAGE_LENGTH, entry.getExceptionMessage().length());
+        assertEquals(42L, entry.getSourceOffset());
+        assertNotNull(entry.getPayload());
+        assertEquals(entry.getFirstFailedAt(), entry.getLastFailedAt());
+    }
+
+    @Test
+    void recordFailure_shouldReopenExistingEntry_whenReplayFailsAgain() {
+        PaymentCreatedEvent event = event();
+        LocalDateTime firstFailure = LocalDateTime.of(2026, 1, 1, 9, 0);
+        DlqEntry existing = DlqEntry.builder()
+                .id(7L).paymentId(event.paymentId()).status(DlqEntryStatus.REPLAYED)
+                .attempts(1).replayCount(1).firstFailedAt(firstFailure).lastFailedAt(firstFailure)
+                .build();
+        when(dlqEntryRepository.findByPaymentId(event.paymentId())).thenReturn(Optional.of(existing));
+        when(dlqEntryRepository.save(existing)).thenReturn(existing);
+
+        dlqService.recordFailure(event, "IllegalArgumentException", "Fraud detected", 0, 3L);
+
+        assertEquals(DlqEntryStatus.FAILED, existing.getStatus());
+        assertEquals(2, existing.getAttempts());
+        assertEquals(1, existing.getReplayCount());
+        assertEquals(firstFailure, existing.getFirstFailedAt());
+        assertTrue(existing.getLastFailedAt().isAfter(firstFailure));
+    }
+
+    @Test
+    void queueReplay_shouldQueueByIds_orByFilter() {
+        when(dlqEntryRepository.queueByIds(List.of(1L, 2L), DlqEntryStatus.REPLAY_QUEUED)).thenReturn(2);
+        when(dlqEntryRepository.queueMatching("PaymentNotFoundException", null, null,
+                DlqEntryStatus.FAILED, DlqEntryStatus.REPLAY_QUEUED)).thenReturn(5);
+
+        assertEquals(2, dlqService.queueReplay(DlqReplayRequest.builder().ids(List.of(1L, 2L)).build()));
+        assertEquals(5, dlqService.queueReplay(
+                DlqReplayRequest.builder().exceptionType("PaymentNotFoundException").build()));
+    }
+
+    @Test
+    void queueReplay_shouldRejectRequestWithoutCriteria() {
+        assertThrows(BadRequestException.class, () -> dlqService.queueReplay(new DlqReplayRequest()));
+        verify(dlqEntryRepository, never()).queueMatching(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void consumeDlq_shouldSkipRecordWithoutValue() {
+        DlqConsumer dlqConsumer = new DlqConsumer(dlqService);
+        ConsumerRecord<String, PaymentCreatedEvent> tombstone =
+                new ConsumerRecord<>("payments_dlq", 0, 0L, "key", null);
+
+        assertDoesNotThrow(() -> dlqConsumer.consumeDlq(tombstone));
+        verifyNoInteractions(dlqEntryRepository);
+    }
+
+    @Test
+    void exceptionType_shouldPreferRootCauseHeader() {
+        ConsumerRecord<String, PaymentCreatedEvent> record =
+                new ConsumerRecord<>("payments_dlq", 0, 0L, "key", event());
+        assertEquals(DlqConsumer.UNKNOWN_EXCEPTION, DlqConsumer.exceptionType(record));
+
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_FQCN,
+                "org.springframework.kafka.listener.ListenerExecutionFailedException".getBytes(StandardCharsets.UTF_8));
+        assertEquals("ListenerExecutionFailedException", DlqConsumer.exceptionType(record));
+
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN,
+                "com.example.paymentservice.exception.PaymentNotFoundException".getBytes(StandardCharsets.UTF_8));
+        assertEquals("PaymentNotFoundException", DlqConsumer.exceptionType(record));
+
+        // Retry-topic recoverer: same headers without the dlt- prefix
+        ConsumerRecord<String, PaymentCreatedEvent> retried =
+                new ConsumerRecord<>("payments_dlq", 0, 1L, "key", event());
+        retried.headers().add(KafkaHeaders.EXCEPTION_CAUSE_FQCN,
+                "java.lang.IllegalStateException".getBytes(StandardCharsets.UTF_8));
+        assertEquals("IllegalStateException", DlqConsumer.exceptionType(retried));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.OutboxEvent;
+import com.example.paymentservice.entity.enums.OutboxEventType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventCodec;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PaymentProducer paymentProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, paymentProducer,
+                new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+    }
+
+    private OutboxEvent event(long id) {
+        UUID paymentId = UUID.randomUUID();
+        PaymentCreatedEvent payload = new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, paymentId,
+                new BigDecimal("10.00"), "AUD", null, "key-" + id, null, LocalDateTime.now(), null);
+        return OutboxEvent.builder()
+                .id(id)
+                .paymentId(paymentId)
+                .eventType(OutboxEventType.PAYMENT_CREATED)
+                .createdAt(LocalDateTime.now())
+                .payload(new String(PaymentEventCodec.encode(payload), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private PaymentCreatedEvent payloadOf(OutboxEvent event) {
+        return PaymentEventCodec.decode(event.getPayload().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CompletableFuture<SendResult<String, PaymentCreatedEvent>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Test
+    void relayPendingEvents_shouldPublishInOrderAndDeleteWholeBatch_whenAllAcked() {
+        OutboxEvent e1 = event(1);
+        OutboxEvent e2 = event(2);
+        OutboxEvent e3 = event(3);
+        when(outboxEventRepository.findClaimable(any(), eq(Limit.of(100)))).thenReturn(List.of(e1, e2, e3));
+        when(paymentProducer.sendPaymentEvent(any())).thenReturn(acked());
+
+        outboxRelay.relayPendingEvents();
+
+        InOrder inOrder = inOrder(paymentProducer);
+        inOrder.verify(paymentProducer).sendPaymentEvent(payloadOf(e1));
+        inOrder.verify(paymentProducer).sendPaymentEvent(payloadOf(e2));
+        inOrder.verify(paymentProducer).sendPaymentEvent(payloadOf(e3));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+
+        assertEquals(3.0, meterRegistry.get("payment.outbox.relay.published").counter().count());
+        assertEquals(3.0, meterRegistry.get("payment.outbox.relay.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void relayPendingEvents_shouldKeepFailedEventAndItsSuccessors_whenSendFails() {
+        OutboxEvent e1 = event(1);
+        OutboxEvent e2 = event(2);
+        OutboxEvent e3 = event(3);
+        when(outboxEventRepository.findClaimable(any(), eq(Limit.of(100)))).thenReturn(List.of(e1, e2, e3));
+        when(paymentProducer.sendPaymentEvent(payloadOf(e1))).thenReturn(acked());
+        when(paymentProducer.sendPaymentEvent(payloadOf(e2)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(paymentProducer.sendPaymentEvent(payloadOf(e3))).thenReturn(acked());
+
+        outboxRelay.relayPendingEvents();
+
+        verify(outboxEventRepository).claim(eq(List.of(1L, 2L, 3L)), any());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(outboxEventRepository).release(List.of(2L, 3L));
+        verify(outboxEventRepository, never()).count();
+        assertEquals(2.0, meterRegistry.get("payment.outbox.relay.failed").counter().count());
+        assertEquals(2.0, meterRegistry.get("payment.outbox.depth").gauge().value());
+    }
+
+    @Test
+    void relayPendingEvents_shouldPublishLegacyEvent_whenRowHasNoPayload() {
+        OutboxEvent legacyRow = event(1);
+        legacyRow.setPayload(null);
+        when(outboxEventRepository.findClaimable(any(), eq(Limit.of(100)))).thenReturn(List.of(legacyRow));
+        when(paymentProducer.sendPaymentEvent(any())).thenReturn(acked());
+
+        outboxRelay.relayPendingEvents();
+
+        verify(paymentProducer).sendPaymentEvent(PaymentCreatedEvent.legacy(legacyRow.getPaymentId()));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relayPendingEvents_shouldCommitClaimBeforeWaitingOnAcks() {
+        OutboxEvent e1 = event(1);
+        CompletableFuture<SendResult<String, PaymentCreatedEvent>> pending = new CompletableFuture<>();
+        when(outboxEventRepository.findClaimable(any(), eq(Limit.of(100)))).thenReturn(List.of(e1));
+        when(paymentProducer.sendPaymentEvent(any())).thenAnswer(invocation -> {
+            // The claim transaction must already be closed when the send is issued
+            verify(transactionManager).commit(any());
+            pending.complete(null);
+            return pending;
+        });
+
+        outboxRelay.relayPendingEvents();
+
+        verify(transactionManager, times(2)).commit(any());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relayPendingEvents_shouldCountOutbox_onlyWhenBatchWasFull() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        OutboxEvent e1 = event(1);
+        OutboxEvent e2 = event(2);
+        when(outboxEventRepository.findClaimable(any(), eq(Limit.of(2)))).thenReturn(List.of(e1, e2));
+        when(outboxEventRepository.count()).thenReturn(40L);
+        when(paymentProducer.sendPaymentEvent(any())).thenReturn(acked());
+
+        outboxRelay.relayPendingEvents();
+
+        assertEquals(40.0, meterRegistry.get("payment.outbox.depth").gauge().value());
+    }
+
+    @Test
+    void relayPendingEvents_shouldDoNothing_whenOutboxIsEmpty() {
+        when(outboxEventRepository.findClaimable(any(), eq(Limit.of(100)))).thenReturn(List.of());
+
+        outboxRelay.relayPendingEvents();
+
+        verifyNoInteractions(paymentProducer);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(0.0, meterRegistry.get("payment.outbox.depth").gauge().value());
+    }
+}
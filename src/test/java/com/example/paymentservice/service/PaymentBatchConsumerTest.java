@@ -0,0 +1,184 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.exception.PaymentNotFoundException;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.PaymentStatusUpdate;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.fraud.VelocityStats;
+import com.example.paymentservice.service.fraud.VelocityTracker;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentBatchConsumerTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private DeadLetterPublishingRecoverer paymentDlqRecoverer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PaymentCache paymentCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VelocityTracker velocityTracker;
+
+    private PaymentBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        velocityTracker = new VelocityTracker(meterRegistry, 1000);
+        consumer = new PaymentBatchConsumer(paymentRepository, new FraudService(),
+                paymentDlqRecoverer, new TransactionTemplate(transactionManager), new PaymentMetrics(meterRegistry),
+                velocityTracker, paymentCache);
+        ReflectionTestUtils.setField(consumer, "transactionSize", 2);
+    }
+
+    private PaymentCreatedEvent event(BigDecimal amount) {
+        return new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(), amount, "AUD",
+                PaymentType.CARD, UUID.randomUUID().toString(), "card_token", LocalDateTime.now(), "411111");
+    }
+
+    private ConsumerRecord<String, PaymentCreatedEvent> record(PaymentCreatedEvent event, long offset) {
+        return new ConsumerRecord<>("payments", 0, offset, event.paymentId().toString(), event);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumePayments_shouldUpdateEachTransactionInBulkWithoutLoadingPayments() {
+        PaymentCreatedEvent e1 = event(new BigDecimal("100.00"));
+        PaymentCreatedEvent e2 = event(new BigDecimal("200.00"));
+        PaymentCreatedEvent e3 = event(new BigDecimal("300.00"));
+        when(paymentRepository.batchUpdateStatus(anyList(), eq(PaymentStatus.PENDING)))
+                .thenReturn(new int[]{1, 1})
+                .thenReturn(new int[]{1});
+
+        consumer.consumePayments(List.of(record(e1, 0), record(e2, 1), record(e3, 2)));
+
+        // transaction-size = 2 -> two transactions, one batch write each, no reads
+        verify(paymentRepository, never()).findAllById(anyIterable());
+        verify(paymentRepository, never()).findExistingIds(any());
+        verify(transactionManager, times(2)).commit(any());
+        ArgumentCaptor<List<PaymentStatusUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository, times(2)).batchUpdateStatus(captor.capture(), eq(PaymentStatus.PENDING));
+        assertEquals(List.of(
+                        new PaymentStatusUpdate(e1.paymentId(), PaymentStatus.SUCCESS),
+                        new PaymentStatusUpdate(e2.paymentId(), PaymentStatus.SUCCESS)),
+                captor.getAllValues().get(0));
+        assertEquals(List.of(new PaymentStatusUpdate(e3.paymentId(), PaymentStatus.SUCCESS)),
+                captor.getAllValues().get(1));
+        verifyNoInteractions(paymentDlqRecoverer);
+        assertEquals(3, meterRegistry.get("payment.lifecycle").tag("status", "SUCCESS").timer().count());
+        assertEquals(3, meterRegistry.get("payment.fraud.check").tag("result", "clean").timer().count());
+        assertEquals(1, meterRegistry.get("payment.consumer.process").tag("mode", "batch").timer().count());
+        verify(paymentCache).evictAll(List.of(e1.paymentId(), e2.paymentId()));
+        verify(paymentCache).evictAll(List.of(e3.paymentId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumePayments_shouldRouteOnlyFailedRecordsToDlq() {
+        ReflectionTestUtils.setField(consumer, "transactionSize", 10);
+        PaymentCreatedEvent clean = event(new BigDecimal("100.00"));
+        PaymentCreatedEvent fraud = event(new BigDecimal("20000.00"));
+        PaymentCreatedEvent missing = event(new BigDecimal("50.00"));
+        when(paymentRepository.batchUpdateStatus(anyList(), eq(PaymentStatus.PENDING)))
+                .thenReturn(new int[]{1, 1, 0});
+        when(paymentRepository.findExistingIds(List.of(missing.paymentId()))).thenReturn(List.of());
+
+        ConsumerRecord<String, PaymentCreatedEvent> fraudRecord = record(fraud, 1);
+        ConsumerRecord<String, PaymentCreatedEvent> missingRecord = record(missing, 2);
+        consumer.consumePayments(List.of(record(clean, 0), fraudRecord, missingRecord));
+
+        ArgumentCaptor<List<PaymentStatusUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).batchUpdateStatus(captor.capture(), eq(PaymentStatus.PENDING));
+        assertEquals(List.of(
+                        new PaymentStatusUpdate(clean.paymentId(), PaymentStatus.SUCCESS),
+                        new PaymentStatusUpdate(fraud.paymentId(), PaymentStatus.FAILED),
+                        new PaymentStatusUpdate(missing.paymentId(), PaymentStatus.SUCCESS)),
+                captor.getValue());
+
+        verify(paymentDlqRecoverer).accept(eq(fraudRecord), isA(IllegalArgumentException.class));
+        verify(paymentDlqRecoverer).accept(eq(missingRecord), isA(PaymentNotFoundException.class));
+        verifyNoMoreInteractions(paymentDlqRecoverer);
+    }
+
+    @Test
+    void consumePayments_shouldSkipPaymentsNoLongerPending() {
+        PaymentCreatedEvent processed = event(new BigDecimal("20000.00"));
+        when(paymentRepository.batchUpdateStatus(anyList(), eq(PaymentStatus.PENDING))).thenReturn(new int[]{0});
+        when(paymentRepository.findExistingIds(List.of(processed.paymentId())))
+                .thenReturn(List.of(processed.paymentId()));
+
+        consumer.consumePayments(List.of(record(processed, 0), record(processed, 1)));
+
+        // Redelivered duplicate is collapsed; an already-final payment is not a DLQ case
+        verify(paymentRepository).batchUpdateStatus(
+                List.of(new PaymentStatusUpdate(processed.paymentId(), PaymentStatus.FAILED)), PaymentStatus.PENDING);
+        verifyNoInteractions(paymentDlqRecoverer);
+    }
+
+    @Test
+    void consumePayments_shouldCountVelocityOnce_whenProcessedPaymentIsRedelivered() {
+        PaymentCreatedEvent event = event(new BigDecimal("10.00"));
+        when(paymentRepository.batchUpdateStatus(anyList(), eq(PaymentStatus.PENDING)))
+                .thenReturn(new int[]{1})
+                .thenReturn(new int[]{0});
+        when(paymentRepository.findExistingIds(List.of(event.paymentId()))).thenReturn(List.of(event.paymentId()));
+
+        consumer.consumePayments(List.of(record(event, 0)));
+        // Redelivered in a later poll, e.g. after a rebalance before the offset commit
+        consumer.consumePayments(List.of(record(event, 0)));
+
+        // The card's one payment plus this probe; the redelivery was taken back out
+        VelocityStats probe = velocityTracker.record(0, event.instrumentToken(), BigDecimal.ONE);
+        assertEquals(2, probe.minuteCount());
+        assertEquals(1100, probe.daySum());
+    }
+
+    @Test
+    void consumePayments_shouldLoadPayment_whenEventIsLegacy() {
+        Payment payment = Payment.builder()
+                .id(UUID.randomUUID())
+                .amount(new BigDecimal("100.00"))
+                .currency("AUD")
+                .status(PaymentStatus.PENDING)
+                .build();
+        when(paymentRepository.findAllById(List.of(payment.getId()))).thenReturn(List.of(payment));
+        when(paymentRepository.batchUpdateStatus(anyList(), eq(PaymentStatus.PENDING))).thenReturn(new int[]{1});
+
+        consumer.consumePayments(List.of(record(PaymentCreatedEvent.legacy(payment.getId()), 0)));
+
+        verify(paymentRepository).batchUpdateStatus(
+                List.of(new PaymentStatusUpdate(payment.getId(), PaymentStatus.SUCCESS)), PaymentStatus.PENDING);
+        verifyNoInteractions(paymentDlqRecoverer);
+    }
+}
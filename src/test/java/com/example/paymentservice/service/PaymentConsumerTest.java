@@ -0,0 +1,202 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.config.KafkaConfig;
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.exception.PaymentNotFoundException;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.fraud.FraudRuleDefinition;
+import com.example.paymentservice.service.fraud.FraudRulePlan;
+import com.example.paymentservice.service.fraud.VelocityStats;
+import com.example.paymentservice.service.fraud.VelocityTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentConsumerTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentCache paymentCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final FraudService fraudService = new FraudService();
+
+    private VelocityTracker velocityTracker;
+
+    private PaymentConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        velocityTracker = new VelocityTracker(meterRegistry, 1000);
+        consumer = new PaymentConsumer(paymentRepository, fraudService, new PaymentMetrics(meterRegistry),
+                velocityTracker, paymentCache);
+    }
+
+    private PaymentCreatedEvent event(BigDecimal amount) {
+        return new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(), amount, "AUD",
+                PaymentType.CARD, "key-1", "card_token", LocalDateTime.now(), "411111");
+    }
+
+    @Test
+    void consumePayment_shouldMarkSuccessWithSingleUpdate_whenEventIsClean() {
+        PaymentCreatedEvent event = event(new BigDecimal("100.00"));
+        when(paymentRepository.updateStatusIfCurrent(eq(event.paymentId()), eq(PaymentStatus.PENDING),
+                eq(PaymentStatus.SUCCESS), any())).thenReturn(1);
+
+        consumer.consumePayment(event, 0, KafkaConfig.PAYMENT_TOPIC);
+
+        verify(paymentRepository, never()).findById(any());
+        verifyNoMoreInteractions(paymentRepository);
+        verify(paymentCache).evict(event.paymentId());
+    }
+
+    @Test
+    void consumePayment_shouldMarkFailedAndThrow_whenEventIsFraudulent() {
+        PaymentCreatedEvent event = event(new BigDecimal("20000.00"));
+        when(paymentRepository.updateStatusIfCurrent(eq(event.paymentId()), eq(PaymentStatus.PENDING),
+                eq(PaymentStatus.FAILED), any())).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> consumer.consumePayment(event, 0, KafkaConfig.PAYMENT_TOPIC));
+        assertEquals(1, meterRegistry.get("payment.fraud.check").tag("result", "fraud").timer().count());
+        assertEquals(1, meterRegistry.get("payment.lifecycle").tag("status", "FAILED").timer().count());
+        assertEquals(1, meterRegistry.get("payment.consumer.process").tag("mode", "single").timer().count());
+    }
+
+    @Test
+    void consumePayment_shouldFailThirdPaymentOfACardWithinAMinute_whenVelocityRuleIsActive() {
+        fraudService.updateRules(FraudRulePlan.compile(List.of(new FraudRuleDefinition("card-burst",
+                FraudRuleDefinition.Kind.VELOCITY_COUNT, null, null, null, null, null, null,
+                Duration.ofMinutes(1), 2))));
+        when(paymentRepository.updateStatusIfCurrent(any(), eq(PaymentStatus.PENDING), any(), any()))
+                .thenReturn(1);
+
+        consumer.consumePayment(event(new BigDecimal("10.00")), 0, KafkaConfig.PAYMENT_TOPIC);
+        consumer.consumePayment(event(new BigDecimal("10.00")), 0, KafkaConfig.PAYMENT_TOPIC);
+        PaymentCreatedEvent third = event(new BigDecimal("10.00"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> consumer.consumePayment(third, 0, KafkaConfig.PAYMENT_TOPIC));
+        verify(paymentRepository).updateStatusIfCurrent(eq(third.paymentId()), eq(PaymentStatus.PENDING),
+                eq(PaymentStatus.FAILED), any());
+    }
+
+    @Test
+    void consumePayment_shouldNotCountVelocityAgainAndRecordRecovery_whenDeliveredFromRetryTier() {
+        fraudService.updateRules(FraudRulePlan.compile(List.of(new FraudRuleDefinition("card-burst",
+                FraudRuleDefinition.Kind.VELOCITY_COUNT, null, null, null, null, null, null,
+                Duration.ofMinutes(1), 1))));
+        when(paymentRepository.updateStatusIfCurrent(any(), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCESS),
+                any())).thenReturn(1);
+
+        consumer.consumePayment(event(new BigDecimal("10.00")), 0, KafkaConfig.PAYMENT_TOPIC);
+        consumer.consumePayment(event(new BigDecimal("10.00")), 0, "payments-retry-1000");
+
+        assertEquals(1, meterRegistry.get("payment.kafka.retry.recovered")
+                .tag("topic", "payments-retry-1000").counter().count());
+    }
+
+    @Test
+    void consumePayment_shouldCountVelocityOnce_whenProcessedPaymentIsRedelivered() {
+        PaymentCreatedEvent event = event(new BigDecimal("10.00"));
+        when(paymentRepository.updateStatusIfCurrent(eq(event.paymentId()), eq(PaymentStatus.PENDING), any(), any()))
+                .thenReturn(1)
+                .thenReturn(0);
+        when(paymentRepository.findExistingIds(List.of(event.paymentId()))).thenReturn(List.of(event.paymentId()));
+
+        consumer.consumePayment(event, 0, KafkaConfig.PAYMENT_TOPIC);
+        // Redelivered from the main topic, e.g. after a rebalance before the offset commit
+        consumer.consumePayment(event, 0, KafkaConfig.PAYMENT_TOPIC);
+
+        // The card's one payment plus this probe; the redelivery was taken back out
+        VelocityStats probe = velocityTracker.record(0, event.instrumentToken(), BigDecimal.ONE);
+        assertEquals(2, probe.minuteCount());
+        assertEquals(1100, probe.daySum());
+    }
+
+    @Test
+    void consumePayment_shouldIgnore_whenPaymentNoLongerPending() {
+        PaymentCreatedEvent event = event(new BigDecimal("100.00"));
+        when(paymentRepository.updateStatusIfCurrent(any(), any(), any(), any())).thenReturn(0);
+        when(paymentRepository.findExistingIds(List.of(event.paymentId()))).thenReturn(List.of(event.paymentId()));
+
+        assertDoesNotThrow(() -> consumer.consumePayment(event, 0, KafkaConfig.PAYMENT_TOPIC));
+        assertEquals(0, meterRegistry.get("payment.lifecycle").tag("status", "SUCCESS").timer().count());
+        verifyNoInteractions(paymentCache);
+    }
+
+    @Test
+    void consumePayment_shouldThrowNotFound_whenPaymentDoesNotExist() {
+        PaymentCreatedEvent event = event(new BigDecimal("100.00"));
+        when(paymentRepository.updateStatusIfCurrent(any(), any(), any(), any())).thenReturn(0);
+        when(paymentRepository.findExistingIds(List.of(event.paymentId()))).thenReturn(List.of());
+
+        assertThrows(PaymentNotFoundException.class,
+                () -> consumer.consumePayment(event, 0, KafkaConfig.PAYMENT_TOPIC));
+    }
+
+    @Test
+    void consumePayment_shouldLoadPayment_whenEventIsLegacy() {
+        Payment payment = Payment.builder()
+                .id(UUID.randomUUID())
+                .amount(new BigDecimal("100.00"))
+                .currency("AUD")
+                .status(PaymentStatus.PENDING)
+                .build();
+        when(paymentRepository.findById(payment.getId())).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatusIfCurrent(eq(payment.getId()), eq(PaymentStatus.PENDING),
+                eq(PaymentStatus.SUCCESS), any())).thenReturn(1);
+
+        consumer.consumePayment(PaymentCreatedEvent.legacy(payment.getId()), 0, KafkaConfig.PAYMENT_TOPIC);
+
+        verify(paymentRepository).findById(payment.getId());
+    }
+
+    @Test
+    void consumePayment_shouldApplyBlocklist_whenEventIsLegacy() {
+        fraudService.updateRules(FraudRulePlan.compile(List.of(new FraudRuleDefinition("blocked-bin",
+                FraudRuleDefinition.Kind.CARD_BIN_BLOCKLIST, null, null, null, null, null, List.of("411111"),
+                null, null))));
+        Payment payment = Payment.builder()
+                .id(UUID.randomUUID())
+                .amount(new BigDecimal("100.00"))
+                .currency("AUD")
+                .paymentType(PaymentType.CARD)
+                .status(PaymentStatus.PENDING)
+                .build();
+        when(paymentRepository.findById(payment.getId())).thenReturn(Optional.of(payment));
+        // The prefix comes from the details table; the payment row does not carry it
+        when(paymentRepository.findInstrumentPrefix(payment.getId())).thenReturn("411111");
+        when(paymentRepository.updateStatusIfCurrent(eq(payment.getId()), eq(PaymentStatus.PENDING),
+                eq(PaymentStatus.FAILED), any())).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                consumer.consumePayment(PaymentCreatedEvent.legacy(payment.getId()), 0, KafkaConfig.PAYMENT_TOPIC));
+
+        verify(paymentRepository).updateStatusIfCurrent(eq(payment.getId()), eq(PaymentStatus.PENDING),
+                eq(PaymentStatus.FAILED), any());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.exception.PaymentInProgressException;
+import com.example.paymentservice.exception.PaymentOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentCreateExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PaymentCreateExecutor executor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        executor.destroy();
+    }
+
+    private PaymentCreateExecutor async(int threads, int queueCapacity, Duration respondWithin) {
+        return async(threads, queueCapacity, respondWithin, Duration.ofMinutes(10), false);
+    }
+
+    private PaymentCreateExecutor async(int threads, int queueCapacity, Duration respondWithin,
+                                        Duration failureTtl, boolean virtualThreads) {
+        executor = new PaymentCreateExecutor(meterRegistry, "async", threads, queueCapacity, respondWithin,
+                failureTtl, virtualThreads);
+        return executor;
+    }
+
+    private void awaitDone(String idempotencyKey) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.isInFlight(idempotencyKey) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static PaymentResponse payment() {
+        return PaymentResponse.builder().paymentId(UUID.randomUUID()).status("PENDING").build();
+    }
+
+    // Stands in for a create stuck on the database until the test lets it go
+    private PaymentResponse blockedCreate() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return payment();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<PaymentResponse> await(DeferredResult<ResponseEntity<PaymentResponse>> result)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return (ResponseEntity<PaymentResponse>) result.getResult();
+    }
+
+    @Test
+    void syncMode_shouldCreateOnTheCallingThread() {
+        executor = new PaymentCreateExecutor(meterRegistry, "sync", 1, 1, Duration.ofSeconds(2),
+                Duration.ofMinutes(10), false);
+        Thread caller = Thread.currentThread();
+
+        DeferredResult<ResponseEntity<PaymentResponse>> result = executor.execute("key", () -> {
+            assertSame(caller, Thread.currentThread());
+            return payment();
+        });
+
+        assertTrue(result.hasResult());
+    }
+
+    @Test
+    void asyncMode_shouldAnswer200WhenTheCreateFinishesInTime() throws InterruptedException {
+        PaymentResponse payment = payment();
+
+        ResponseEntity<PaymentResponse> response = await(async(2, 10, Duration.ofSeconds(5))
+                .execute("key", () -> payment));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(payment, response.getBody());
+        assertFalse(executor.isInFlight("key"));
+    }
+
+    @Test
+    void asyncMode_shouldAnswer202WithStatusUrlWhileTheCreateIsStillRunning() throws InterruptedException {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = async(1, 10, Duration.ofMillis(50))
+                .execute("slow key", this::blockedCreate);
+
+        ResponseEntity<PaymentResponse> response = await(result);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(URI.create("/payments/requests/slow%20key"), response.getHeaders().getLocation());
+        assertTrue(executor.isInFlight("slow key"));
+        assertEquals(1.0, meterRegistry.get("payment.create.async.accepted").counter().count());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.isInFlight("slow key") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(executor.isInFlight("slow key"));
+    }
+
+    @Test
+    void asyncMode_shouldRejectWhenThreadsAndQueueAreFull() {
+        async(1, 1, Duration.ofSeconds(5));
+        executor.execute("running", this::blockedCreate);
+        executor.execute("queued", this::blockedCreate);
+
+        assertThrows(PaymentOverloadedException.class, () -> executor.execute("rejected", this::blockedCreate));
+        assertFalse(executor.isInFlight("rejected"));
+        assertEquals(1.0, meterRegistry.get("payment.create.async.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.create.async.queued").gauge().value());
+    }
+
+    @Test
+    void asyncMode_shouldPassCreateFailuresToTheErrorHandlers() throws InterruptedException {
+        PaymentInProgressException failure = new PaymentInProgressException("still being processed");
+
+        DeferredResult<ResponseEntity<PaymentResponse>> result = async(1, 10, Duration.ofSeconds(5))
+                .execute("key", () -> {
+                    throw failure;
+                });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(failure, result.getResult());
+    }
+
+    @Test
+    void asyncMode_shouldKeepAFailureAfterThe202ForTheStatusUrl() throws InterruptedException {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = async(1, 10, Duration.ofMillis(50))
+                .execute("key", () -> {
+                    blockedCreate();
+                    throw new IllegalStateException("insert failed");
+                });
+        assertEquals(HttpStatus.ACCEPTED, await(result).getStatusCode());
+        assertTrue(executor.failure("key").isEmpty());
+
+        release.countDown();
+        awaitDone("key");
+
+        PaymentCreateExecutor.CreateFailure failure = executor.failure("key").orElseThrow();
+        assertEquals("IllegalStateException", failure.type());
+        assertEquals("insert failed", failure.message());
+    }
+
+    @Test
+    void asyncMode_shouldForgetAFailureAfterItsTtl() throws InterruptedException {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = async(1, 10, Duration.ofMillis(50), Duration.ZERO, false)
+                .execute("key", () -> {
+                    blockedCreate();
+                    throw new IllegalStateException("insert failed");
+                });
+        await(result);
+
+        release.countDown();
+        awaitDone("key");
+
+        assertTrue(executor.failure("key").isEmpty());
+    }
+
+    @Test
+    void asyncMode_shouldRunOnVirtualThreadsWhenEnabled() throws InterruptedException {
+        ResponseEntity<PaymentResponse> response = await(async(1, 10, Duration.ofSeconds(5), Duration.ofMinutes(10), true)
+                .execute("key", () -> {
+                    assertTrue(Thread.currentThread().isVirtual());
+                    assertTrue(Thread.currentThread().getName().startsWith("payment-create-"));
+                    return payment();
+                }));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+}
@@ -2,13 +2,42 @@ package com.example.paymentservice.service;
 
 
 import com.example.paymentservice.dto.BankPaymentRequest;
+import com.example.paymentservice.dto.BatchPaymentItem;
+import com.example.paymentservice.dto.BatchPaymentItemResult;
+import com.example.paymentservice.dto.BatchPaymentResponse;
 import com.example.paymentservice.dto.CardPaymentRequest;
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.BankPaymentDetails;
 import com.example.paymentservice.entity.CardPaymentDetails;
+import com.example.paymentservice.entity.OutboxEvent;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.PaymentIdempotencyKey;
+import com.example.paymentservice.entity.enums.OutboxEventType;
 import com.example.paymentservice.entity.enums.PaymentStatus;
 import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.event.PaymentEventCodec;
+import com.example.paymentservice.exception.BadRequestException;
+import com.example.paymentservice.exception.PaymentInProgressException;
+import com.example.paymentservice.repository.BankPaymentRepository;
+import com.example.paymentservice.repository.CardPaymentRepository;
+import com.example.paymentservice.repository.KeyedPaymentSummary;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import com.example.paymentservice.repository.PaymentCursor;
+import com.example.paymentservice.repository.PaymentIdempotencyKeyRepository;
 import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
+import com.example.paymentservice.repository.PaymentSummary;
+import com.example.paymentservice.service.archive.ArchivedPayment;
+import com.example.paymentservice.service.archive.PaymentArchive;
+import com.example.paymentservice.service.cache.LocalPaymentCache;
+import com.example.paymentservice.service.cache.PaymentCache;
+import com.example.paymentservice.service.idempotency.IdempotencyReservation;
+import com.example.paymentservice.service.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -18,14 +47,26 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,7 +78,40 @@ class PaymentServiceTest {
     private PaymentRepository paymentRepository;
 
     @Mock
-    private PaymentProducer paymentProducer;
+    private CardPaymentRepository cardPaymentRepository;
+
+    @Mock
+    private BankPaymentRepository bankPaymentRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private InstrumentTokenizer instrumentTokenizer = new InstrumentTokenizer("test-key");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PaymentMetrics paymentMetrics = new PaymentMetrics(meterRegistry);
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private PaymentCache paymentCache =
+            new LocalPaymentCache(meterRegistry, 100, Duration.ofMinutes(10), Duration.ofSeconds(2));
+
+    @Mock
+    private PaymentArchive paymentArchive;
+
+    @Mock
+    private PaymentIdempotencyKeyRepository idempotencyKeyRepository;
 
     @InjectMocks
     private PaymentService paymentService;
@@ -47,6 +121,7 @@ class PaymentServiceTest {
 
     private static final String CARD_IDEMPOTENCY_KEY = "idem-123";
     private static final String BANK_IDEMPOTENCY_KEY = "bank-idem-1";
+    private static final String LEASE = "IN_PROGRESS:lease";
 
     @BeforeEach
     void setUp() {
@@ -73,8 +148,28 @@ class PaymentServiceTest {
     // ----------------------
     // Helper Methods
     // ----------------------
+
+    // Applies a transition to the payment the way the conditional UPDATE would, and serves the read-back
+    private void stubTransition(Payment payment) {
+        when(paymentRepository.transitionStatus(eq(payment.getId()), any(), any(), any())).thenAnswer(inv -> {
+            Collection<PaymentStatus> from = inv.getArgument(1);
+            if (!from.contains(payment.getStatus())) {
+                return 0;
+            }
+            payment.setStatus(inv.getArgument(2));
+            payment.setUpdatedAt(inv.getArgument(3));
+            return 1;
+        });
+        when(paymentRepository.findSummaryById(payment.getId())).thenAnswer(inv -> Optional.of(summaryOf(payment)));
+    }
+
+    private static PaymentSummary summaryOf(Payment payment) {
+        return new PaymentSummary(payment.getId(), payment.getStatus(), payment.getAmount(),
+                payment.getCurrency(), payment.getCreatedAt());
+    }
+
     private Payment buildPayment(UUID id, PaymentType type, PaymentStatus status, BigDecimal amount) {
-        Payment payment = Payment.builder()
+        return Payment.builder()
                 .id(id)
                 .amount(amount)
                 .currency("AUD")
@@ -82,17 +177,24 @@ class PaymentServiceTest {
                 .status(status)
                 .createdAt(LocalDateTime.now())
                 .build();
-        if (type == PaymentType.CARD) {
-            payment.setCardPaymentDetails(CardPaymentDetails.builder()
-                    .cardNumber("4111111111111111")
-                    .cardHolderName("John Doe")
-                    .expiryMonth(12)
-                    .expiryYear(2028)
-                    .cvv("123")
-                    .payment(payment)
-                    .build());
-        }
-        return payment;
+    }
+
+    private void verifyPaymentCreatedQueued(UUID paymentId) {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        assertEquals(paymentId, captor.getValue().getPaymentId());
+        assertEquals(OutboxEventType.PAYMENT_CREATED, captor.getValue().getEventType());
+
+        // Self-contained event: the consumer must not need to load the payment
+        PaymentCreatedEvent event = PaymentEventCodec.decode(
+                captor.getValue().getPayload().getBytes(StandardCharsets.UTF_8));
+        assertEquals(PaymentCreatedEvent.CURRENT_VERSION, event.version());
+        assertEquals(paymentId, event.paymentId());
+        assertNotNull(event.amount());
+        assertNotNull(event.instrumentToken());
+        assertNotNull(event.instrumentPrefix());
+        assertFalse(captor.getValue().getPayload().contains("4111111111111111"), "raw card number leaked");
+        assertFalse(captor.getValue().getPayload().contains("12345678"), "raw account number leaked");
     }
 
     private void assertPaymentResponse(PaymentResponse response, Payment payment) {
@@ -109,9 +211,9 @@ class PaymentServiceTest {
     class CardPaymentTests {
 
         @Test
-        void createCardPayment_shouldCreatePaymentAndPublishEvent_whenNewRequest() {
-            when(paymentRepository.findByIdempotencyKey(CARD_IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
-            when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> {
+        void createCardPayment_shouldCreatePaymentAndQueueEvent_whenNewRequest() {
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> {
                 Payment p = inv.getArgument(0);
                 p.setId(UUID.randomUUID());
                 return p;
@@ -120,43 +222,117 @@ class PaymentServiceTest {
             PaymentResponse response = paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY);
 
             ArgumentCaptor<Payment> captor = ArgumentCaptor.forClass(Payment.class);
-            verify(paymentRepository).save(captor.capture());
+            verify(paymentRepository).saveAndFlush(captor.capture());
             Payment savedPayment = captor.getValue();
 
             assertEquals(PaymentType.CARD, savedPayment.getPaymentType());
             assertEquals(PaymentStatus.PENDING, savedPayment.getStatus());
-            assertNotNull(savedPayment.getCardPaymentDetails());
-            assertEquals(savedPayment, savedPayment.getCardPaymentDetails().getPayment());
+            ArgumentCaptor<CardPaymentDetails> details = ArgumentCaptor.forClass(CardPaymentDetails.class);
+            verify(cardPaymentRepository).save(details.capture());
+            assertEquals(savedPayment, details.getValue().getPayment());
+            verifyNoInteractions(bankPaymentRepository);
 
-            verify(paymentProducer).sendPaymentEvent(savedPayment.getId());
+            verifyPaymentCreatedQueued(savedPayment.getId());
             assertPaymentResponse(response, savedPayment);
+            verify(idempotencyStore).complete(CARD_IDEMPOTENCY_KEY, response);
+            verify(paymentRepository, never()).findSummaryByIdempotencyKey(any());
+            assertEquals(1, meterRegistry.get("payment.idempotency.lookup").tag("outcome", "ACQUIRED").timer().count());
+            assertEquals(1, meterRegistry.get("payment.db.save").timer().count());
+            verifyNoInteractions(idempotencyKeyRepository);
         }
 
         @Test
-        void createCardPayment_shouldReturnExistingPayment_whenIdempotencyKeyExists() {
-            Payment existing = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.PENDING, new BigDecimal("50.00"));
-            when(paymentRepository.findByIdempotencyKey(CARD_IDEMPOTENCY_KEY)).thenReturn(Optional.of(existing));
+        void createCardPayment_shouldReplayStoredResponse_withoutTouchingDatabase() {
+            PaymentResponse stored = PaymentResponse.builder()
+                    .paymentId(UUID.randomUUID())
+                    .status(PaymentStatus.PENDING.name())
+                    .amount(new BigDecimal("50.00"))
+                    .currency("AUD")
+                    .build();
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.completed(stored));
 
             PaymentResponse response = paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY);
 
-            verify(paymentRepository, never()).save(any());
-            verify(paymentProducer, never()).sendPaymentEvent(any());
-            assertPaymentResponse(response, existing);
+            assertSame(stored, response);
+            verifyNoInteractions(paymentRepository, outboxEventRepository);
+            verify(idempotencyStore, never()).complete(any(), any());
+            assertEquals(1.0, meterRegistry.get("payment.idempotency.replays").tag("type", "CARD").counter().count());
+            assertEquals(0, meterRegistry.get("payment.db.save").timer().count());
+        }
+
+        @Test
+        void createCardPayment_shouldRejectFast_whenSameKeyIsInFlight() {
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.inProgress());
+
+            assertThrows(PaymentInProgressException.class,
+                    () -> paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY));
+
+            verifyNoInteractions(paymentRepository, outboxEventRepository);
+            verify(idempotencyStore, never()).release(any(), any());
         }
 
         @Test
         void createCardPayment_shouldReturnExistingPayment_whenRaceConditionOccurs() {
             Payment existing = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.PENDING, new BigDecimal("75.00"));
-            when(paymentRepository.findByIdempotencyKey(CARD_IDEMPOTENCY_KEY))
-                    .thenReturn(Optional.empty())
-                    .thenReturn(Optional.of(existing));
-            when(paymentRepository.save(any(Payment.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.findSummaryByIdempotencyKey(CARD_IDEMPOTENCY_KEY)).thenReturn(Optional.of(summaryOf(existing)));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+            PaymentResponse response = paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY);
+
+            verify(outboxEventRepository, never()).save(any());
+            assertPaymentResponse(response, existing);
+            verify(idempotencyStore).complete(CARD_IDEMPOTENCY_KEY, response);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void createCardPayment_shouldClaimKeyTableWide_whenPaymentTableIsPartitioned() {
+            ReflectionTestUtils.setField(paymentService, "partitioned", true);
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> {
+                Payment p = inv.getArgument(0);
+                p.setId(UUID.randomUUID());
+                return p;
+            });
+
+            PaymentResponse response = paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY);
+
+            ArgumentCaptor<List<PaymentIdempotencyKey>> keys = ArgumentCaptor.forClass(List.class);
+            verify(idempotencyKeyRepository).saveAllAndFlush(keys.capture());
+            assertEquals(1, keys.getValue().size());
+            assertEquals(CARD_IDEMPOTENCY_KEY, keys.getValue().get(0).getIdempotencyKey());
+            assertEquals(response.getPaymentId(), keys.getValue().get(0).getPaymentId());
+        }
+
+        @Test
+        void createCardPayment_shouldReturnExistingPayment_whenKeyWasUsedInAnEarlierPartition() {
+            ReflectionTestUtils.setField(paymentService, "partitioned", true);
+            Payment existing = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.SUCCESS, new BigDecimal("75.00"));
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.findSummaryByIdempotencyKey(CARD_IDEMPOTENCY_KEY)).thenReturn(Optional.of(summaryOf(existing)));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(idempotencyKeyRepository.saveAllAndFlush(anyList()))
+                    .thenThrow(new DataIntegrityViolationException("duplicate key"));
 
             PaymentResponse response = paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY);
 
-            verify(paymentProducer, never()).sendPaymentEvent(any());
+            verify(cardPaymentRepository, never()).save(any());
+            verify(outboxEventRepository, never()).save(any());
             assertPaymentResponse(response, existing);
         }
+
+        @Test
+        void createCardPayment_shouldReleaseKey_whenInsertFails() {
+            when(idempotencyStore.reserve(CARD_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new IllegalStateException("db down"));
+
+            assertThrows(IllegalStateException.class,
+                    () -> paymentService.createCardPayment(validCardPaymentRequest, CARD_IDEMPOTENCY_KEY));
+
+            verify(idempotencyStore).release(CARD_IDEMPOTENCY_KEY, LEASE);
+            verify(idempotencyStore, never()).complete(any(), any());
+        }
     }
 
     // ----------------------
@@ -166,9 +342,9 @@ class PaymentServiceTest {
     class BankPaymentTests {
 
         @Test
-        void createBankPayment_shouldCreatePaymentAndPublishEvent_whenNewRequest() {
-            when(paymentRepository.findByIdempotencyKey(BANK_IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
-            when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> {
+        void createBankPayment_shouldCreatePaymentAndQueueEvent_whenNewRequest() {
+            when(idempotencyStore.reserve(BANK_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> {
                 Payment p = inv.getArgument(0);
                 p.setId(UUID.randomUUID());
                 return p;
@@ -177,45 +353,174 @@ class PaymentServiceTest {
             PaymentResponse response = paymentService.createBankPayment(validBankRequest, BANK_IDEMPOTENCY_KEY);
 
             ArgumentCaptor<Payment> captor = ArgumentCaptor.forClass(Payment.class);
-            verify(paymentRepository).save(captor.capture());
+            verify(paymentRepository).saveAndFlush(captor.capture());
             Payment saved = captor.getValue();
 
             assertEquals(PaymentType.BANK, saved.getPaymentType());
             assertEquals(PaymentStatus.PENDING, saved.getStatus());
-            assertNotNull(saved.getBankPaymentDetails());
-            assertEquals(saved, saved.getBankPaymentDetails().getPayment());
+            ArgumentCaptor<BankPaymentDetails> details = ArgumentCaptor.forClass(BankPaymentDetails.class);
+            verify(bankPaymentRepository).save(details.capture());
+            assertEquals(saved, details.getValue().getPayment());
+            verifyNoInteractions(cardPaymentRepository);
 
-            verify(paymentProducer).sendPaymentEvent(saved.getId());
+            verifyPaymentCreatedQueued(saved.getId());
             assertPaymentResponse(response, saved);
+            verify(idempotencyStore).complete(BANK_IDEMPOTENCY_KEY, response);
         }
 
         @Test
-        void createBankPayment_shouldReturnExistingPayment_whenIdempotencyKeyExists() {
-            Payment existing = buildPayment(UUID.randomUUID(), PaymentType.BANK, PaymentStatus.PENDING, new BigDecimal("250.00"));
-            when(paymentRepository.findByIdempotencyKey(BANK_IDEMPOTENCY_KEY)).thenReturn(Optional.of(existing));
+        void createBankPayment_shouldReplayStoredResponse_withoutTouchingDatabase() {
+            PaymentResponse stored = PaymentResponse.builder()
+                    .paymentId(UUID.randomUUID())
+                    .status(PaymentStatus.SUCCESS.name())
+                    .amount(new BigDecimal("250.00"))
+                    .currency("AUD")
+                    .build();
+            when(idempotencyStore.reserve(BANK_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.completed(stored));
 
             PaymentResponse response = paymentService.createBankPayment(validBankRequest, BANK_IDEMPOTENCY_KEY);
 
-            verify(paymentRepository, never()).save(any());
-            verify(paymentProducer, never()).sendPaymentEvent(any());
-            assertPaymentResponse(response, existing);
+            assertSame(stored, response);
+            verifyNoInteractions(paymentRepository, outboxEventRepository);
         }
 
         @Test
         void createBankPayment_shouldReturnExistingPayment_whenRaceConditionOccurs() {
             Payment existing = buildPayment(UUID.randomUUID(), PaymentType.BANK, PaymentStatus.PENDING, new BigDecimal("250.00"));
-            when(paymentRepository.findByIdempotencyKey(BANK_IDEMPOTENCY_KEY))
-                    .thenReturn(Optional.empty())
-                    .thenReturn(Optional.of(existing));
-            when(paymentRepository.save(any(Payment.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+            when(idempotencyStore.reserve(BANK_IDEMPOTENCY_KEY)).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.findSummaryByIdempotencyKey(BANK_IDEMPOTENCY_KEY)).thenReturn(Optional.of(summaryOf(existing)));
+            when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
 
             PaymentResponse response = paymentService.createBankPayment(validBankRequest, BANK_IDEMPOTENCY_KEY);
 
-            verify(paymentProducer, never()).sendPaymentEvent(any());
+            verify(outboxEventRepository, never()).save(any());
             assertPaymentResponse(response, existing);
         }
     }
 
+    // ----------------------
+    // Batch Create Tests
+    // ----------------------
+    @Nested
+    class BatchPaymentTests {
+
+        private BatchPaymentItem card(String key) {
+            return BatchPaymentItem.builder().idempotencyKey(key).card(validCardPaymentRequest).build();
+        }
+
+        private BatchPaymentItem bank(String key) {
+            return BatchPaymentItem.builder().idempotencyKey(key).bank(validBankRequest).build();
+        }
+
+        private List<BatchPaymentItemResult.Outcome> outcomes(BatchPaymentResponse response) {
+            return response.getResults().stream().map(BatchPaymentItemResult::getOutcome).toList();
+        }
+
+        private Payment assignId(Payment payment) {
+            payment.setId(UUID.randomUUID());
+            return payment;
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void createBatch_shouldInsertValidItemsTogether_andRejectBadOnesPerItem() {
+            CardPaymentRequest badCard = CardPaymentRequest.builder()
+                    .amount(new BigDecimal("10.00")).currency("AUD").cardNumber("12")
+                    .cardHolderName("John Doe").expiryMonth(12).expiryYear(2028).cvv("123").build();
+            List<BatchPaymentItem> items = List.of(
+                    card("k1"),
+                    bank("k2"),
+                    BatchPaymentItem.builder().idempotencyKey("k3").card(badCard).build(),
+                    card("k1"),
+                    BatchPaymentItem.builder().idempotencyKey("k4").build(),
+                    BatchPaymentItem.builder().card(validCardPaymentRequest).build());
+            when(idempotencyStore.reserve(any())).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(paymentRepository.findSummariesByIdempotencyKeyIn(any())).thenReturn(List.of());
+            when(paymentRepository.saveAll(anyList())).thenAnswer(inv -> {
+                List<Payment> payments = inv.getArgument(0);
+                payments.forEach(this::assignId);
+                return payments;
+            });
+
+            BatchPaymentResponse response = paymentService.createBatch(items);
+
+            assertEquals(List.of(
+                    BatchPaymentItemResult.Outcome.CREATED,
+                    BatchPaymentItemResult.Outcome.CREATED,
+                    BatchPaymentItemResult.Outcome.REJECTED,
+                    BatchPaymentItemResult.Outcome.REJECTED,
+                    BatchPaymentItemResult.Outcome.REJECTED,
+                    BatchPaymentItemResult.Outcome.REJECTED), outcomes(response));
+            assertEquals("cardNumber Invalid card number", response.getResults().get(2).getError());
+            assertEquals("Duplicate idempotencyKey in batch", response.getResults().get(3).getError());
+            assertEquals("Exactly one of card or bank is required", response.getResults().get(4).getError());
+            assertEquals("Missing idempotencyKey", response.getResults().get(5).getError());
+
+            // One lookup, one insert batch for payments, one per detail table and one for their events
+            verify(idempotencyStore, times(2)).reserve(any());
+            verify(paymentRepository).findSummariesByIdempotencyKeyIn(argThat(keys -> keys.containsAll(List.of("k1", "k2"))));
+            ArgumentCaptor<List<Payment>> payments = ArgumentCaptor.forClass(List.class);
+            verify(paymentRepository).saveAll(payments.capture());
+            assertEquals(List.of(PaymentType.CARD, PaymentType.BANK),
+                    payments.getValue().stream().map(Payment::getPaymentType).toList());
+            verify(cardPaymentRepository).saveAll(argThat(cards -> cards.iterator().next().getPayment() == payments.getValue().get(0)));
+            verify(bankPaymentRepository).saveAll(argThat(banks -> banks.iterator().next().getPayment() == payments.getValue().get(1)));
+            ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+            verify(outboxEventRepository).saveAll(events.capture());
+            assertEquals(payments.getValue().stream().map(Payment::getId).toList(),
+                    events.getValue().stream().map(OutboxEvent::getPaymentId).toList());
+            verify(paymentRepository, never()).saveAndFlush(any());
+            verify(idempotencyStore).complete(eq("k1"), any());
+            verify(idempotencyStore).complete(eq("k2"), any());
+        }
+
+        @Test
+        void createBatch_shouldReplayFromStoreAndDatabase_withoutInserting() {
+            PaymentResponse stored = PaymentResponse.builder().paymentId(UUID.randomUUID()).status("PENDING").build();
+            UUID existingId = UUID.randomUUID();
+            when(idempotencyStore.reserve("k1")).thenReturn(IdempotencyReservation.completed(stored));
+            when(idempotencyStore.reserve("k2")).thenReturn(IdempotencyReservation.acquired(LEASE));
+            when(idempotencyStore.reserve("k3")).thenReturn(IdempotencyReservation.inProgress());
+            when(paymentRepository.findSummariesByIdempotencyKeyIn(any())).thenReturn(List.of(
+                    new KeyedPaymentSummary("k2", existingId, PaymentStatus.SUCCESS,
+                            new BigDecimal("250.00"), "AUD", LocalDateTime.now())));
+
+            BatchPaymentResponse response = paymentService.createBatch(List.of(card("k1"), bank("k2"), card("k3")));
+
+            assertEquals(List.of(
+                    BatchPaymentItemResult.Outcome.REPLAYED,
+                    BatchPaymentItemResult.Outcome.REPLAYED,
+                    BatchPaymentItemResult.Outcome.IN_PROGRESS), outcomes(response));
+            assertSame(stored, response.getResults().get(0).getPayment());
+            assertEquals(existingId, response.getResults().get(1).getPayment().getPaymentId());
+            verify(idempotencyStore).complete(eq("k2"), any());
+            verify(paymentRepository, never()).saveAll(anyList());
+            verifyNoInteractions(outboxEventRepository);
+            assertEquals(1.0, meterRegistry.get("payment.idempotency.replays").tag("type", "BANK").counter().count());
+        }
+
+        @Test
+        void createBatch_shouldRetryItemByItem_whenBatchInsertFails() {
+            when(idempotencyStore.reserve(any()))
+                    .thenAnswer(inv -> IdempotencyReservation.acquired("lease-" + inv.getArgument(0)));
+            when(paymentRepository.findSummariesByIdempotencyKeyIn(any())).thenReturn(List.of());
+            when(paymentRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+            when(paymentRepository.saveAndFlush(any(Payment.class)))
+                    .thenAnswer(inv -> assignId(inv.getArgument(0)))
+                    .thenThrow(new DataIntegrityViolationException("value too long"));
+            when(paymentRepository.findSummaryByIdempotencyKey("k2")).thenReturn(Optional.empty());
+
+            BatchPaymentResponse response = paymentService.createBatch(List.of(card("k1"), bank("k2")));
+
+            assertEquals(List.of(
+                    BatchPaymentItemResult.Outcome.CREATED,
+                    BatchPaymentItemResult.Outcome.FAILED), outcomes(response));
+            verify(outboxEventRepository).save(any(OutboxEvent.class));
+            verify(idempotencyStore).complete(eq("k1"), any());
+            verify(idempotencyStore).release("k2", "lease-k2");
+        }
+    }
+
     // ----------------------
     // Cancel Payment Tests
     // ----------------------
@@ -226,31 +531,35 @@ class PaymentServiceTest {
         @EnumSource(value = PaymentStatus.class, names = {"PENDING", "FAILED"})
         void cancelPayment_shouldCancelPayment_whenStatusAllows(PaymentStatus initialStatus) {
             Payment payment = buildPayment(UUID.randomUUID(), PaymentType.CARD, initialStatus, new BigDecimal("100.00"));
-            when(paymentRepository.findById(payment.getId())).thenReturn(Optional.of(payment));
-            when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+            stubTransition(payment);
 
             PaymentResponse response = paymentService.cancelPayment(payment.getId());
 
             assertEquals("CANCELLED", response.getStatus());
-            verify(paymentRepository).save(payment);
-            assertNotNull(payment.getUpdatedAt());
+            verify(paymentRepository).transitionStatus(eq(payment.getId()),
+                    argThat(from -> from.contains(initialStatus) && !from.contains(PaymentStatus.SUCCESS)),
+                    eq(PaymentStatus.CANCELLED), any());
+            verify(paymentRepository, never()).save(any());
+            verify(paymentCache).evict(payment.getId());
         }
 
         @Test
         void cancelPayment_shouldThrowException_whenPaymentIsSuccessful() {
-            Payment payment = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.SUCCESS, new BigDecimal("200.00"));
-            when(paymentRepository.findById(payment.getId())).thenReturn(Optional.of(payment));
+            UUID id = UUID.randomUUID();
+            when(paymentRepository.transitionStatus(eq(id), any(), eq(PaymentStatus.CANCELLED), any())).thenReturn(0);
+            when(paymentRepository.findExistingIds(List.of(id))).thenReturn(List.of(id));
 
             IllegalStateException ex = assertThrows(IllegalStateException.class,
-                    () -> paymentService.cancelPayment(payment.getId()));
+                    () -> paymentService.cancelPayment(id));
             assertEquals("Completed payments cannot be cancelled", ex.getMessage());
-            verify(paymentRepository, never()).save(any());
+            verify(paymentRepository, never()).findSummaryById(any());
+            verifyNoInteractions(paymentCache);
         }
 
         @Test
         void cancelPayment_shouldThrowException_whenPaymentNotFound() {
             UUID id = UUID.randomUUID();
-            when(paymentRepository.findById(id)).thenReturn(Optional.empty());
+            when(paymentRepository.findExistingIds(List.of(id))).thenReturn(List.of());
 
             RuntimeException ex = assertThrows(RuntimeException.class,
                     () -> paymentService.cancelPayment(id));
@@ -269,21 +578,22 @@ class PaymentServiceTest {
         @EnumSource(PaymentStatus.class)
         void updatePaymentStatus_shouldUpdateStatus_whenPaymentExists(PaymentStatus newStatus) {
             Payment payment = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.PENDING, new BigDecimal("150.00"));
-            when(paymentRepository.findById(payment.getId())).thenReturn(Optional.of(payment));
-            when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+            stubTransition(payment);
 
             PaymentResponse response = paymentService.updatePaymentStatus(payment.getId(), newStatus);
 
             assertEquals(newStatus.name(), response.getStatus());
             assertEquals(newStatus, payment.getStatus());
             assertNotNull(payment.getUpdatedAt());
-            verify(paymentRepository).save(payment);
+            verify(paymentRepository).transitionStatus(eq(payment.getId()),
+                    argThat(from -> from.containsAll(EnumSet.allOf(PaymentStatus.class))), eq(newStatus), any());
+            verify(paymentRepository, never()).save(any());
+            verify(paymentCache).evict(payment.getId());
         }
 
         @Test
         void updatePaymentStatus_shouldThrowException_whenPaymentNotFound() {
             UUID id = UUID.randomUUID();
-            when(paymentRepository.findById(id)).thenReturn(Optional.empty());
 
             RuntimeException ex = assertThrows(RuntimeException.class,
                     () -> paymentService.updatePaymentStatus(id, PaymentStatus.REFUND));
@@ -301,16 +611,32 @@ class PaymentServiceTest {
         @Test
         void getPaymentById_shouldReturnPaymentResponse_whenPaymentExists() {
             Payment payment = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.SUCCESS, new BigDecimal("300.00"));
-            when(paymentRepository.findById(payment.getId())).thenReturn(Optional.of(payment));
+            when(paymentRepository.findSummaryById(payment.getId())).thenReturn(Optional.of(summaryOf(payment)));
 
             PaymentResponse response = paymentService.getPaymentById(payment.getId());
             assertPaymentResponse(response, payment);
+            verify(paymentRepository, never()).findById(any());
+        }
+
+        @Test
+        void getPaymentById_shouldServeRepeatedReadsFromCacheUntilStatusChanges() {
+            Payment payment = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.PENDING, new BigDecimal("300.00"));
+            stubTransition(payment);
+
+            paymentService.getPaymentById(payment.getId());
+            paymentService.getPaymentById(payment.getId());
+            verify(paymentRepository, times(1)).findSummaryById(payment.getId());
+
+            paymentService.cancelPayment(payment.getId());
+            assertEquals("CANCELLED", paymentService.getPaymentById(payment.getId()).getStatus());
+            assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "payments").tag("result", "hit")
+                    .functionCounter().count());
         }
 
         @Test
         void getPaymentById_shouldThrowException_whenPaymentNotFound() {
             UUID id = UUID.randomUUID();
-            when(paymentRepository.findById(id)).thenReturn(Optional.empty());
+            when(paymentRepository.findSummaryById(id)).thenReturn(Optional.empty());
 
             RuntimeException ex = assertThrows(RuntimeException.class,
                     () -> paymentService.getPaymentById(id));
@@ -318,23 +644,84 @@ class PaymentServiceTest {
         }
 
         @Test
-        void getAllPayments_shouldReturnAllPayments() {
-            Payment p1 = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.PENDING, new BigDecimal("100.00"));
-            Payment p2 = buildPayment(UUID.randomUUID(), PaymentType.BANK, PaymentStatus.SUCCESS, new BigDecimal("200.00"));
-            when(paymentRepository.findAll()).thenReturn(List.of(p1, p2));
+        void getPaymentById_shouldFallBackToArchive_whenPaymentNoLongerInTable() {
+            Payment payment = buildPayment(UUID.randomUUID(), PaymentType.CARD, PaymentStatus.SUCCESS, new BigDecimal("300.00"));
+            when(paymentRepository.findSummaryById(payment.getId())).thenReturn(Optional.empty());
+            when(paymentArchive.find(payment.getId())).thenReturn(Optional.of(new ArchivedPayment(
+                    payment.getId(), payment.getStatus(), payment.getPaymentType(), payment.getAmount(),
+                    payment.getCurrency(), payment.getIdempotencyKey(), payment.getCreatedAt(), payment.getUpdatedAt())));
+
+            assertPaymentResponse(paymentService.getPaymentById(payment.getId()), payment);
+        }
+
+        @Test
+        void getPayments_shouldReturnFirstPageWithCursor_whenMoreRowsExist() {
+            PaymentSummary s1 = summary(LocalDateTime.of(2026, 1, 1, 10, 0));
+            PaymentSummary s2 = summary(LocalDateTime.of(2026, 1, 1, 11, 0));
+            PaymentSummary s3 = summary(LocalDateTime.of(2026, 1, 1, 12, 0));
+            when(paymentRepository.findSummaries(Limit.of(3))).thenReturn(List.of(s1, s2, s3));
+
+            PaymentPageResponse page = paymentService.getPayments(null, 2);
+
+            assertEquals(2, page.getItems().size());
+            assertEquals(s1.id(), page.getItems().get(0).getPaymentId());
+            assertEquals(s2.id(), page.getItems().get(1).getPaymentId());
+            assertEquals(new PaymentCursor(s2.createdAt(), s2.id()), PaymentCursor.decode(page.getNextCursor()));
+            verify(paymentRepository, never()).findAll();
+        }
 
-            List<PaymentResponse> responses = paymentService.getAllPayments();
-            assertEquals(2, responses.size());
-            assertPaymentResponse(responses.get(0), p1);
-            assertPaymentResponse(responses.get(1), p2);
+        @Test
+        void getPayments_shouldContinueAfterCursor_andEndWithoutCursor() {
+            PaymentSummary last = summary(LocalDateTime.of(2026, 1, 2, 9, 30));
+            PaymentCursor cursor = new PaymentCursor(LocalDateTime.of(2026, 1, 1, 12, 0), UUID.randomUUID());
+            when(paymentRepository.findSummariesAfter(cursor.createdAt(), cursor.id(), Limit.of(3)))
+                    .thenReturn(List.of(last));
+
+            PaymentPageResponse page = paymentService.getPayments(cursor.encode(), 2);
+
+            assertEquals(1, page.getItems().size());
+            assertEquals(last.id(), page.getItems().get(0).getPaymentId());
+            assertEquals("SUCCESS", page.getItems().get(0).getStatus());
+            assertNull(page.getNextCursor());
         }
 
         @Test
-        void getAllPayments_shouldReturnEmptyList_whenNoPaymentsExist() {
-            when(paymentRepository.findAll()).thenReturn(List.of());
-            List<PaymentResponse> responses = paymentService.getAllPayments();
-            assertNotNull(responses);
-            assertTrue(responses.isEmpty());
+        void getPayments_shouldRejectMalformedCursor() {
+            BadRequestException ex = assertThrows(BadRequestException.class,
+                    () -> paymentService.getPayments("not-a-cursor", 10));
+            assertEquals("Invalid cursor", ex.getMessage());
+        }
+
+        @Test
+        void streamAllPayments_shouldPushEveryRowToSink() {
+            PaymentSummary s1 = summary(LocalDateTime.now());
+            PaymentSummary s2 = summary(LocalDateTime.now());
+            when(paymentRepository.streamSummaries()).thenReturn(Stream.of(s1, s2));
+
+            List<PaymentResponse> received = new ArrayList<>();
+            paymentService.streamAllPayments(received::add);
+
+            assertEquals(List.of(s1.id(), s2.id()), received.stream().map(PaymentResponse::getPaymentId).toList());
+        }
+
+        @Test
+        void searchPayments_shouldPageLikeGetPayments() {
+            PaymentSearchCriteria criteria = new PaymentSearchCriteria(
+                    Set.of(PaymentStatus.PENDING), null, null, null, null, null, null);
+            PaymentCursor cursor = new PaymentCursor(LocalDateTime.of(2026, 1, 1, 12, 0), UUID.randomUUID());
+            PaymentSummary s1 = summary(LocalDateTime.of(2026, 1, 1, 13, 0));
+            PaymentSummary s2 = summary(LocalDateTime.of(2026, 1, 1, 14, 0));
+            when(paymentRepository.search(criteria, cursor, 2)).thenReturn(List.of(s1, s2));
+
+            PaymentPageResponse page = paymentService.searchPayments(criteria, cursor.encode(), 1);
+
+            assertEquals(List.of(s1.id()), page.getItems().stream().map(PaymentResponse::getPaymentId).toList());
+            assertEquals(PaymentCursor.after(s1), PaymentCursor.decode(page.getNextCursor()));
+        }
+
+        private PaymentSummary summary(LocalDateTime createdAt) {
+            return new PaymentSummary(UUID.randomUUID(), PaymentStatus.SUCCESS,
+                    new BigDecimal("10.00"), "AUD", createdAt);
         }
     }
 }
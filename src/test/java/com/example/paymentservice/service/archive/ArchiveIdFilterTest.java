@@ -0,0 +1,52 @@
+package com.example.paymentservice.service.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveIdFilterTest {
+
+    @Test
+    void mightContain_shouldAcceptEveryAddedId() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        // Sequential ids too, which share most of their bits
+        for (long i = 0; i < 5_000; i++) {
+            ids.add(new UUID(0, i));
+        }
+
+        ArchiveIdFilter filter = ArchiveIdFilter.of(ids);
+
+        assertTrue(ids.stream().allMatch(filter::mightContain));
+    }
+
+    @Test
+    void mightContain_shouldRejectAlmostAllOtherIds() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ArchiveIdFilter filter = ArchiveIdFilter.of(ids);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // ~1% expected at 10 bits per id
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives");
+    }
+
+    @Test
+    void mightContain_shouldRejectEverything_whenEmpty() {
+        assertFalse(ArchiveIdFilter.of(List.of()).mightContain(UUID.randomUUID()));
+    }
+}
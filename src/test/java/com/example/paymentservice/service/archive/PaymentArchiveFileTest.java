@@ -0,0 +1,93 @@
+package com.example.paymentservice.service.archive;
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentArchiveFileTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 30, 15, 123_456_000);
+
+    @TempDir
+    Path dir;
+
+    private static List<ArchivedPayment> payments(int count) {
+        List<ArchivedPayment> payments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payments.add(new ArchivedPayment(
+                    UUID.randomUUID(),
+                    i % 3 == 0 ? PaymentStatus.FAILED : PaymentStatus.SUCCESS,
+                    i % 2 == 0 ? PaymentType.CARD : PaymentType.BANK,
+                    new BigDecimal("10.00").add(BigDecimal.valueOf(i, 2)),
+                    i % 5 == 0 ? "USD" : "AUD",
+                    "key-" + i,
+                    START.plusSeconds(i),
+                    START.plusSeconds(i + 30)));
+        }
+        return payments;
+    }
+
+    @Test
+    void read_shouldReturnEveryRowSortedById() throws IOException {
+        List<ArchivedPayment> payments = payments(500);
+        Path file = dir.resolve("batch.parc");
+
+        PaymentArchiveFile.write(file, payments);
+
+        List<ArchivedPayment> expected = payments.stream().sorted(Comparator.comparing(ArchivedPayment::id)).toList();
+        assertEquals(expected, PaymentArchiveFile.read(file));
+    }
+
+    @Test
+    void find_shouldLocateEachRowAndMissUnknownIds() throws IOException {
+        List<ArchivedPayment> payments = payments(200);
+        Path file = dir.resolve("batch.parc");
+        PaymentArchiveFile.write(file, payments);
+
+        for (ArchivedPayment payment : payments) {
+            assertEquals(payment, PaymentArchiveFile.find(file, payment.id()).orElseThrow());
+        }
+        assertTrue(PaymentArchiveFile.find(file, UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void write_shouldKeepNullableColumnsAndExactAmounts() throws IOException {
+        ArchivedPayment payment = new ArchivedPayment(UUID.randomUUID(), PaymentStatus.CANCELLED, null,
+                new BigDecimal("-0.0001"), "AUD", "key", START, null);
+        Path file = dir.resolve("single.parc");
+
+        PaymentArchiveFile.write(file, List.of(payment));
+
+        assertEquals(payment, PaymentArchiveFile.find(file, payment.id()).orElseThrow());
+    }
+
+    @Test
+    void write_shouldCompressBelowTheRowData() throws IOException {
+        Path file = dir.resolve("batch.parc");
+
+        PaymentArchiveFile.write(file, payments(10_000));
+
+        // 16-byte ids stay raw; the other seven columns take ~38 bytes a row before compression
+        assertTrue(Files.size(file) < 10_000 * (16 + 24L), "archive size " + Files.size(file));
+    }
+
+    @Test
+    void read_shouldRejectOtherFiles() throws IOException {
+        Path file = Files.writeString(dir.resolve("other.parc"), "not an archive");
+
+        assertThrows(IOException.class, () -> PaymentArchiveFile.read(file));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.paymentservice.service.archive;
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 30);
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static List<ArchivedPayment> payments(int count) {
+        List<ArchivedPayment> payments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payments.add(new ArchivedPayment(UUID.randomUUID(), PaymentStatus.SUCCESS, PaymentType.CARD,
+                    new BigDecimal("10.00"), "AUD", "key-" + i, START.plusSeconds(i), START.plusSeconds(i)));
+        }
+        return payments;
+    }
+
+    @Test
+    void find_shouldLocatePaymentsOfFilesWrittenBeforeStartup() {
+        List<ArchivedPayment> first = payments(100);
+        List<ArchivedPayment> second = payments(100);
+        PaymentArchive writer = new PaymentArchive(dir, meterRegistry);
+        writer.write(first);
+        writer.write(second);
+
+        PaymentArchive archive = new PaymentArchive(dir, meterRegistry);
+        archive.loadIdFilters();
+
+        assertEquals(first.get(7), archive.find(first.get(7).id()).orElseThrow());
+        assertEquals(second.get(42), archive.find(second.get(42).id()).orElseThrow());
+        assertTrue(archive.find(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void find_shouldOnlySearchFilesThatMayHoldTheId() {
+        PaymentArchive archive = new PaymentArchive(dir, meterRegistry);
+        List<ArchivedPayment> payments = payments(1_000);
+        for (int i = 0; i < 10; i++) {
+            archive.write(payments.subList(i * 100, (i + 1) * 100));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(archive.find(UUID.randomUUID()).isEmpty());
+        }
+        // ~1% false positives per file: about 10 of the 1000 file checks
+        assertTrue(fileReads() < 40, fileReads() + " files searched");
+
+        double before = fileReads();
+        assertEquals(payments.get(555), archive.find(payments.get(555).id()).orElseThrow());
+        assertTrue(fileReads() - before <= 3, (fileReads() - before) + " files searched for a hit");
+    }
+
+    private double fileReads() {
+        return meterRegistry.get("payment.archive.file.reads").counter().count();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.paymentservice.service.archive;
+
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentArchiverTest {
+
+    private static final String JANUARY = "payment_p202601";
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 3, 15, 0, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PaymentArchive paymentArchive;
+
+    @Mock
+    private PaymentPartitionManager partitionManager;
+
+    @Mock
+    private ObjectProvider<PaymentPartitionManager> partitionManagerProvider;
+
+    private PaymentArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        when(partitionManagerProvider.getIfAvailable()).thenReturn(partitionManager);
+        archiver = new PaymentArchiver(jdbcTemplate, new TransactionTemplate(transactionManager), paymentArchive,
+                partitionManagerProvider, new SimpleMeterRegistry(), Duration.ofDays(90), 2);
+    }
+
+    private static ArchivedPayment payment(LocalDateTime createdAt) {
+        return new ArchivedPayment(UUID.randomUUID(), PaymentStatus.SUCCESS, PaymentType.CARD,
+                new BigDecimal("10.00"), "AUD", UUID.randomUUID().toString(), createdAt, createdAt);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archiveBefore_shouldArchiveWholeMonthWithoutDeletingRows_thenDetachMoveAndDrop() {
+        when(partitionManager.partitionsBefore(CUTOFF)).thenReturn(List.of(
+                new PaymentPartitionManager.MonthPartition(JANUARY, YearMonth.of(2026, 1), true)));
+        LocalDateTime jan = LocalDateTime.of(2026, 1, 10, 0, 0);
+        List<ArchivedPayment> firstPage = List.of(payment(jan), payment(jan.plusHours(1)));
+        List<ArchivedPayment> lastPage = List.of(payment(jan.plusHours(2)));
+        List<ArchivedPayment> turnedTerminal = List.of(payment(jan.plusHours(3)));
+        String pageSql = PaymentPartitionManager.selectTerminalPageSql(JANUARY, false);
+        when(jdbcTemplate.query(eq(pageSql), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(firstPage, lastPage);
+        when(jdbcTemplate.query(eq(PaymentPartitionManager.selectTerminalPageSql(JANUARY, true)),
+                any(RowMapper.class), any(Object[].class)))
+                .thenReturn(turnedTerminal);
+
+        assertEquals(4, archiver.archiveBefore(CUTOFF));
+
+        InOrder inOrder = inOrder(jdbcTemplate, paymentArchive, transactionManager);
+        inOrder.verify(paymentArchive).write(firstPage);
+        // The second page continues after the last row of the first
+        ArchivedPayment last = firstPage.getLast();
+        inOrder.verify(jdbcTemplate).query(eq(pageSql), (RowMapper<ArchivedPayment>) any(RowMapper.class),
+                eq(last.createdAt()), eq(last.id()), eq(2));
+        inOrder.verify(paymentArchive).write(lastPage);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(jdbcTemplate).execute(startsWith("SET LOCAL lock_timeout"));
+        inOrder.verify(jdbcTemplate).execute(PaymentPartitionManager.detachPartitionSql(JANUARY));
+        inOrder.verify(paymentArchive).write(turnedTerminal);
+        inOrder.verify(jdbcTemplate).update(PaymentPartitionManager.moveLiveRowsSql(JANUARY));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(jdbcTemplate).update(
+                PaymentPartitionManager.deleteArchivedDetailsSql("card_payment_details", JANUARY));
+        inOrder.verify(jdbcTemplate).update(PaymentPartitionManager.deleteArchivedIdempotencyKeysSql(JANUARY));
+        inOrder.verify(jdbcTemplate).execute(PaymentPartitionManager.dropPartitionSql(JANUARY));
+        // The month's archived rows are never deleted one by one
+        verify(jdbcTemplate, never()).batchUpdate(eq("DELETE FROM payment WHERE id = ?"), anyList());
+    }
+
+    @Test
+    void archiveBefore_shouldOnlyCleanUpAndDrop_aPartitionAnEarlierRunDetached() {
+        when(partitionManager.partitionsBefore(CUTOFF)).thenReturn(List.of(
+                new PaymentPartitionManager.MonthPartition(JANUARY, YearMonth.of(2026, 1), false)));
+
+        archiver.archiveBefore(CUTOFF);
+
+        verify(jdbcTemplate, never()).execute(PaymentPartitionManager.detachPartitionSql(JANUARY));
+        verify(jdbcTemplate).update(PaymentPartitionManager.deleteArchivedDetailsSql("bank_payment_details", JANUARY));
+        verify(jdbcTemplate).execute(PaymentPartitionManager.dropPartitionSql(JANUARY));
+        verifyNoInteractions(paymentArchive);
+    }
+
+    @Test
+    void archiveBefore_shouldKeepThePartition_whenTheDetachCannotGetItsLock() {
+        when(partitionManager.partitionsBefore(CUTOFF)).thenReturn(List.of(
+                new PaymentPartitionManager.MonthPartition(JANUARY, YearMonth.of(2026, 1), true)));
+        lenient().doThrow(new CannotAcquireLockException("lock timeout"))
+                .when(jdbcTemplate).execute(PaymentPartitionManager.detachPartitionSql(JANUARY));
+
+        archiver.archiveBefore(CUTOFF);
+
+        verify(transactionManager).rollback(any());
+        verify(jdbcTemplate, never()).update(PaymentPartitionManager.moveLiveRowsSql(JANUARY));
+        verify(jdbcTemplate, never()).execute(PaymentPartitionManager.dropPartitionSql(JANUARY));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.paymentservice.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PaymentPartitionManagerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PaymentPartitionManager manager = new PaymentPartitionManager(jdbcTemplate, 3);
+
+    @Test
+    void createPartitionSql_shouldCoverExactlyOneMonth() {
+        assertEquals("CREATE TABLE IF NOT EXISTS payment_p202612 PARTITION OF payment"
+                        + " FOR VALUES FROM ('2026-12-01 00:00:00') TO ('2027-01-01 00:00:00')",
+                PaymentPartitionManager.createPartitionSql(YearMonth.of(2026, 12)));
+    }
+
+    @Test
+    void monthOf_shouldParseOnlyMonthlyPartitions() {
+        assertEquals(Optional.of(YearMonth.of(2026, 3)), PaymentPartitionManager.monthOf("payment_p202603"));
+        assertTrue(PaymentPartitionManager.monthOf("payment_default").isEmpty());
+        assertTrue(PaymentPartitionManager.monthOf("payment_pold").isEmpty());
+    }
+
+    @Test
+    void createFuturePartitions_shouldCreateCurrentMonthAndMonthsAhead() {
+        manager.createFuturePartitions();
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= 3; i++) {
+            verify(jdbcTemplate).execute(PaymentPartitionManager.createPartitionSql(current.plusMonths(i)));
+            verify(jdbcTemplate).execute(PaymentPartitionManager.idempotencyKeyIndexSql(current.plusMonths(i)));
+        }
+    }
+
+    @Test
+    void partitionsBefore_shouldListMonthsWhollyBeforeCutoff_oldestFirst_includingDetachedOnes() throws SQLException {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : List.of(
+                    new Object[]{"payment_p202602", true},
+                    new Object[]{"payment_p202601", false},
+                    new Object[]{"payment_p202603", true},
+                    new Object[]{"payment_p202601_idempotency_key", true})) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("relname")).thenReturn((String) row[0]);
+                lenient().when(rs.getBoolean("attached")).thenReturn((Boolean) row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        // March is not over by the cutoff
+        List<PaymentPartitionManager.MonthPartition> partitions =
+                manager.partitionsBefore(LocalDateTime.of(2026, 3, 15, 0, 0));
+
+        assertEquals(List.of(
+                new PaymentPartitionManager.MonthPartition("payment_p202601", YearMonth.of(2026, 1), false),
+                new PaymentPartitionManager.MonthPartition("payment_p202602", YearMonth.of(2026, 2), true)),
+                partitions);
+    }
+
+    @Test
+    void retirementSql_shouldMoveAndKeepOnlyRowsStillInProgress() {
+        assertEquals("ALTER TABLE payment DETACH PARTITION payment_p202601",
+                PaymentPartitionManager.detachPartitionSql("payment_p202601"));
+        assertEquals("INSERT INTO payment SELECT * FROM payment_p202601"
+                        + " WHERE status NOT IN ('SUCCESS', 'FAILED', 'CANCELLED')",
+                PaymentPartitionManager.moveLiveRowsSql("payment_p202601"));
+        assertEquals("DELETE FROM card_payment_details d USING payment_p202601 p"
+                        + " WHERE d.payment_id = p.id AND p.status IN ('SUCCESS', 'FAILED', 'CANCELLED')",
+                PaymentPartitionManager.deleteArchivedDetailsSql("card_payment_details", "payment_p202601"));
+        assertEquals("DELETE FROM payment_idempotency_key k USING payment_p202601 p"
+                        + " WHERE k.idempotency_key = p.idempotency_key AND k.payment_id = p.id"
+                        + " AND p.status IN ('SUCCESS', 'FAILED', 'CANCELLED')",
+                PaymentPartitionManager.deleteArchivedIdempotencyKeysSql("payment_p202601"));
+    }
+
+    @Test
+    void selectTerminalPageSql_shouldPageByCreatedAtAndId() {
+        assertEquals("SELECT id, status, payment_type, amount, currency, idempotency_key, created_at, updated_at"
+                        + " FROM payment_p202601 WHERE status IN ('SUCCESS', 'FAILED', 'CANCELLED')"
+                        + " AND (created_at, id) > (?, ?) AND updated_at >= ? ORDER BY created_at, id LIMIT ?",
+                PaymentPartitionManager.selectTerminalPageSql("payment_p202601", true));
+    }
+}
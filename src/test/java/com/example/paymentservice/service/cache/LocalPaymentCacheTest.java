@@ -0,0 +1,98 @@
+package com.example.paymentservice.service.cache;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalPaymentCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalPaymentCache cache =
+            new LocalPaymentCache(meterRegistry, 100, Duration.ofMinutes(10), Duration.ofSeconds(2));
+
+    private static PaymentResponse payment(UUID id, String status) {
+        return PaymentResponse.builder().paymentId(id).status(status).build();
+    }
+
+    @Test
+    void get_shouldCollapseConcurrentMissesForOneIdIntoASingleLoad() throws Exception {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PaymentResponse>> results = new ArrayList<>();
+
+        try (ExecutorService pollers = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(pollers.submit(() -> {
+                    start.await();
+                    return cache.get(id, key -> {
+                        loads.incrementAndGet();
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return payment(key, "PENDING");
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<PaymentResponse> result : results) {
+                assertEquals(id, result.get().getPaymentId());
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(7.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_shouldNotCacheLoaderFailures() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(RuntimeException.class, () -> cache.get(id, key -> {
+            throw new RuntimeException("Payment not found");
+        }));
+        assertEquals("SUCCESS", cache.get(id, key -> payment(key, "SUCCESS")).getStatus());
+    }
+
+    @Test
+    void evict_shouldWaitForTheSurroundingTransactionToCommit() {
+        UUID id = UUID.randomUUID();
+        cache.get(id, key -> payment(key, "PENDING"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(id);
+            assertEquals("PENDING", cache.get(id, key -> payment(key, "SUCCESS")).getStatus());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("SUCCESS", cache.get(id, key -> payment(key, "SUCCESS")).getStatus());
+    }
+
+    @Test
+    void ttlFor_shouldKeepPendingPaymentsBriefly() {
+        assertEquals(Duration.ofSeconds(2), LocalPaymentCache.ttlFor(payment(null, "PENDING"),
+                Duration.ofMinutes(10), Duration.ofSeconds(2)));
+        assertEquals(Duration.ofMinutes(10), LocalPaymentCache.ttlFor(payment(null, "FAILED"),
+                Duration.ofMinutes(10), Duration.ofSeconds(2)));
+    }
+}
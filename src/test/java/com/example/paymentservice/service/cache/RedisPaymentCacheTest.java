@@ -0,0 +1,122 @@
+package com.example.paymentservice.service.cache;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisPaymentCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RedisPaymentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RedisPaymentCache(
+                new LocalPaymentCache(meterRegistry, 100, Duration.ofMinutes(10), Duration.ofSeconds(2)),
+                redisTemplate, jsonMapper, meterRegistry, Duration.ofMinutes(10), Duration.ofSeconds(2));
+    }
+
+    private static PaymentResponse payment(UUID id, String status) {
+        return PaymentResponse.builder()
+                .paymentId(id)
+                .status(status)
+                .amount(new BigDecimal("10.00"))
+                .currency("AUD")
+                .createdAt(LocalDateTime.of(2026, 1, 1, 9, 30))
+                .build();
+    }
+
+    @Test
+    void get_shouldServeSharedEntryWithoutLoading_andKeepItLocally() {
+        UUID id = UUID.randomUUID();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("payment:cache:" + id))
+                .thenReturn(jsonMapper.writeValueAsString(payment(id, "SUCCESS")));
+
+        assertEquals(payment(id, "SUCCESS"), cache.get(id, key -> fail("loader must not run")));
+        assertEquals(payment(id, "SUCCESS"), cache.get(id, key -> fail("loader must not run")));
+
+        verify(valueOperations, times(1)).get(anyString());
+        assertEquals(1.0, meterRegistry.get("payment.cache.redis").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void get_shouldLoadAndShareOnMiss_withPendingTtlForPendingPayments() {
+        UUID id = UUID.randomUUID();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        cache.get(id, key -> payment(key, "PENDING"));
+
+        verify(valueOperations).set("payment:cache:" + id, jsonMapper.writeValueAsString(payment(id, "PENDING")),
+                Duration.ofSeconds(2));
+    }
+
+    @Test
+    void get_shouldFallBackToLoader_whenRedisIsDown() {
+        UUID id = UUID.randomUUID();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals("SUCCESS", cache.get(id, key -> payment(key, "SUCCESS")).getStatus());
+        assertEquals(1.0, meterRegistry.get("payment.cache.redis").tag("result", "error").counter().count());
+    }
+
+    @Test
+    void evict_shouldDeleteSharedEntriesAndPublishIds() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        cache.evictAll(List.of(first, second));
+
+        verify(redisTemplate).delete(List.of("payment:cache:" + first, "payment:cache:" + second));
+        verify(redisTemplate).convertAndSend(RedisPaymentCache.INVALIDATION_CHANNEL, first + "," + second);
+    }
+
+    @Test
+    void onInvalidation_shouldDropLocalEntriesPublishedByAnotherInstance() {
+        UUID id = UUID.randomUUID();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(id, key -> {
+            loads.incrementAndGet();
+            return payment(key, "PENDING");
+        });
+        cache.onInvalidation(id.toString());
+        PaymentResponse reloaded = cache.get(id, key -> {
+            loads.incrementAndGet();
+            return payment(key, "SUCCESS");
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals("SUCCESS", reloaded.getStatus());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.paymentservice.service.fraud;
+
+import com.example.paymentservice.entity.enums.PaymentType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudRulePlanTest {
+
+    private static FraudRuleDefinition limit(String id, String currency, PaymentType type, String max) {
+        return new FraudRuleDefinition(id, FraudRuleDefinition.Kind.AMOUNT_LIMIT, null, currency, type,
+                null, new BigDecimal(max), null, null, null);
+    }
+
+    private static FraudRuleDefinition blocklist(String id, FraudRuleDefinition.Kind kind, String... values) {
+        return new FraudRuleDefinition(id, kind, null, null, null, null, null, List.of(values), null, null);
+    }
+
+    private final FraudRulePlan plan = FraudRulePlan.compile(List.of(
+            limit("global-limit", null, null, "15000"),
+            limit("aud-card-limit", "AUD", PaymentType.CARD, "10000"),
+            new FraudRuleDefinition("bank-band", FraudRuleDefinition.Kind.AMOUNT_BAND,
+                    FraudRuleDefinition.Action.MONITOR, null, PaymentType.BANK,
+                    new BigDecimal("9500"), new BigDecimal("10000"), null, null, null),
+            blocklist("bad-bins", FraudRuleDefinition.Kind.CARD_BIN_BLOCKLIST, "400000"),
+            blocklist("bad-bsbs", FraudRuleDefinition.Kind.BSB_BLOCKLIST, "062-999")));
+
+    @Test
+    void defaultPlan_shouldKeepThe15000LimitForEveryCurrency() {
+        FraudRulePlan defaults = FraudRulePlan.defaultPlan();
+
+        assertSame(FraudDecision.CLEAN, defaults.evaluate(new BigDecimal("15000"), "USD", PaymentType.BANK, null));
+        assertEquals(new FraudDecision(true, List.of(FraudRulePlan.DEFAULT_RULE_ID)),
+                defaults.evaluate(new BigDecimal("15000.01"), "USD", PaymentType.BANK, null));
+    }
+
+    @Test
+    void evaluate_shouldApplyCurrencyAndTypeSpecificLimits() {
+        assertEquals(List.of("aud-card-limit"),
+                plan.evaluate(new BigDecimal("12000"), "AUD", PaymentType.CARD, "411111").firedRuleIds());
+        // Lower-case currency in the event still hits the AUD rules
+        assertTrue(plan.evaluate(new BigDecimal("12000"), "aud", PaymentType.CARD, "411111").fraud());
+        assertSame(FraudDecision.CLEAN, plan.evaluate(new BigDecimal("12000"), "NZD", PaymentType.CARD, "411111"));
+        assertSame(FraudDecision.CLEAN, plan.evaluate(new BigDecimal("12000"), "AUD", PaymentType.BANK, "062000"));
+        assertEquals(List.of("global-limit", "aud-card-limit"),
+                plan.evaluate(new BigDecimal("20000"), "AUD", PaymentType.CARD, "411111").firedRuleIds());
+    }
+
+    @Test
+    void evaluate_shouldReportMonitorRulesWithoutFlaggingFraud() {
+        FraudDecision decision = plan.evaluate(new BigDecimal("9999.99"), "AUD", PaymentType.BANK, "062000");
+
+        assertFalse(decision.fraud());
+        assertEquals(List.of("bank-band"), decision.firedRuleIds());
+        assertSame(FraudDecision.CLEAN, plan.evaluate(new BigDecimal("10000"), "AUD", PaymentType.BANK, "062000"));
+    }
+
+    @Test
+    void evaluate_shouldBlockListedBinsAndBsbsOnlyForTheirPaymentType() {
+        assertEquals(List.of("bad-bins"),
+                plan.evaluate(BigDecimal.TEN, "AUD", PaymentType.CARD, "400000").firedRuleIds());
+        assertEquals(List.of("bad-bsbs"),
+                plan.evaluate(BigDecimal.TEN, "AUD", PaymentType.BANK, "062999").firedRuleIds());
+        assertSame(FraudDecision.CLEAN, plan.evaluate(BigDecimal.TEN, "AUD", PaymentType.BANK, "400000"));
+        assertSame(FraudDecision.CLEAN, plan.evaluate(BigDecimal.TEN, "AUD", PaymentType.CARD, null));
+    }
+
+    @Test
+    void evaluate_shouldApplyVelocityRulesOnlyWhenStatsAreGiven() {
+        FraudRulePlan velocityPlan = FraudRulePlan.compile(List.of(
+                new FraudRuleDefinition("card-burst", FraudRuleDefinition.Kind.VELOCITY_COUNT, null, null,
+                        PaymentType.CARD, null, null, null, Duration.ofMinutes(1), 3),
+                new FraudRuleDefinition("daily-spend", FraudRuleDefinition.Kind.VELOCITY_SUM,
+                        FraudRuleDefinition.Action.MONITOR, null, null, null, new BigDecimal("5000"), null,
+                        Duration.ofHours(24), null)));
+        VelocityStats burst = new VelocityStats(4, 4000, 4, 4000, 4, 4000, 0);
+        VelocityStats bigDay = new VelocityStats(1, 10000, 2, 20000, 9, 500001, 0);
+
+        assertEquals(new FraudDecision(true, List.of("card-burst")),
+                velocityPlan.evaluate(BigDecimal.TEN, "AUD", PaymentType.CARD, "411111", burst));
+        assertSame(FraudDecision.CLEAN, velocityPlan.evaluate(BigDecimal.TEN, "AUD", PaymentType.BANK, null, burst));
+        assertEquals(new FraudDecision(false, List.of("daily-spend")),
+                velocityPlan.evaluate(BigDecimal.TEN, "AUD", PaymentType.CARD, "411111", bigDay));
+        assertSame(FraudDecision.CLEAN, velocityPlan.evaluate(BigDecimal.TEN, "AUD", PaymentType.CARD, "411111"));
+    }
+
+    @Test
+    void compile_shouldRejectIncompleteOrDuplicateRules() {
+        assertThrows(IllegalArgumentException.class, () -> FraudRulePlan.compile(List.of(
+                limit("a", null, null, "1"), limit("a", "AUD", null, "2"))));
+        assertThrows(IllegalArgumentException.class, () -> FraudRulePlan.compile(List.of(
+                new FraudRuleDefinition("no-max", FraudRuleDefinition.Kind.AMOUNT_LIMIT,
+                        null, null, null, null, null, null, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> FraudRulePlan.compile(List.of(
+                blocklist("empty", FraudRuleDefinition.Kind.CARD_BIN_BLOCKLIST))));
+        assertThrows(IllegalArgumentException.class, () -> FraudRulePlan.compile(List.of(
+                new FraudRuleDefinition(" ", FraudRuleDefinition.Kind.AMOUNT_LIMIT,
+                        null, null, null, null, BigDecimal.ONE, null, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> FraudRulePlan.compile(List.of(
+                new FraudRuleDefinition("odd-window", FraudRuleDefinition.Kind.VELOCITY_COUNT,
+                        null, null, null, null, null, null, Duration.ofMinutes(5), 3))));
+        assertThrows(IllegalArgumentException.class, () -> FraudRulePlan.compile(List.of(
+                new FraudRuleDefinition("no-count", FraudRuleDefinition.Kind.VELOCITY_COUNT,
+                        null, null, null, null, null, null, Duration.ofMinutes(1), null))));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.paymentservice.service.fraud;
+
+import com.example.paymentservice.entity.enums.PaymentType;
+import com.example.paymentservice.event.PaymentCreatedEvent;
+import com.example.paymentservice.service.FraudService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudRuleReloaderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path rulesFile;
+    private FraudService fraudService;
+    private FraudRuleReloader reloader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        rulesFile = dir.resolve("fraud-rules.yaml");
+        write("""
+                rules:
+                  - id: aud-limit
+                    kind: amount-limit
+                    currency: AUD
+                    max: 1000
+                """, 1);
+        fraudService = new FraudService();
+        reloader = new FraudRuleReloader(fraudService, new DefaultResourceLoader(), rulesFile.toUri().toString());
+        reloader.loadInitialRules();
+    }
+
+    private void write(String yaml, long modifiedSecond) throws IOException {
+        Files.writeString(rulesFile, yaml);
+        // Explicit timestamps: two writes within one filesystem tick must still look different
+        Files.setLastModifiedTime(rulesFile, FileTime.from(Instant.ofEpochSecond(modifiedSecond)));
+    }
+
+    private FraudDecision evaluate(String amount, PaymentType type, String prefix) {
+        return fraudService.evaluate(new PaymentCreatedEvent(PaymentCreatedEvent.CURRENT_VERSION, UUID.randomUUID(),
+                new BigDecimal(amount), "AUD", type, "key-1", "token", LocalDateTime.now(), prefix), null);
+    }
+
+    @Test
+    void shouldLoadRulesFromFileAtStartup() {
+        assertEquals(List.of("aud-limit"), evaluate("1500", PaymentType.CARD, "411111").firedRuleIds());
+    }
+
+    @Test
+    void shouldSwapInNewRules_whenFileChanges() throws IOException {
+        write("""
+                rules:
+                  - id: blocked-bsbs
+                    kind: bsb-blocklist
+                    payment-type: BANK
+                    values: ["062-000"]
+                """, 2);
+
+        reloader.reloadIfChanged();
+
+        assertFalse(evaluate("1500", PaymentType.CARD, "411111").fraud());
+        assertEquals(List.of("blocked-bsbs"), evaluate("10", PaymentType.BANK, "062000").firedRuleIds());
+    }
+
+    @Test
+    void shouldKeepCurrentRules_whenNewFileIsInvalid() throws IOException {
+        write("""
+                rules:
+                  - id: no-max
+                    kind: amount-limit
+                """, 2);
+
+        reloader.reloadIfChanged();
+
+        assertTrue(evaluate("1500", PaymentType.CARD, "411111").fraud());
+    }
+
+    @Test
+    void shippedRules_shouldMatchTheHistoricalLimit() {
+        FraudRulePlan shipped = FraudRuleReloader.load(new DefaultResourceLoader().getResource("classpath:fraud-rules.yaml"));
+
+        assertFalse(shipped.evaluate(new BigDecimal("15000"), "AUD", PaymentType.CARD, null).fraud());
+        assertTrue(shipped.evaluate(new BigDecimal("15000.01"), "AUD", PaymentType.CARD, null).fraud());
+    }
+}
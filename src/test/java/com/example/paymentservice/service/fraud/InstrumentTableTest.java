@@ -0,0 +1,95 @@
+package com.example.paymentservice.service.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentTableTest {
+
+    @Test
+    void touch_shouldReturnTheSameCountersForAKeyAndCreateThemOnce() {
+        InstrumentTable table = new InstrumentTable(100);
+
+        VelocityCounters first = table.touch(42L);
+
+        assertSame(first, table.touch(42L));
+        assertSame(first, table.find(42L));
+        assertNull(table.find(43L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void touch_shouldDropTheLeastRecentlySeenKey_whenFull() {
+        InstrumentTable table = new InstrumentTable(3);
+        table.touch(1L);
+        table.touch(2L);
+        table.touch(3L);
+        table.touch(1L);
+
+        table.touch(4L);
+
+        assertNull(table.find(2L));
+        assertEquals(3, table.size());
+        assertEquals(3L, table.eldest().key);
+    }
+
+    @Test
+    void remove_shouldKeepOtherKeysOfTheProbeChainReachable() {
+        InstrumentTable table = new InstrumentTable(1000);
+        List<VelocityCounters> all = new ArrayList<>();
+        for (long key = 0; key < 500; key++) {
+            all.add(table.touch(key * 16));
+        }
+
+        for (int i = 0; i < all.size(); i += 2) {
+            table.remove(all.get(i));
+        }
+
+        assertEquals(250, table.size());
+        for (int i = 0; i < all.size(); i++) {
+            VelocityCounters expected = i % 2 == 0 ? null : all.get(i);
+            assertSame(expected, table.find(all.get(i).key));
+        }
+    }
+
+    @Test
+    void touch_shouldMatchAnAccessOrderedMapUnderRandomUse() {
+        int maxSize = 64;
+        InstrumentTable table = new InstrumentTable(maxSize);
+        Map<Long, VelocityCounters> reference = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, VelocityCounters> eldest) {
+                return size() > maxSize;
+            }
+        };
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(200) * 0x1_0000_0000L;
+            if (random.nextInt(10) == 0) {
+                VelocityCounters counters = table.find(key);
+                assertSame(reference.remove(key), counters);
+                if (counters != null) {
+                    table.remove(counters);
+                }
+            } else {
+                VelocityCounters counters = table.touch(key);
+                reference.computeIfAbsent(key, k -> counters);
+                assertSame(reference.get(key), counters);
+            }
+        }
+
+        assertEquals(reference.size(), table.size());
+        VelocityCounters eldest = table.eldest();
+        for (Long key : reference.keySet()) {
+            assertEquals(key, eldest.key);
+            eldest = eldest.newer;
+        }
+    }
+}
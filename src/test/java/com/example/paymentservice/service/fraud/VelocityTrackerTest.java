@@ -0,0 +1,150 @@
+package com.example.paymentservice.service.fraud;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityTrackerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VelocityTracker tracker = new VelocityTracker(meterRegistry, 1000, clock);
+
+    private VelocityStats record(String token, String amount) {
+        return tracker.record(0, token, new BigDecimal(amount));
+    }
+
+    @Test
+    void record_shouldCountAndSumPerInstrumentIncludingCurrentPayment() {
+        record("card-a", "10.00");
+        record("card-b", "99.00");
+        VelocityStats stats = record("card-a", "15.50");
+
+        assertEquals(2, stats.count(VelocityWindow.ONE_MINUTE));
+        assertEquals(2550, stats.sum(VelocityWindow.ONE_HOUR));
+        assertEquals(2, stats.dayCount());
+        assertNull(tracker.record(0, null, BigDecimal.TEN));
+    }
+
+    @Test
+    void record_shouldSumAmountsExactlyInMinorUnits() {
+        for (int i = 0; i < 9; i++) {
+            record("card-a", "0.10");
+        }
+
+        VelocityStats stats = record("card-a", "0.20");
+
+        assertEquals(110, stats.minuteSum());
+    }
+
+    @Test
+    void record_shouldSlideOlderPaymentsOutOfShorterWindows() {
+        record("card-a", "10");
+        record("card-a", "10");
+
+        clock.advance(Duration.ofSeconds(61));
+        VelocityStats afterAMinute = record("card-a", "10");
+        assertEquals(1, afterAMinute.minuteCount());
+        assertEquals(3, afterAMinute.hourCount());
+
+        clock.advance(Duration.ofHours(2));
+        VelocityStats afterTwoHours = record("card-a", "10");
+        assertEquals(1, afterTwoHours.hourCount());
+        assertEquals(4, afterTwoHours.dayCount());
+        assertEquals(4000, afterTwoHours.daySum());
+
+        clock.advance(Duration.ofDays(3));
+        assertEquals(1, record("card-a", "10").dayCount());
+    }
+
+    @Test
+    void undo_shouldTakePaymentOutOfTheWindowsItWasAddedTo() {
+        record("card-a", "10");
+        VelocityStats redelivered = record("card-a", "25");
+        clock.advance(Duration.ofSeconds(15));
+
+        tracker.undo(0, "card-a", new BigDecimal("25"), redelivered);
+
+        VelocityStats next = record("card-a", "5");
+        assertEquals(2, next.minuteCount());
+        assertEquals(1500, next.daySum());
+    }
+
+    @Test
+    void evictIdle_shouldDropInstrumentsNotSeenForADay() {
+        record("card-a", "10");
+        clock.advance(Duration.ofHours(12));
+        record("card-b", "10");
+        assertEquals(2.0, meterRegistry.get("payment.fraud.velocity.keys").gauge().value());
+
+        clock.advance(Duration.ofHours(13));
+        tracker.evictIdle();
+
+        assertEquals(1, tracker.trackedKeys());
+        assertEquals(2, record("card-b", "10").dayCount());
+    }
+
+    @Test
+    void record_shouldKeepAtMostTheConfiguredKeysPerPartition() {
+        VelocityTracker small = new VelocityTracker(meterRegistry, VelocityTracker.STRIPES, clock);
+        for (int i = 0; i < 500; i++) {
+            small.record(0, "card-" + i, BigDecimal.ONE);
+        }
+
+        assertTrue(small.trackedKeys() <= VelocityTracker.STRIPES);
+    }
+
+    @Test
+    void onPartitionsRevoked_shouldDropOnlyThePaymentsTopicPartitionState() {
+        tracker.record(0, "card-a", BigDecimal.ONE);
+        tracker.record(1, "card-b", BigDecimal.ONE);
+
+        tracker.onPartitionsRevokedAfterCommit(null, List.of(new TopicPartition("payments_dlq", 0)));
+        assertEquals(2, tracker.trackedKeys());
+
+        tracker.onPartitionsRevokedAfterCommit(null, List.of(new TopicPartition("payments", 0)));
+        assertEquals(1, tracker.trackedKeys());
+        assertEquals(1, tracker.record(0, "card-a", BigDecimal.ONE).minuteCount());
+
+        tracker.onPartitionsLost(null, List.of(new TopicPartition("payments", 1)));
+        assertEquals(1, tracker.trackedKeys());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
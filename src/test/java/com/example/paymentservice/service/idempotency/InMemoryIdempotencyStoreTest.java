@@ -0,0 +1,118 @@
+package com.example.paymentservice.service.idempotency;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+
+    private MutableClock clock;
+    private InMemoryIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new InMemoryIdempotencyStore(Duration.ofHours(24), Duration.ofSeconds(30), clock);
+    }
+
+    private PaymentResponse response() {
+        return PaymentResponse.builder().paymentId(UUID.randomUUID()).status("PENDING").build();
+    }
+
+    @Test
+    void reserve_shouldAcquireOnce_andReportInProgressToDuplicates() {
+        assertEquals(IdempotencyReservation.Outcome.ACQUIRED, store.reserve("key").outcome());
+        assertEquals(IdempotencyReservation.Outcome.IN_PROGRESS, store.reserve("key").outcome());
+        assertEquals(IdempotencyReservation.Outcome.ACQUIRED, store.reserve("other").outcome());
+    }
+
+    @Test
+    void reserve_shouldReplayResponse_afterComplete() {
+        PaymentResponse response = response();
+        store.reserve("key");
+        store.complete("key", response);
+
+        IdempotencyReservation replay = store.reserve("key");
+
+        assertEquals(IdempotencyReservation.Outcome.COMPLETED, replay.outcome());
+        assertSame(response, replay.response());
+    }
+
+    @Test
+    void release_shouldFreeInProgressKey_butNeverCompletedOne() {
+        store.release("failed", store.reserve("failed").token());
+        assertEquals(IdempotencyReservation.Outcome.ACQUIRED, store.reserve("failed").outcome());
+
+        String token = store.reserve("done").token();
+        store.complete("done", response());
+        store.release("done", token);
+        assertEquals(IdempotencyReservation.Outcome.COMPLETED, store.reserve("done").outcome());
+    }
+
+    @Test
+    void release_shouldLeaveAnotherRequestsLease_afterOwnLeaseExpired() {
+        String slow = store.reserve("key").token();
+        clock.advance(Duration.ofSeconds(31));
+        String next = store.reserve("key").token();
+
+        store.release("key", slow);
+
+        assertNotEquals(slow, next);
+        assertEquals(IdempotencyReservation.Outcome.IN_PROGRESS, store.reserve("key").outcome());
+    }
+
+    @Test
+    void reserve_shouldReacquire_afterLeaseOrTtlExpires() {
+        store.reserve("crashed");
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals(IdempotencyReservation.Outcome.ACQUIRED, store.reserve("crashed").outcome());
+
+        store.complete("crashed", response());
+        clock.advance(Duration.ofHours(25));
+        assertEquals(IdempotencyReservation.Outcome.ACQUIRED, store.reserve("crashed").outcome());
+    }
+
+    @Test
+    void purgeExpired_shouldDropOnlyExpiredEntries() {
+        store.reserve("old");
+        store.complete("old", response());
+        clock.advance(Duration.ofHours(25));
+        store.reserve("fresh");
+
+        store.purgeExpired();
+
+        assertEquals(1, store.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.paymentservice.service.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisIdempotencyStoreTest {
+
+    private static final String REDIS_KEY = "payment:idempotency:key";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private RedisIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisIdempotencyStore(redisTemplate, JsonMapper.builder().build(),
+                Duration.ofHours(24), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void reserve_shouldWriteAFreshTokenPerReservation_andReleaseOnlyThatToken() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        IdempotencyReservation first = store.reserve("key");
+        IdempotencyReservation second = store.reserve("key");
+        store.release("key", first.token());
+
+        ArgumentCaptor<String> markers = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations, times(2)).setIfAbsent(eq(REDIS_KEY), markers.capture(), eq(Duration.ofSeconds(30)));
+        assertEquals(List.of(first.token(), second.token()), markers.getAllValues());
+        assertNotEquals(first.token(), second.token());
+        assertTrue(first.token().startsWith("IN_PROGRESS:"));
+        // Compare-and-delete against this reservation's own marker
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(REDIS_KEY)), eq(first.token()));
+    }
+
+    @Test
+    void reserve_shouldReportInProgress_forAnotherRequestsMarker() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn("IN_PROGRESS:other", "IN_PROGRESS");
+
+        assertEquals(IdempotencyReservation.Outcome.IN_PROGRESS, store.reserve("key").outcome());
+        // Bare marker of an instance that predates tokens
+        assertEquals(IdempotencyReservation.Outcome.IN_PROGRESS, store.reserve("key").outcome());
+    }
+
+    @Test
+    void release_shouldSkipRedis_whenNoMarkerWasWritten() {
+        store.release("key", null);
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
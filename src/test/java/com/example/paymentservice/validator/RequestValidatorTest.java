@@ -1,5 +1,8 @@
 package com.example.paymentservice.validator;
+import com.example.paymentservice.entity.enums.PaymentStatus;
+import com.example.paymentservice.entity.enums.PaymentType;
 import com.example.paymentservice.exception.BadRequestException;
+import com.example.paymentservice.repository.PaymentSearchCriteria;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -7,6 +10,9 @@ import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,4 +68,87 @@ class RequestValidatorTest {
 
         assertEquals("Amount must be greater than zero", exception.getMessage());
     }
+
+    // ---------- validatePageSize ----------
+
+    @ParameterizedTest(name = "Should accept page size = {0}")
+    @ValueSource(ints = {1, 50, RequestValidator.MAX_PAGE_SIZE})
+    void validatePageSize_shouldPass_whenWithinBounds(int size) {
+        assertDoesNotThrow(() -> requestValidator.validatePageSize(size));
+    }
+
+    @ParameterizedTest(name = "Should throw exception for page size = {0}")
+    @ValueSource(ints = {0, -1, RequestValidator.MAX_PAGE_SIZE + 1})
+    void validatePageSize_shouldThrowException_whenOutOfBounds(int size) {
+        BadRequestException exception = assertThrows(
+                BadRequestException.class,
+                () -> requestValidator.validatePageSize(size)
+        );
+
+        assertEquals("Page size must be between 1 and 500", exception.getMessage());
+    }
+
+    // ---------- validateBatchSize ----------
+
+    @ParameterizedTest(name = "Should accept batch of {0} item(s)")
+    @ValueSource(ints = {1, RequestValidator.MAX_BATCH_SIZE})
+    void validateBatchSize_shouldPass_whenWithinBounds(int size) {
+        assertDoesNotThrow(() -> requestValidator.validateBatchSize(Collections.nCopies(size, "item")));
+    }
+
+    @ParameterizedTest(name = "Should throw exception for batch of {0} item(s)")
+    @ValueSource(ints = {0, RequestValidator.MAX_BATCH_SIZE + 1})
+    void validateBatchSize_shouldThrowException_whenOutOfBounds(int size) {
+        BadRequestException exception = assertThrows(
+                BadRequestException.class,
+                () -> requestValidator.validateBatchSize(Collections.nCopies(size, "item"))
+        );
+
+        assertEquals("Batch must contain between 1 and 500 items", exception.getMessage());
+    }
+
+    @Test
+    void validateBatchSize_shouldThrowException_whenItemsMissing() {
+        assertThrows(BadRequestException.class, () -> requestValidator.validateBatchSize(null));
+    }
+
+    // ---------- validateSearch ----------
+
+    @Test
+    void validateSearch_shouldPass_whenStatusOrCreatedBoundIsSet() {
+        LocalDateTime now = LocalDateTime.now();
+        assertDoesNotThrow(() -> requestValidator.validateSearch(new PaymentSearchCriteria(
+                Set.of(PaymentStatus.PENDING), null, null, null, null, null, now)));
+        assertDoesNotThrow(() -> requestValidator.validateSearch(new PaymentSearchCriteria(
+                null, PaymentType.CARD, "AUD", now.minusDays(1), null, null, null)));
+    }
+
+    @Test
+    void validateSearch_shouldThrowException_whenSearchWouldScanTheTable() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> requestValidator.validateSearch(new PaymentSearchCriteria(
+                        Set.of(), PaymentType.CARD, "AUD", null, null, LocalDateTime.now(), null)));
+
+        assertEquals("Search needs a status or a createdFrom/createdTo bound", exception.getMessage());
+    }
+
+    @Test
+    void validateSearch_shouldThrowException_whenRangeIsEmpty() {
+        LocalDateTime now = LocalDateTime.now();
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> requestValidator.validateSearch(new PaymentSearchCriteria(
+                        Set.of(PaymentStatus.FAILED), null, null, null, null, now, now)));
+
+        assertEquals("updatedFrom must be before updatedTo", exception.getMessage());
+    }
+
+    @Test
+    void validateExportRange_shouldThrowException_whenToIsNotAfterFrom() {
+        LocalDateTime day = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertDoesNotThrow(() -> requestValidator.validateExportRange(day, day.plusDays(1)));
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> requestValidator.validateExportRange(day, day));
+        assertEquals("from must be before to", exception.getMessage());
+    }
 }